@@ -0,0 +1,18 @@
+package com.demo.sys.config;
+
+/**
+ * Hibernate second-level cache region names; sizes are set in application.conf
+ */
+public final class CacheRegions {
+
+    public static final String EMPLOYEE_PERFORMANCE = "employee-performance";
+
+    public static final String EMPLOYEE_PERFORMANCE_QUERIES = "employee-performance-queries";
+
+    public static final String PERFORMANCE_MONTH = "performance-month";
+
+    public static final String PERFORMANCE_MONTH_QUERIES = "performance-month-queries";
+
+    private CacheRegions() {
+    }
+}
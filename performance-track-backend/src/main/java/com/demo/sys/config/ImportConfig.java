@@ -0,0 +1,273 @@
+package com.demo.sys.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "import")
+public class ImportConfig {
+
+    // Read .xlsx uploads with the SAX event model instead of loading the whole workbook
+    private boolean streaming = true;
+
+    // Worker threads used to parse the files of a batch import in parallel
+    private int batchThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // Parse tasks allowed to wait for a worker before the submitting thread runs them itself
+    private int batchQueueCapacity = 32;
+
+    // Worker threads running background import jobs
+    private int jobThreads = 2;
+
+    // Import jobs allowed to wait for a worker; further submissions are rejected
+    private int jobQueueCapacity = 20;
+
+    // How long finished import jobs stay queryable
+    private int jobRetentionMinutes = 60;
+
+    // Preview results kept in memory; older ones are spilled to previewSpillDir
+    private int previewMaxInMemory = 8;
+
+    // Preview results kept in total (memory and disk); the oldest are discarded first
+    private int previewMaxSessions = 100;
+
+    // How long a preview can still be confirmed
+    private int previewTtlMinutes = 30;
+
+    // Local directory for spilled preview results
+    private String previewSpillDir = System.getProperty("java.io.tmpdir") + "/performance-preview";
+
+    // Import results cached by upload content; 0 disables the cache
+    private int resultCacheMaxEntries = 16;
+
+    // Daily rows held by all cached results together
+    private int resultCacheMaxRows = 2_000_000;
+
+    // How long a cached import result stays valid
+    private int resultCacheTtlMinutes = 10;
+
+    // Entries (of any kind) allowed in the zip archives of one batch import
+    private int zipMaxEntries = 500;
+
+    // Bytes allowed to be extracted from the zip archives of one batch import
+    private long zipMaxUncompressedBytes = 1024L * 1024 * 1024;
+
+    // Extracted bytes allowed per byte of zip archive, checked across the whole archive
+    private int zipMaxCompressionRatio = 100;
+
+    // Uploads at least this large are imported in pipelined mode (parse, aggregate and save chunk by chunk)
+    private long pipelineThresholdBytes = 20L * 1024 * 1024;
+
+    // Daily rows per chunk handed from the parser to the saving thread
+    private int pipelineChunkSize = 5000;
+
+    // Parsed chunks allowed to wait for the saving thread before the parser blocks
+    private int pipelineQueueChunks = 4;
+
+    // Parser threads for pipelined imports
+    private int pipelineThreads = 4;
+
+    // Pipelined imports allowed to wait for a parser thread; further imports are rejected
+    private int pipelineQueueCapacity = 16;
+
+    // Rows per JDBC batch when saving imported data
+    private int jdbcBatchSize = 1000;
+
+    // Load large sets of daily rows with MySQL LOAD DATA LOCAL INFILE (needs allowLoadLocalInfile=true on the URL)
+    private boolean bulkLoad = false;
+
+    // Smallest number of daily rows worth a LOAD DATA round trip
+    private int bulkLoadMinRows = 5000;
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+    public void setBatchThreads(int batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+    public int getBatchQueueCapacity() {
+        return batchQueueCapacity;
+    }
+
+    public void setBatchQueueCapacity(int batchQueueCapacity) {
+        this.batchQueueCapacity = batchQueueCapacity;
+    }
+
+    public int getJobThreads() {
+        return jobThreads;
+    }
+
+    public void setJobThreads(int jobThreads) {
+        this.jobThreads = jobThreads;
+    }
+
+    public int getJobQueueCapacity() {
+        return jobQueueCapacity;
+    }
+
+    public void setJobQueueCapacity(int jobQueueCapacity) {
+        this.jobQueueCapacity = jobQueueCapacity;
+    }
+
+    public int getJobRetentionMinutes() {
+        return jobRetentionMinutes;
+    }
+
+    public void setJobRetentionMinutes(int jobRetentionMinutes) {
+        this.jobRetentionMinutes = jobRetentionMinutes;
+    }
+
+    public int getPreviewMaxInMemory() {
+        return previewMaxInMemory;
+    }
+
+    public void setPreviewMaxInMemory(int previewMaxInMemory) {
+        this.previewMaxInMemory = previewMaxInMemory;
+    }
+
+    public int getPreviewMaxSessions() {
+        return previewMaxSessions;
+    }
+
+    public void setPreviewMaxSessions(int previewMaxSessions) {
+        this.previewMaxSessions = previewMaxSessions;
+    }
+
+    public int getPreviewTtlMinutes() {
+        return previewTtlMinutes;
+    }
+
+    public void setPreviewTtlMinutes(int previewTtlMinutes) {
+        this.previewTtlMinutes = previewTtlMinutes;
+    }
+
+    public String getPreviewSpillDir() {
+        return previewSpillDir;
+    }
+
+    public void setPreviewSpillDir(String previewSpillDir) {
+        this.previewSpillDir = previewSpillDir;
+    }
+
+    public int getResultCacheMaxEntries() {
+        return resultCacheMaxEntries;
+    }
+
+    public void setResultCacheMaxEntries(int resultCacheMaxEntries) {
+        this.resultCacheMaxEntries = resultCacheMaxEntries;
+    }
+
+    public int getResultCacheMaxRows() {
+        return resultCacheMaxRows;
+    }
+
+    public void setResultCacheMaxRows(int resultCacheMaxRows) {
+        this.resultCacheMaxRows = resultCacheMaxRows;
+    }
+
+    public int getResultCacheTtlMinutes() {
+        return resultCacheTtlMinutes;
+    }
+
+    public void setResultCacheTtlMinutes(int resultCacheTtlMinutes) {
+        this.resultCacheTtlMinutes = resultCacheTtlMinutes;
+    }
+
+    public int getZipMaxEntries() {
+        return zipMaxEntries;
+    }
+
+    public void setZipMaxEntries(int zipMaxEntries) {
+        this.zipMaxEntries = zipMaxEntries;
+    }
+
+    public long getZipMaxUncompressedBytes() {
+        return zipMaxUncompressedBytes;
+    }
+
+    public void setZipMaxUncompressedBytes(long zipMaxUncompressedBytes) {
+        this.zipMaxUncompressedBytes = zipMaxUncompressedBytes;
+    }
+
+    public int getZipMaxCompressionRatio() {
+        return zipMaxCompressionRatio;
+    }
+
+    public void setZipMaxCompressionRatio(int zipMaxCompressionRatio) {
+        this.zipMaxCompressionRatio = zipMaxCompressionRatio;
+    }
+
+    public long getPipelineThresholdBytes() {
+        return pipelineThresholdBytes;
+    }
+
+    public void setPipelineThresholdBytes(long pipelineThresholdBytes) {
+        this.pipelineThresholdBytes = pipelineThresholdBytes;
+    }
+
+    public int getPipelineChunkSize() {
+        return pipelineChunkSize;
+    }
+
+    public void setPipelineChunkSize(int pipelineChunkSize) {
+        this.pipelineChunkSize = pipelineChunkSize;
+    }
+
+    public int getPipelineQueueChunks() {
+        return pipelineQueueChunks;
+    }
+
+    public void setPipelineQueueChunks(int pipelineQueueChunks) {
+        this.pipelineQueueChunks = pipelineQueueChunks;
+    }
+
+    public int getPipelineThreads() {
+        return pipelineThreads;
+    }
+
+    public void setPipelineThreads(int pipelineThreads) {
+        this.pipelineThreads = pipelineThreads;
+    }
+
+    public int getPipelineQueueCapacity() {
+        return pipelineQueueCapacity;
+    }
+
+    public void setPipelineQueueCapacity(int pipelineQueueCapacity) {
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    public int getJdbcBatchSize() {
+        return jdbcBatchSize;
+    }
+
+    public void setJdbcBatchSize(int jdbcBatchSize) {
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public int getBulkLoadMinRows() {
+        return bulkLoadMinRows;
+    }
+
+    public void setBulkLoadMinRows(int bulkLoadMinRows) {
+        this.bulkLoadMinRows = bulkLoadMinRows;
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.sys.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ImportExecutorConfig {
+
+    /**
+     * Bounded pool for parsing batch uploads; when the queue is full the caller parses the file itself
+     */
+    @Bean(name = "batchImportExecutor")
+    public ThreadPoolTaskExecutor batchImportExecutor(ImportConfig importConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importConfig.getBatchThreads());
+        executor.setMaxPoolSize(importConfig.getBatchThreads());
+        executor.setQueueCapacity(importConfig.getBatchQueueCapacity());
+        executor.setThreadNamePrefix("batch-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Dedicated pool for background import jobs so they never hold Tomcat request threads
+     */
+    @Bean(name = "importJobExecutor")
+    public ThreadPoolTaskExecutor importJobExecutor(ImportConfig importConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importConfig.getJobThreads());
+        executor.setMaxPoolSize(importConfig.getJobThreads());
+        executor.setQueueCapacity(importConfig.getJobQueueCapacity());
+        executor.setThreadNamePrefix("import-job-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Single thread for full KNN model rebuilds; a rebuild requested while one is queued is dropped
+     */
+    @Bean(name = "modelRebuildExecutor")
+    public ThreadPoolTaskExecutor modelRebuildExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("model-rebuild-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Single thread for KNN model snapshot writes so imports never wait on the file; a write requested while one
+     * is queued is covered by the queued one
+     */
+    @Bean(name = "modelSnapshotExecutor")
+    public ThreadPoolTaskExecutor modelSnapshotExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("model-snapshot-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Parser threads for pipelined imports; the importing thread consumes the parsed chunks inside its transaction
+     */
+    @Bean(name = "importPipelineExecutor")
+    public ThreadPoolTaskExecutor importPipelineExecutor(ImportConfig importConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importConfig.getPipelineThreads());
+        executor.setMaxPoolSize(importConfig.getPipelineThreads());
+        executor.setQueueCapacity(importConfig.getPipelineQueueCapacity());
+        executor.setThreadNamePrefix("import-pipeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -16,6 +16,18 @@ public class KNNConfig {
     // Standardization parameters
     private double maxOvertimeHours = 40.0;  // standard overtime hours
 
+    // Incremental training: a full rebuild is scheduled once the instances appended since the last
+    // rebuild exceed this fraction of the instances it was built with
+    private double rebuildAppendRatio = 0.5;
+
+    // ... or once a feature's value range has widened by more than this fraction
+    private double rebuildRangeDrift = 0.25;
+
+    // Model snapshot written after each training run and restored on startup instead of retraining
+    private boolean snapshotEnabled = true;
+
+    private String snapshotPath = "data/knn-model.bin";
+
     public int getK() {
         return k;
     }
@@ -48,6 +60,22 @@ public class KNNConfig {
         this.overtimeWeight = overtimeWeight;
     }
 
+    public double getRebuildAppendRatio() {
+        return rebuildAppendRatio;
+    }
+
+    public void setRebuildAppendRatio(double rebuildAppendRatio) {
+        this.rebuildAppendRatio = rebuildAppendRatio;
+    }
+
+    public double getRebuildRangeDrift() {
+        return rebuildRangeDrift;
+    }
+
+    public void setRebuildRangeDrift(double rebuildRangeDrift) {
+        this.rebuildRangeDrift = rebuildRangeDrift;
+    }
+
     public double getMaxOvertimeHours() {
         return maxOvertimeHours;
     }
@@ -55,4 +83,20 @@ public class KNNConfig {
     public void setMaxOvertimeHours(double maxOvertimeHours) {
         this.maxOvertimeHours = maxOvertimeHours;
     }
-}
\ No newline at end of file
+
+    public boolean isSnapshotEnabled() {
+        return snapshotEnabled;
+    }
+
+    public void setSnapshotEnabled(boolean snapshotEnabled) {
+        this.snapshotEnabled = snapshotEnabled;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+}
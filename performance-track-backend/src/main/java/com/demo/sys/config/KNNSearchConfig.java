@@ -0,0 +1,94 @@
+package com.demo.sys.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Nearest-neighbour search used by the KNN rating model
+ */
+@Configuration
+@ConfigurationProperties(prefix = "knn.search")
+public class KNNSearchConfig {
+
+    public enum Engine {
+        // KnnEngine: weighted, normalized float columns scanned without allocation; a brute-force scan of every
+        // instance, so prediction cost grows linearly with the training set
+        NATIVE,
+        // Weka IBk with the search algorithm below, on features pre-scaled by the knn.*-weight properties
+        WEKA
+    }
+
+    public enum Algorithm {
+        // linear below treeMinInstances, then a KD-tree, or a ball tree above kdTreeMaxDimensions features
+        AUTO,
+        LINEAR,
+        KD_TREE,
+        BALL_TREE
+    }
+
+    // WEKA by default: its KD-tree answers in logarithmic time on large training sets, the native engine does not prune
+    private Engine engine = Engine.WEKA;
+
+    // Most samples one fork/join task of a native batch prediction scores before it is split further
+    private int batchTaskSize = 256;
+
+    // Used by the WEKA engine
+    private Algorithm algorithm = Algorithm.AUTO;
+
+    // Training sets smaller than this are scanned linearly under AUTO; building a tree does not pay off
+    private int treeMinInstances = 2000;
+
+    // KD-trees lose their pruning power as dimensions grow; AUTO switches to a ball tree above this
+    private int kdTreeMaxDimensions = 10;
+
+    // Instances kept in a leaf before it is split
+    private int maxInstancesInLeaf = 40;
+
+    public int getBatchTaskSize() {
+        return batchTaskSize;
+    }
+
+    public void setBatchTaskSize(int batchTaskSize) {
+        this.batchTaskSize = batchTaskSize;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getTreeMinInstances() {
+        return treeMinInstances;
+    }
+
+    public void setTreeMinInstances(int treeMinInstances) {
+        this.treeMinInstances = treeMinInstances;
+    }
+
+    public int getKdTreeMaxDimensions() {
+        return kdTreeMaxDimensions;
+    }
+
+    public void setKdTreeMaxDimensions(int kdTreeMaxDimensions) {
+        this.kdTreeMaxDimensions = kdTreeMaxDimensions;
+    }
+
+    public int getMaxInstancesInLeaf() {
+        return maxInstancesInLeaf;
+    }
+
+    public void setMaxInstancesInLeaf(int maxInstancesInLeaf) {
+        this.maxInstancesInLeaf = maxInstancesInLeaf;
+    }
+}
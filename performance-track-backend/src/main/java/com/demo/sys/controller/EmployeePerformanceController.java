@@ -2,15 +2,26 @@ package com.demo.sys.controller;
 
 import com.demo.sys.entity.EmployeePerformance;
 import com.demo.sys.entity.DailyPerformance;
+import com.demo.sys.service.BatchImportService;
 import com.demo.sys.service.EmployeePerformanceService;
 import com.demo.sys.service.ExcelImportService;
+import com.demo.sys.service.ImportJobService;
+import com.demo.sys.service.MonthAlreadyImportedException;
+import com.demo.sys.service.PerformanceCacheService;
+import com.demo.sys.service.PreviewSessionStore;
+import com.demo.sys.dto.BatchImportFileResultDTO;
 import com.demo.sys.dto.EmployeePerformanceSearchDTO;
+import com.demo.sys.dto.ImportConfirmDTO;
+import com.demo.sys.dto.KeysetSearchDTO;
+import com.demo.sys.dto.ImportJobStatusDTO;
 import com.demo.sys.dto.PerformanceImportResultDTO;
+import com.demo.sys.dto.PerformanceRowDTO;
+import com.demo.sys.dto.PreviewSessionDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
@@ -31,15 +42,30 @@ import java.util.Map;
 public class EmployeePerformanceController {
     
     private static final Logger logger = LoggerFactory.getLogger(EmployeePerformanceController.class);
+    
+    private static final int PREVIEW_PAGE_SIZE = 100;
+    private static final int MAX_PREVIEW_PAGE_SIZE = 1000;
 
     @Autowired
     private EmployeePerformanceService employeePerformanceService;
 
+    @Autowired
+    private PerformanceCacheService performanceCacheService;
+
     @Autowired
     private ExcelImportService excelImportService;
 
+    @Autowired
+    private BatchImportService batchImportService;
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private PreviewSessionStore previewSessionStore;
+
     /**
-     * upload the file to database
+     * parse the file and keep the result on the server; returns a token and the first page of rows
      */
     @PostMapping("/preview")
     public ResponseEntity<?> previewExcel(@RequestParam("file") MultipartFile file) {
@@ -49,24 +75,16 @@ public class EmployeePerformanceController {
             }
             
             //
-            YearMonth yearMonth = excelImportService.extractYearMonthFromExcel(file);
-            
-            //
-            if (employeePerformanceService.hasDataForYearMonth(yearMonth)) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", false);
-                response.put("message", "Performance data for this month("+yearMonth.toString()+") already exists, please don't upload again");
-                response.put("yearMonth", yearMonth.toString());
-                response.put("alreadyExists", true);
-                
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-            }
-            
-            //
-            PerformanceImportResultDTO result = excelImportService.processExcelWithoutSaving(file);
+            PerformanceImportResultDTO result = excelImportService.processExcelWithoutSaving(
+                file, employeePerformanceService::requireNoDataForYearMonth);
             
             //
-            return ResponseEntity.ok(result);
+            PreviewSessionStore.Session session = previewSessionStore.put(result);
+            return ResponseEntity.ok(new PreviewSessionDTO(
+                session.getToken(), result, 0, PREVIEW_PAGE_SIZE, session.getExpiresAt()));
+        } catch (MonthAlreadyImportedException e) {
+            return monthConflict(e.getYearMonth(),
+                "Performance data for this month("+e.getYearMonth().toString()+") already exists, please don't upload again");
         } catch (Exception e) {
             logger.error("文件处理失败: {}", e.getMessage());
             return ResponseEntity.badRequest().body("文件处理失败: " + e.getMessage());
@@ -74,30 +92,50 @@ public class EmployeePerformanceController {
     }
     
     /**
-     * confirm to save the file
+     * page through the monthly rows of a stored preview
+     */
+    @GetMapping("/preview/{token}")
+    public ResponseEntity<?> getPreviewPage(
+            @PathVariable String token,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + PREVIEW_PAGE_SIZE) int size) {
+        PreviewSessionStore.Session session = previewSessionStore.getSession(token);
+        PerformanceImportResultDTO result = session != null ? previewSessionStore.get(token) : null;
+        if (result == null) {
+            return previewExpired();
+        }
+        if (page < 0 || size < 1) {
+            return ResponseEntity.badRequest().body("分页参数错误");
+        }
+        return ResponseEntity.ok(new PreviewSessionDTO(
+            token, result, page, Math.min(size, MAX_PREVIEW_PAGE_SIZE), session.getExpiresAt()));
+    }
+    
+    /**
+     * confirm to save a stored preview by its token
      */
     @PostMapping("/confirm")
-    public ResponseEntity<?> confirmImport(@RequestBody PerformanceImportResultDTO data) {
+    public ResponseEntity<?> confirmImport(@RequestBody ImportConfirmDTO request) {
+        if (request == null || request.getToken() == null || request.getToken().isEmpty()) {
+            return ResponseEntity.badRequest().body("没有待保存的数据");
+        }
+        
+        // 取出后其他请求无法再次确认同一份预览
+        String token = request.getToken();
+        PerformanceImportResultDTO data = previewSessionStore.take(token);
+        if (data == null) {
+            return previewExpired();
+        }
+        
         try {
-            if (data == null || data.getMonthlyPerformances() == null || data.getMonthlyPerformances().isEmpty()) {
+            if (data.getMonthlyPerformances() == null || data.getMonthlyPerformances().isEmpty()) {
                 return ResponseEntity.badRequest().body("没有待保存的数据");
             }
             
             //
-            if (!data.getMonthlyPerformances().isEmpty()) {
-                EmployeePerformance firstRecord = data.getMonthlyPerformances().get(0);
-                YearMonth yearMonth = firstRecord.getRecordDate();
-                
-                //
-                if (employeePerformanceService.hasDataForYearMonth(yearMonth)) {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", false);
-                    response.put("message", "该月份(" + yearMonth.toString() + ")的绩效数据已存在，请勿重复上传");
-                    response.put("yearMonth", yearMonth.toString());
-                    response.put("alreadyExists", true);
-                    
-                    return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
-                }
+            YearMonth yearMonth = data.getYearMonth();
+            if (employeePerformanceService.hasDataForYearMonth(yearMonth)) {
+                return monthConflict(yearMonth, "该月份(" + yearMonth.toString() + ")的绩效数据已存在，请勿重复上传");
             }
             
             //
@@ -106,45 +144,58 @@ public class EmployeePerformanceController {
                 data.getMonthlyPerformances()
             );
             
-            return ResponseEntity.ok(savedPerformances);
+            // 只返回摘要，保存的数据不再整体发回浏览器
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("fileName", data.getFileName());
+            response.put("yearMonth", yearMonth);
+            response.put("recordCount", savedPerformances.size());
+            response.put("message", "共导入" + savedPerformances.size() + "条绩效记录");
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
+            // 保存失败时放回预览结果，允许重试
+            previewSessionStore.restore(token, data);
             logger.error("保存数据失败: {}", e.getMessage());
             return ResponseEntity.badRequest().body("保存数据失败: " + e.getMessage());
         }
     }
 
+    private ResponseEntity<?> previewExpired() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+            "success", false,
+            "message", "预览已过期或不存在，请重新上传"
+        ));
+    }
+
     /**
      * same way to upload
+     * mode=upsert inserts or updates rows by (employee, date) instead of rejecting an already imported month
      */
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadExcel(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadExcel(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(value = "mode", defaultValue = "reject") String mode) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("文件为空，请选择文件");
             }
             
-            // 从Excel文件中提取年月信息
-            YearMonth yearMonth = excelImportService.extractYearMonthFromExcel(file);
-            
-            // 检查该月份的数据是否已存在
-            if (employeePerformanceService.hasDataForYearMonth(yearMonth)) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", false);
-                response.put("message", "该月份(" + yearMonth.toString() + ")的绩效数据已存在，请勿重复上传");
-                response.put("yearMonth", yearMonth.toString());
-                response.put("alreadyExists", true);
-                
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            List<EmployeePerformance> performances;
+            if ("upsert".equalsIgnoreCase(mode)) {
+                performances = excelImportService.upsertExcel(file);
+            } else {
+                // 解析时确定年月后立即检查该月份的数据是否已存在
+                performances = excelImportService.importExcel(
+                    file, employeePerformanceService::requireNoDataForYearMonth);
             }
             
-            List<EmployeePerformance> performances = excelImportService.importExcel(file);
-            
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "文件上传成功，共导入" + performances.size() + "条绩效记录");
             response.put("data", performances);
             
             return ResponseEntity.ok(response);
+        } catch (MonthAlreadyImportedException e) {
+            return monthConflict(e.getYearMonth(), e.getMessage());
         } catch (Exception e) {
             logger.error("文件处理失败: {}", e.getMessage());
             
@@ -156,8 +207,105 @@ public class EmployeePerformanceController {
         }
     }
 
+    /**
+     * upload as a background job; progress is pushed to /topic/import-jobs/{jobId}
+     */
+    @PostMapping("/upload-async")
+    public ResponseEntity<?> uploadExcelAsync(@RequestParam("file") MultipartFile file) {
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().body("文件为空，请选择文件");
+            }
+            
+            ImportJobStatusDTO job = importJobService.submit(file);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "导入任务已提交");
+            response.put("jobId", job.getJobId());
+            response.put("topic", ImportJobService.TOPIC_PREFIX + job.getJobId());
+            response.put("data", job);
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (TaskRejectedException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "导入任务过多，请稍后再试");
+            
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (Exception e) {
+            logger.error("提交导入任务失败: {}", e.getMessage());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "提交导入任务失败: " + e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * poll the status of a background import job
+     */
+    @GetMapping("/import-jobs/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        ImportJobStatusDTO job = importJobService.getStatus(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "success", false,
+                "message", "导入任务不存在或已过期"
+            ));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * upload many monthly files (or a zip of them) at once, parsed in parallel
+     */
+    @PostMapping("/batch-upload")
+    public ResponseEntity<?> uploadBatch(@RequestParam("files") MultipartFile[] files) {
+        try {
+            if (files == null || files.length == 0) {
+                return ResponseEntity.badRequest().body("文件为空，请选择文件");
+            }
+            
+            List<BatchImportFileResultDTO> results = batchImportService.importFiles(files);
+            long imported = results.stream()
+                .filter(r -> BatchImportFileResultDTO.STATUS_IMPORTED.equals(r.getStatus()))
+                .count();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", !results.isEmpty() && imported == results.size());
+            response.put("message", "批量导入完成，成功导入" + imported + "/" + results.size() + "个文件");
+            response.put("data", results);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("批量导入失败: {}", e.getMessage());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "批量导入失败: " + e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * build the 409 response for a month that has already been imported
+     */
+    private ResponseEntity<?> monthConflict(YearMonth yearMonth, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        response.put("yearMonth", yearMonth.toString());
+        response.put("alreadyExists", true);
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     @PostMapping("/search")
-    public ResponseEntity<Page<EmployeePerformance>> search(@RequestBody EmployeePerformanceSearchDTO searchDTO) {
+    public ResponseEntity<Page<PerformanceRowDTO>> search(@RequestBody EmployeePerformanceSearchDTO searchDTO) {
         try {
             PageRequest pageable = PageRequest.of(
                 searchDTO.getPage(), 
@@ -165,7 +313,7 @@ public class EmployeePerformanceController {
                 Sort.by(searchDTO.getSortBy())
             );
             
-            Page<EmployeePerformance> result;
+            Page<PerformanceRowDTO> result;
             
             //
             if (searchDTO.getRecordDate() != null) {
@@ -176,40 +324,10 @@ public class EmployeePerformanceController {
                     pageable
                 );
             } else if (searchDTO.getRecordDateString() != null && !searchDTO.getRecordDateString().isEmpty()) {
-                String dateStr = searchDTO.getRecordDateString();
-                
-                //
-                try {
-                    if (dateStr.length() >= 7) {
-                        String yearMonthStr = dateStr.substring(0, 7); // YYYY-MM
-                        String[] parts = yearMonthStr.split("-");
-                        if (parts.length == 2) {
-                            int year = Integer.parseInt(parts[0]);
-                            int month = Integer.parseInt(parts[1]);
-                            
-                            //
-                            List<EmployeePerformance> records = employeePerformanceService.findByYearAndMonth(year, month);
-                            
-                            if (!records.isEmpty()) {
-                                //
-                                int start = (int) pageable.getOffset();
-                                int end = Math.min((start + pageable.getPageSize()), records.size());
-                                
-                                if (start < records.size()) {
-                                    List<EmployeePerformance> pageContent = records.subList(start, end);
-                                    return ResponseEntity.ok(new PageImpl<>(pageContent, pageable, records.size()));
-                                }
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    //
-                }
-                
-                //
-                String searchPrefix = dateStr;
-                if (dateStr.length() >= 7) {
-                    searchPrefix = dateStr.substring(0, 7); // 只用YYYY-MM部分
+                // 前缀换算为日期区间后在数据库中分页；完整日期只用YYYY-MM部分，查询所在月份
+                String searchPrefix = searchDTO.getRecordDateString();
+                if (searchPrefix.length() >= 7) {
+                    searchPrefix = searchPrefix.substring(0, 7);
                 }
                 
                 result = employeePerformanceService.searchWithDatePrefix(
@@ -235,6 +353,30 @@ public class EmployeePerformanceController {
         }
     }
 
+    /**
+     * keyset pagination: pass the nextCursor of the previous page to get the next one;
+     * sortBy must be one of performanceRating, employeeID, recordDate
+     */
+    @PostMapping("/search/keyset")
+    public ResponseEntity<?> searchKeyset(@RequestBody KeysetSearchDTO searchDTO) {
+        try {
+            return ResponseEntity.ok(employeePerformanceService.searchKeyset(searchDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * hit/miss statistics of the Hibernate second-level and query caches
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<?> getCacheStatistics() {
+        return ResponseEntity.ok(performanceCacheService.statistics());
+    }
+
     /**
      * Get the outstanding employees in the past six months
      * * Return the employee with the best overall performance (by department, employee number, name)
@@ -242,10 +384,10 @@ public class EmployeePerformanceController {
     @GetMapping("/top-performer")
     public ResponseEntity<?> getTopPerformer() {
         try {
-            // 获取所有记录的日期
-            List<String> allDates = employeePerformanceService.findAllDistinctDates();
+            // 最新月份直接从月份目录读取
+            YearMonth latestMonth = employeePerformanceService.findLatestMonth().orElse(null);
             
-            if (allDates.isEmpty()) {
+            if (latestMonth == null) {
                 return ResponseEntity.ok(Map.of(
                     "message", "No performance data available",
                     "messageZh", "没有可用的绩效数据",
@@ -253,28 +395,6 @@ public class EmployeePerformanceController {
                 ));
             }
             
-            // find the newest month
-            YearMonth latestMonth = null;
-            for (String dateStr : allDates) {
-                try {
-                    YearMonth month = YearMonth.parse(dateStr);
-                    if (latestMonth == null || month.isAfter(latestMonth)) {
-                        latestMonth = month;
-                    }
-                } catch (Exception e) {
-                    // jump the month
-                    logger.warn("无法解析日期: {}", dateStr);
-                }
-            }
-            
-            if (latestMonth == null) {
-                return ResponseEntity.ok(Map.of(
-                    "message", "Could not determine the latest month from available data",
-                    "messageZh", "无法从现有数据确定最新月份",
-                    "data", null
-                ));
-            }
-            
             logger.info("找到最新月份: {}", latestMonth);
             
             //
@@ -288,10 +408,10 @@ public class EmployeePerformanceController {
                 logger.info("处理月份: {}", targetMonth);
                 
                 //
-                List<EmployeePerformance> monthlyData = employeePerformanceService.findByRecordDate(targetMonth);
+                List<PerformanceRowDTO> monthlyData = employeePerformanceService.findByRecordDate(targetMonth);
                 if (!monthlyData.isEmpty()) {
                     logger.info("月份 {} 找到 {} 条记录", targetMonth, monthlyData.size());
-                    for (EmployeePerformance performance : monthlyData) {
+                    for (PerformanceRowDTO performance : monthlyData) {
                         String employeeId = performance.getEmployeeID();
                         
                         //
@@ -0,0 +1,70 @@
+package com.demo.sys.dto;
+
+import java.time.YearMonth;
+
+/**
+ * Result of one workbook within a batch import
+ */
+public class BatchImportFileResultDTO {
+
+    public static final String STATUS_IMPORTED = "IMPORTED";
+    public static final String STATUS_CONFLICT = "CONFLICT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String fileName;
+    private YearMonth yearMonth;
+    private String status;
+    private int recordCount;
+    private String message;
+
+    public BatchImportFileResultDTO() {
+    }
+
+    public BatchImportFileResultDTO(String fileName, YearMonth yearMonth, String status, int recordCount, String message) {
+        this.fileName = fileName;
+        this.yearMonth = yearMonth;
+        this.status = status;
+        this.recordCount = recordCount;
+        this.message = message;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    public void setYearMonth(YearMonth yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(int recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
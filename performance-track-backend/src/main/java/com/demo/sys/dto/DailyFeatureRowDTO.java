@@ -0,0 +1,58 @@
+package com.demo.sys.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Columns of a daily record that monthly training features are computed from
+ * Streamed straight from the query result while training the rating model; names and departments are
+ * not needed for features and are left out.
+ */
+public class DailyFeatureRowDTO {
+
+    private final String employeeId;
+    private final LocalDate recordDate;
+    private final String attendance;
+    private final Integer lateEarlyMinutes;
+    private final Double overtimeHours;
+    private final Integer totalTasks;
+    private final Integer completedTasks;
+
+    public DailyFeatureRowDTO(String employeeId, LocalDate recordDate, String attendance, Integer lateEarlyMinutes,
+                              Double overtimeHours, Integer totalTasks, Integer completedTasks) {
+        this.employeeId = employeeId;
+        this.recordDate = recordDate;
+        this.attendance = attendance;
+        this.lateEarlyMinutes = lateEarlyMinutes;
+        this.overtimeHours = overtimeHours;
+        this.totalTasks = totalTasks;
+        this.completedTasks = completedTasks;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public LocalDate getRecordDate() {
+        return recordDate;
+    }
+
+    public String getAttendance() {
+        return attendance;
+    }
+
+    public Integer getLateEarlyMinutes() {
+        return lateEarlyMinutes;
+    }
+
+    public Double getOvertimeHours() {
+        return overtimeHours;
+    }
+
+    public Integer getTotalTasks() {
+        return totalTasks;
+    }
+
+    public Integer getCompletedTasks() {
+        return completedTasks;
+    }
+}
@@ -0,0 +1,17 @@
+package com.demo.sys.dto;
+
+/**
+ * Request body of /confirm: the token returned by /preview
+ */
+public class ImportConfirmDTO {
+
+    private String token;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
@@ -0,0 +1,68 @@
+package com.demo.sys.dto;
+
+import java.util.List;
+
+/**
+ * One page of /search/keyset
+ * nextCursor is null on the last page; approximateTotal is only filled when requested and may lag
+ * behind imports by up to a minute
+ */
+public class KeysetPageDTO {
+
+    private List<PerformanceRowDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long approximateTotal;
+
+    public KeysetPageDTO() {
+    }
+
+    public KeysetPageDTO(List<PerformanceRowDTO> content, int size, String nextCursor, Long approximateTotal) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+        this.approximateTotal = approximateTotal;
+    }
+
+    public List<PerformanceRowDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<PerformanceRowDTO> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+
+    public void setApproximateTotal(Long approximateTotal) {
+        this.approximateTotal = approximateTotal;
+    }
+}
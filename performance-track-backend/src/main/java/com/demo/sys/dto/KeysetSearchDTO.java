@@ -0,0 +1,82 @@
+package com.demo.sys.dto;
+
+/**
+ * Request body of /search/keyset
+ * cursor is the nextCursor of the previous page and must be sent back with the same filters and sort;
+ * recordDate is a yyyy-MM-dd prefix such as "2024", "2024-06"
+ */
+public class KeysetSearchDTO {
+
+    private String employeeID;
+    private String employeeName;
+    private String recordDate;
+    private String sortBy = "performanceRating";
+    private String direction = "desc";
+    private int size = 10;
+    private String cursor;
+    private boolean includeTotal;
+
+    public String getEmployeeID() {
+        return employeeID;
+    }
+
+    public void setEmployeeID(String employeeID) {
+        this.employeeID = employeeID;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public void setEmployeeName(String employeeName) {
+        this.employeeName = employeeName;
+    }
+
+    public String getRecordDate() {
+        return recordDate;
+    }
+
+    public void setRecordDate(String recordDate) {
+        this.recordDate = recordDate;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isIncludeTotal() {
+        return includeTotal;
+    }
+
+    public void setIncludeTotal(boolean includeTotal) {
+        this.includeTotal = includeTotal;
+    }
+}
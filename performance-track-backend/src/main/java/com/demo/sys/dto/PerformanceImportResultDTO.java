@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.io.Serializable;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -21,7 +22,10 @@ public class PerformanceImportResultDTO implements Serializable {
     private List<DailyPerformance> dailyPerformances;
     private List<EmployeePerformance> monthlyPerformances;
     private String fileName;
+    private YearMonth yearMonth;
     private int recordCount;
+    private int rejectedRowCount;
+    private List<RowRejectionDTO> rejectedRows;
     
     public PerformanceImportResultDTO() {
     }
@@ -60,6 +64,14 @@ public class PerformanceImportResultDTO implements Serializable {
         this.fileName = fileName;
     }
 
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    public void setYearMonth(YearMonth yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+
     public int getRecordCount() {
         return recordCount;
     }
@@ -67,4 +79,20 @@ public class PerformanceImportResultDTO implements Serializable {
     public void setRecordCount(int recordCount) {
         this.recordCount = recordCount;
     }
-} 
\ No newline at end of file
+
+    public int getRejectedRowCount() {
+        return rejectedRowCount;
+    }
+
+    public void setRejectedRowCount(int rejectedRowCount) {
+        this.rejectedRowCount = rejectedRowCount;
+    }
+
+    public List<RowRejectionDTO> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(List<RowRejectionDTO> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.sys.dto;
+
+import java.time.YearMonth;
+
+/**
+ * Read-only row of a monthly performance list
+ * Filled directly from the query result, so listings do not create managed entities, snapshots for
+ * dirty checking or proxies. Serialized with the same property names as EmployeePerformance.
+ */
+public class PerformanceRowDTO {
+
+    private final Long id;
+    private final String employeeID;
+    private final String employeeName;
+    private final String department;
+    private final double attendanceRate;
+    private final double kpiCompletion;
+    private final double overtimeHours;
+    private final Integer performanceRating;
+    private final YearMonth recordDate;
+
+    public PerformanceRowDTO(Long id, String employeeID, String employeeName, String department,
+                             double attendanceRate, double kpiCompletion, double overtimeHours,
+                             Integer performanceRating, YearMonth recordDate) {
+        this.id = id;
+        this.employeeID = employeeID;
+        this.employeeName = employeeName;
+        this.department = department;
+        this.attendanceRate = attendanceRate;
+        this.kpiCompletion = kpiCompletion;
+        this.overtimeHours = overtimeHours;
+        this.performanceRating = performanceRating;
+        this.recordDate = recordDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmployeeID() {
+        return employeeID;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public double getAttendanceRate() {
+        return attendanceRate;
+    }
+
+    public double getKpiCompletion() {
+        return kpiCompletion;
+    }
+
+    public double getOvertimeHours() {
+        return overtimeHours;
+    }
+
+    public Integer getPerformanceRating() {
+        return performanceRating;
+    }
+
+    public YearMonth getRecordDate() {
+        return recordDate;
+    }
+}
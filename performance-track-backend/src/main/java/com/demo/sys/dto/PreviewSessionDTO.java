@@ -0,0 +1,146 @@
+package com.demo.sys.dto;
+
+import com.demo.sys.entity.EmployeePerformance;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Preview summary returned by /preview: the full result stays on the server under the token,
+ * only one page of monthly rows is sent to the browser, together with the rows that could not be imported
+ */
+public class PreviewSessionDTO {
+
+    private String token;
+    private String fileName;
+    private YearMonth yearMonth;
+    private int recordCount;
+    private int dailyRecordCount;
+    private int rejectedRowCount;
+    private List<RowRejectionDTO> rejectedRows;
+    private int page;
+    private int size;
+    private int totalPages;
+    private List<EmployeePerformance> monthlyPerformances;
+    private LocalDateTime expiresAt;
+
+    public PreviewSessionDTO() {
+    }
+
+    public PreviewSessionDTO(String token, PerformanceImportResultDTO result, int page, int size, LocalDateTime expiresAt) {
+        List<EmployeePerformance> monthly = result.getMonthlyPerformances();
+        // offsets in long: page * size overflows int for large page numbers
+        int from = (int) Math.min((long) page * size, monthly.size());
+        int to = (int) Math.min((long) from + size, monthly.size());
+
+        this.token = token;
+        this.fileName = result.getFileName();
+        this.yearMonth = result.getYearMonth();
+        this.recordCount = monthly.size();
+        this.dailyRecordCount = result.getDailyPerformances() != null ? result.getDailyPerformances().size() : 0;
+        this.rejectedRowCount = result.getRejectedRowCount();
+        this.rejectedRows = result.getRejectedRows();
+        this.page = page;
+        this.size = size;
+        this.totalPages = (int) (((long) monthly.size() + size - 1) / size);
+        this.monthlyPerformances = monthly.subList(from, to);
+        this.expiresAt = expiresAt;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    public void setYearMonth(YearMonth yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(int recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public int getDailyRecordCount() {
+        return dailyRecordCount;
+    }
+
+    public void setDailyRecordCount(int dailyRecordCount) {
+        this.dailyRecordCount = dailyRecordCount;
+    }
+
+    public int getRejectedRowCount() {
+        return rejectedRowCount;
+    }
+
+    public void setRejectedRowCount(int rejectedRowCount) {
+        this.rejectedRowCount = rejectedRowCount;
+    }
+
+    public List<RowRejectionDTO> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(List<RowRejectionDTO> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public List<EmployeePerformance> getMonthlyPerformances() {
+        return monthlyPerformances;
+    }
+
+    public void setMonthlyPerformances(List<EmployeePerformance> monthlyPerformances) {
+        this.monthlyPerformances = monthlyPerformances;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.demo.sys.dto;
+
+import java.io.Serializable;
+
+/**
+ * A rejected import row: 1-based row number in the file, the offending column (null when the whole row is malformed) and why
+ */
+public class RowRejectionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int rowNumber;
+    private String column;
+    private String reason;
+
+    public RowRejectionDTO() {
+    }
+
+    public RowRejectionDTO(int rowNumber, String column, String reason) {
+        this.rowNumber = rowNumber;
+        this.column = column;
+        this.reason = reason;
+    }
+
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(int rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public void setColumn(String column) {
+        this.column = column;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -1,11 +1,19 @@
 package com.demo.sys.entity;
 
 import javax.persistence.*;
+import java.io.Serializable;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "daily_performance")
-public class DailyPerformance {
+@Table(name = "daily_performance", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_employee_date", columnNames = {"employee_id", "record_date"})
+}, indexes = {
+    // date-range scans; the unique key above already serves (employee_id, record_date) lookups
+    @Index(name = "idx_daily_date_employee", columnList = "record_date, employee_id")
+})
+public class DailyPerformance implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,11 +1,29 @@
 package com.demo.sys.entity;
 
+import com.demo.sys.config.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
+import java.io.Serializable;
 import java.time.YearMonth;
 
 @Entity
-@Table(name = "employee_performance")
-public class EmployeePerformance {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.EMPLOYEE_PERFORMANCE)
+@Table(name = "employee_performance", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_performance_employee_month", columnNames = {"employee_id", "record_date"})
+}, indexes = {
+    // date-range scans; the unique key above already serves (employee_id, record_date) lookups
+    @Index(name = "idx_performance_date_employee", columnList = "record_date, employee_id"),
+    // keyset pages of one month sorted by rating
+    @Index(name = "idx_performance_date_rating", columnList = "record_date, performance_rating, employee_id"),
+    // keyset pages sorted by rating without a single-month filter (the default sort)
+    @Index(name = "idx_performance_rating", columnList = "performance_rating, employee_id, record_date")
+})
+public class EmployeePerformance implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,92 @@
+package com.demo.sys.entity;
+
+import com.demo.sys.config.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Month catalog: one row per imported month with its row counts and import times
+ */
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PERFORMANCE_MONTH)
+@Table(name = "performance_month", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_performance_month_record_date", columnNames = {"record_date"})
+})
+public class PerformanceMonth implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "record_date", nullable = false)
+    private YearMonth recordDate;
+
+    @Column(name = "monthly_rows", nullable = false)
+    private long monthlyRows;   // employee_performance rows
+
+    @Column(name = "daily_rows", nullable = false)
+    private long dailyRows;     // daily_performance rows
+
+    @Column(name = "first_imported_at", nullable = false)
+    private LocalDateTime firstImportedAt;
+
+    @Column(name = "last_imported_at", nullable = false)
+    private LocalDateTime lastImportedAt;
+
+    @Convert(converter = YearMonthConverter.class)
+    public YearMonth getRecordDate() {
+        return recordDate;
+    }
+
+    public void setRecordDate(YearMonth recordDate) {
+        this.recordDate = recordDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getMonthlyRows() {
+        return monthlyRows;
+    }
+
+    public void setMonthlyRows(long monthlyRows) {
+        this.monthlyRows = monthlyRows;
+    }
+
+    public long getDailyRows() {
+        return dailyRows;
+    }
+
+    public void setDailyRows(long dailyRows) {
+        this.dailyRows = dailyRows;
+    }
+
+    public LocalDateTime getFirstImportedAt() {
+        return firstImportedAt;
+    }
+
+    public void setFirstImportedAt(LocalDateTime firstImportedAt) {
+        this.firstImportedAt = firstImportedAt;
+    }
+
+    public LocalDateTime getLastImportedAt() {
+        return lastImportedAt;
+    }
+
+    public void setLastImportedAt(LocalDateTime lastImportedAt) {
+        this.lastImportedAt = lastImportedAt;
+    }
+}
@@ -0,0 +1,193 @@
+package com.demo.sys.repository;
+
+import com.demo.sys.entity.DailyPerformance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Bulk load for daily_performance through MySQL LOAD DATA LOCAL INFILE
+ * Rows are written to a temporary TSV file and loaded with a single statement on the connection of the
+ * current transaction. Needs allowLoadLocalInfile=true on the JDBC URL and local_infile=ON on the server;
+ * when the database is not MySQL or local infile is refused, load returns false and the caller falls back
+ * to batched inserts. Only those two cases are remembered; any other failure is thrown like the batch path.
+ * LOCAL implies IGNORE, so a load that skipped rows (duplicate keys) or raised warnings (truncated or
+ * invalid values) is rejected with a DataIntegrityViolationException instead of being silently accepted.
+ */
+@Repository
+public class DailyPerformanceBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyPerformanceBulkLoader.class);
+
+    private static final String COLUMNS =
+        "(employee_id, employee_name, department, record_date, attendance, " +
+        "late_early_minutes, overtime_hours, total_tasks, completed_tasks)";
+
+    // ER_NOT_ALLOWED_COMMAND (local_infile=OFF on older servers) and ER_CLIENT_LOCAL_FILES_DISABLED
+    private static final int ER_NOT_ALLOWED_COMMAND = 1148;
+    private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Set once the database turns out not to be MySQL or to refuse local infile
+    private volatile boolean unavailable;
+
+    /**
+     * Load the records, returns false without writing anything when bulk load is unavailable
+     */
+    public boolean load(List<DailyPerformance> records) {
+        if (unavailable) {
+            return false;
+        }
+
+        Boolean loaded = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (product == null || !product.toLowerCase().contains("mysql")) {
+                logger.info("数据库({})不支持LOAD DATA，使用批量插入", product);
+                return false;
+            }
+
+            Path tsv = null;
+            try {
+                tsv = Files.createTempFile("daily-performance-", ".tsv");
+                writeTsv(records, tsv);
+                String sql = "LOAD DATA LOCAL INFILE '" + quote(tsv.toAbsolutePath().toString()) + "' " +
+                    "INTO TABLE daily_performance CHARACTER SET utf8mb4 " +
+                    "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " + COLUMNS;
+
+                try (Statement statement = connection.createStatement()) {
+                    try {
+                        statement.execute(sql);
+                    } catch (SQLException e) {
+                        if (!isLocalInfileRefused(e)) {
+                            throw e;
+                        }
+                        // MySQL只回滚失败的语句，事务可以继续使用批量插入
+                        logger.warn("LOAD DATA LOCAL INFILE不可用，改用批量插入: {}", e.getMessage());
+                        return false;
+                    }
+                    checkLoaded(records.size(), statement.getUpdateCount(), statement.getWarnings());
+                    return true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入临时文件失败", e);
+            } finally {
+                if (tsv != null) {
+                    try {
+                        Files.deleteIfExists(tsv);
+                    } catch (IOException e) {
+                        tsv.toFile().deleteOnExit();
+                    }
+                }
+            }
+        });
+        if (!Boolean.TRUE.equals(loaded)) {
+            unavailable = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Refused by the server (local_infile=OFF) or by the driver (allowLoadLocalInfile not set)
+     */
+    static boolean isLocalInfileRefused(SQLException e) {
+        if (e.getErrorCode() == ER_NOT_ALLOWED_COMMAND || e.getErrorCode() == ER_CLIENT_LOCAL_FILES_DISABLED) {
+            return true;
+        }
+        String message = e.getMessage();
+        return message != null && (message.contains("allowLoadLocalInfile")
+            || message.contains("Loading local data is disabled"));
+    }
+
+    // Fail the way the batch insert would instead of keeping a load that skipped or mangled rows
+    private static void checkLoaded(int expected, int loaded, SQLWarning warnings) {
+        if (loaded != expected) {
+            throw new DataIntegrityViolationException(
+                "LOAD DATA写入 " + loaded + " 行，应为 " + expected + " 行(重复的(员工ID, 日期)被跳过)");
+        }
+        if (warnings != null) {
+            throw new DataIntegrityViolationException("LOAD DATA产生警告: " + warnings.getMessage());
+        }
+    }
+
+    private static void writeTsv(List<DailyPerformance> records, Path tsv) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(tsv, StandardCharsets.UTF_8)) {
+            for (DailyPerformance record : records) {
+                writeText(out, record.getEmployeeId());
+                out.write('\t');
+                writeText(out, record.getEmployeeName());
+                out.write('\t');
+                writeText(out, record.getDepartment());
+                out.write('\t');
+                out.write(record.getRecordDate().toString());
+                out.write('\t');
+                writeText(out, record.getAttendance());
+                out.write('\t');
+                writeValue(out, record.getLateEarlyMinutes());
+                out.write('\t');
+                writeValue(out, record.getOvertimeHours());
+                out.write('\t');
+                writeValue(out, record.getTotalTasks());
+                out.write('\t');
+                writeValue(out, record.getCompletedTasks());
+                out.write('\n');
+            }
+        }
+    }
+
+    // Escape the characters that are special to LOAD DATA; \N stands for NULL
+    private static void writeText(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\0':
+                    out.write("\\0");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    private static void writeValue(Writer out, Number value) throws IOException {
+        out.write(value != null ? value.toString() : "\\N");
+    }
+
+    private static String quote(String path) {
+        return path.replace("\\", "\\\\").replace("'", "\\'");
+    }
+}
@@ -1,13 +1,59 @@
 package com.demo.sys.repository;
 
+import com.demo.sys.dto.DailyFeatureRowDTO;
 import com.demo.sys.entity.DailyPerformance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface DailyPerformanceRepository extends JpaRepository<DailyPerformance, Long> {
+
+    /**
+     * Rows fetched per round trip when streaming daily history; on MySQL this needs useCursorFetch=true
+     * on the datasource URL, otherwise the driver buffers the whole result
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
     List<DailyPerformance> findByRecordDateBetween(LocalDate startDate, LocalDate endDate);
-} 
\ No newline at end of file
+
+    List<DailyPerformance> findByRecordDateBetweenAndEmployeeIdIn(LocalDate startDate, LocalDate endDate, Collection<String> employeeIds);
+
+    long countByRecordDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Whole daily history as feature rows, read through a server-side cursor
+     * Rows are projections, so nothing enters the persistence context; must be consumed inside a
+     * transaction and closed afterwards.
+     */
+    @Query("SELECT new com.demo.sys.dto.DailyFeatureRowDTO(d.employeeId, d.recordDate, d.attendance, " +
+           "d.lateEarlyMinutes, d.overtimeHours, d.totalTasks, d.completedTasks) FROM DailyPerformance d")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    Stream<DailyFeatureRowDTO> streamFeatureRows();
+
+    /**
+     * Feature rows with startDate <= record_date < endDate, read through a server-side cursor
+     */
+    @Query("SELECT new com.demo.sys.dto.DailyFeatureRowDTO(d.employeeId, d.recordDate, d.attendance, " +
+           "d.lateEarlyMinutes, d.overtimeHours, d.totalTasks, d.completedTasks) FROM DailyPerformance d " +
+           "WHERE d.recordDate >= :startDate AND d.recordDate < :endDate")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    Stream<DailyFeatureRowDTO> streamFeatureRowsBetween(@Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
+}
@@ -1,55 +1,135 @@
 package com.demo.sys.repository;
 
+import com.demo.sys.config.CacheRegions;
+import com.demo.sys.dto.PerformanceRowDTO;
 import com.demo.sys.entity.EmployeePerformance;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface EmployeePerformanceRepository extends JpaRepository<EmployeePerformance, Long> {
-    
-    @Query("SELECT e FROM EmployeePerformance e WHERE " +
+
+    /**
+     * List queries select PerformanceRowDTO rows directly instead of managed entities
+     */
+    String SELECT_ROWS = "SELECT new com.demo.sys.dto.PerformanceRowDTO(e.id, e.employeeID, e.employeeName, " +
+           "e.department, e.attendanceRate, e.kpiCompletion, e.overtimeHours, e.performanceRating, e.recordDate) " +
+           "FROM EmployeePerformance e WHERE ";
+
+    String SEARCH_FILTER =
+           "(:employeeID IS NULL OR :employeeID = '' OR e.employeeID = :employeeID) AND " +
+           "(:employeeName IS NULL OR :employeeName = '' OR e.employeeName LIKE CONCAT('%', :employeeName, '%')) AND " +
+           "(:recordDate IS NULL OR e.recordDate = :recordDate)";
+
+    String SEARCH_IN_EMPLOYEES_FILTER =
            "(:employeeID IS NULL OR :employeeID = '' OR e.employeeID = :employeeID) AND " +
-           "(:employeeName IS NULL OR :employeeName = '' OR e.employeeName LIKE %:employeeName%) AND " +
-           "(:recordDate IS NULL OR e.recordDate = :recordDate)")
-    Page<EmployeePerformance> search(
+           "e.employeeID IN :employeeIds AND e.employeeName LIKE CONCAT('%', :employeeName, '%') AND " +
+           "(:recordDate IS NULL OR e.recordDate = :recordDate)";
+
+    String MONTH_RANGE_FILTER =
+           "(:employeeID IS NULL OR :employeeID = '' OR e.employeeID = :employeeID) AND " +
+           "(:employeeName IS NULL OR :employeeName = '' OR e.employeeName LIKE CONCAT('%', :employeeName, '%')) AND " +
+           "e.recordDate >= :fromMonth AND e.recordDate < :toMonth";
+
+    String MONTH_RANGE_IN_EMPLOYEES_FILTER =
+           "(:employeeID IS NULL OR :employeeID = '' OR e.employeeID = :employeeID) AND " +
+           "e.employeeID IN :employeeIds AND e.employeeName LIKE CONCAT('%', :employeeName, '%') AND " +
+           "e.recordDate >= :fromMonth AND e.recordDate < :toMonth";
+
+    @Query(value = SELECT_ROWS + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(e) FROM EmployeePerformance e WHERE " + SEARCH_FILTER)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES)
+    })
+    Page<PerformanceRowDTO> search(
             @Param("employeeID") String employeeID,
             @Param("employeeName") String employeeName,
             @Param("recordDate") YearMonth recordDate,
             Pageable pageable);
     
     /**
-     * Query using a date string prefix
-     * * Perform fuzzy matching by directly querying the string representation of the record_date field
+     * Same as search, restricted to the employee ids the name index matched; the name is still checked per row
+     * because a renamed employee's older rows keep the old name
      */
-    @Query(value = "SELECT e.* FROM employee_performance e WHERE " +
-           "(:employeeID IS NULL OR :employeeID = '' OR e.employee_id = :employeeID) AND " +
-           "(:employeeName IS NULL OR :employeeName = '' OR e.employee_name LIKE CONCAT('%', :employeeName, '%')) AND " +
-           "(:datePrefix IS NULL OR :datePrefix = '' OR CAST(e.record_date AS VARCHAR) LIKE CONCAT(:datePrefix, '%'))", 
-           nativeQuery = true)
-    Page<EmployeePerformance> searchWithDatePrefix(
+    @Query(value = SELECT_ROWS + SEARCH_IN_EMPLOYEES_FILTER,
+           countQuery = "SELECT COUNT(e) FROM EmployeePerformance e WHERE " + SEARCH_IN_EMPLOYEES_FILTER)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES)
+    })
+    Page<PerformanceRowDTO> searchInEmployees(
             @Param("employeeID") String employeeID,
             @Param("employeeName") String employeeName,
-            @Param("datePrefix") String datePrefix,
+            @Param("employeeIds") Collection<String> employeeIds,
+            @Param("recordDate") YearMonth recordDate,
             Pageable pageable);
     
     /**
-     * Search records by year and month
+     * Search within a half-open month range [fromMonth, toMonth)
+     * Months are stored as the first day of the month, so this is a range on record_date
+     * and can use the (record_date, employee_id) index
+     */
+    @Query(value = SELECT_ROWS + MONTH_RANGE_FILTER,
+           countQuery = "SELECT COUNT(e) FROM EmployeePerformance e WHERE " + MONTH_RANGE_FILTER)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES)
+    })
+    Page<PerformanceRowDTO> searchByMonthRange(
+            @Param("employeeID") String employeeID,
+            @Param("employeeName") String employeeName,
+            @Param("fromMonth") YearMonth fromMonth,
+            @Param("toMonth") YearMonth toMonth,
+            Pageable pageable);
+    
+    /**
+     * Same as searchByMonthRange, restricted to the employee ids the name index matched
+     */
+    @Query(value = SELECT_ROWS + MONTH_RANGE_IN_EMPLOYEES_FILTER,
+           countQuery = "SELECT COUNT(e) FROM EmployeePerformance e WHERE " + MONTH_RANGE_IN_EMPLOYEES_FILTER)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES)
+    })
+    Page<PerformanceRowDTO> searchByMonthRangeInEmployees(
+            @Param("employeeID") String employeeID,
+            @Param("employeeName") String employeeName,
+            @Param("employeeIds") Collection<String> employeeIds,
+            @Param("fromMonth") YearMonth fromMonth,
+            @Param("toMonth") YearMonth toMonth,
+            Pageable pageable);
+
+    /**
+     * Rows of one month
+     */
+    @Query(SELECT_ROWS + "e.recordDate = :recordDate")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES)
+    })
+    List<PerformanceRowDTO> findRowsByRecordDate(@Param("recordDate") YearMonth recordDate);
+
+    boolean existsByRecordDate(YearMonth recordDate);
+
+    long countByRecordDate(YearMonth recordDate);
+    
+    /**
+     * Every distinct (employee id, name) pair, including the old names of renamed employees; used once at
+     * startup to build the name index
      */
-    @Query(value = "SELECT * FROM employee_performance WHERE " +
-           "EXTRACT(YEAR FROM record_date) = :year AND " +
-           "EXTRACT(MONTH FROM record_date) = :month", 
-           nativeQuery = true)
-    List<EmployeePerformance> findByYearAndMonth(
-            @Param("year") int year, 
-            @Param("month") int month);
-
-    List<EmployeePerformance> findByRecordDate(YearMonth recordDate);
+    @Query("SELECT DISTINCT e.employeeID, e.employeeName FROM EmployeePerformance e")
+    List<Object[]> findDistinctEmployeeNames();
     
     /**
      * Find all records with existing performance ratings
@@ -0,0 +1,249 @@
+package com.demo.sys.repository;
+
+import com.demo.sys.config.CacheRegions;
+import com.demo.sys.dto.PerformanceRowDTO;
+import com.demo.sys.entity.EmployeePerformance;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.DoubleType;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.LocalDateType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset (seek) pagination over employee_performance
+ * A page continues after the last row of the previous page instead of skipping an offset, so each page
+ * reads at most limit index entries however deep it is. Sorting is restricted to SortKey, whose columns
+ * always end in the unique (employee_id, record_date) pair, which makes the order total, and each of
+ * which is backed by an index.
+ * Pages and counts go through the Hibernate query cache, so repeated pages are served from memory
+ * until the next import clears the region. Rows are read as scalars into PerformanceRowDTO, so pages
+ * never enter the persistence context.
+ */
+@Repository
+public class EmployeePerformanceSearchRepository {
+
+    private static final String COLUMNS =
+        "id, employee_id, employee_name, department, attendance_rate, kpi_completion, " +
+        "overtime_hours, performance_rating, record_date";
+
+    /**
+     * Sort keys allowed for keyset pagination
+     */
+    public enum SortKey {
+        // idx_performance_date_rating when the search is limited to one month, idx_performance_rating otherwise
+        PERFORMANCE_RATING("performanceRating", "performance_rating", "employee_id", "record_date"),
+        // uk_performance_employee_month
+        EMPLOYEE_ID("employeeID", "employee_id", "record_date"),
+        // idx_performance_date_employee
+        RECORD_DATE("recordDate", "record_date", "employee_id");
+
+        private final String property;
+        private final String[] columns;
+
+        SortKey(String property, String... columns) {
+            this.property = property;
+            this.columns = columns;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        /**
+         * Sort key for an entity property name, or null if sorting by it is not supported
+         */
+        public static SortKey fromProperty(String property) {
+            for (SortKey key : values()) {
+                if (key.property.equals(property)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Values of the sort columns for a row, in column order; these are what a cursor stores
+         */
+        public Object[] valuesOf(PerformanceRowDTO performance) {
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                switch (columns[i]) {
+                    case "performance_rating":
+                        values[i] = performance.getPerformanceRating();
+                        break;
+                    case "employee_id":
+                        values[i] = performance.getEmployeeID();
+                        break;
+                    default:
+                        values[i] = performance.getRecordDate().atDay(1);
+                }
+            }
+            return values;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * One page of rows matching the filters, sorted by key
+     *
+     * @param employeeIds ids with a matching name according to the name index, or null; employeeName is still
+     *                    matched with LIKE so rows of a renamed employee keep matching on their own name
+     * @param startDate inclusive lower bound of record_date, or null
+     * @param endDate exclusive upper bound of record_date, or null
+     * @param after sort column values of the last row of the previous page, or null for the first page
+     */
+    public List<PerformanceRowDTO> findPage(String employeeID, String employeeName, Collection<String> employeeIds,
+                                            LocalDate startDate, LocalDate endDate,
+                                            SortKey key, boolean descending, Object[] after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM employee_performance");
+        boolean filtered = where(sql, params, employeeID, employeeName, employeeIds, startDate, endDate);
+
+        if (after != null) {
+            sql.append(filtered ? " AND " : " WHERE ");
+            seek(sql, params, key, descending, after, 0);
+        }
+
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < key.columns.length; i++) {
+            sql.append(i > 0 ? ", " : "").append(key.columns[i]).append(descending ? " DESC" : "");
+        }
+
+        Query query = cacheable(entityManager.createNativeQuery(sql.toString()), params);
+        query.unwrap(NativeQuery.class)
+            .addScalar("id", LongType.INSTANCE)
+            .addScalar("employee_id", StringType.INSTANCE)
+            .addScalar("employee_name", StringType.INSTANCE)
+            .addScalar("department", StringType.INSTANCE)
+            .addScalar("attendance_rate", DoubleType.INSTANCE)
+            .addScalar("kpi_completion", DoubleType.INSTANCE)
+            .addScalar("overtime_hours", DoubleType.INSTANCE)
+            .addScalar("performance_rating", IntegerType.INSTANCE)
+            .addScalar("record_date", LocalDateType.INSTANCE);
+        query.setMaxResults(limit);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+
+        List<PerformanceRowDTO> page = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            page.add(new PerformanceRowDTO((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                (Double) row[4], (Double) row[5], (Double) row[6], (Integer) row[7],
+                YearMonth.from((LocalDate) row[8])));
+        }
+        return page;
+    }
+
+    /**
+     * Number of rows matching the filters
+     */
+    public long count(String employeeID, String employeeName, Collection<String> employeeIds,
+                      LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS total FROM employee_performance");
+        where(sql, params, employeeID, employeeName, employeeIds, startDate, endDate);
+        Query query = cacheable(entityManager.createNativeQuery(sql.toString()), params);
+        // cached scalar results need a declared column alias
+        query.unwrap(NativeQuery.class).addScalar("total", LongType.INSTANCE);
+        return (Long) query.getSingleResult();
+    }
+
+    // Native queries declare employee_performance as their query space so the cached results are tied to it
+    private static Query cacheable(Query query, Map<String, Object> params) {
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(EmployeePerformance.class);
+        query.setHint(QueryHints.HINT_CACHEABLE, true);
+        query.setHint(QueryHints.HINT_CACHE_REGION, CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    // Only the filters that are present are added, so the optimizer sees plain sargable predicates
+    private static boolean where(StringBuilder sql, Map<String, Object> params, String employeeID, String employeeName,
+                                 Collection<String> employeeIds, LocalDate startDate, LocalDate endDate) {
+        String separator = " WHERE ";
+        if (employeeID != null && !employeeID.isEmpty()) {
+            sql.append(separator).append("employee_id = :employeeID");
+            params.put("employeeID", employeeID);
+            separator = " AND ";
+        }
+        if (employeeIds != null) {
+            // Narrows the LIKE below to the candidate employees through the employee_id index
+            sql.append(separator).append("employee_id IN (:employeeIds)");
+            params.put("employeeIds", employeeIds);
+            separator = " AND ";
+        }
+        if (employeeName != null && !employeeName.isEmpty()) {
+            sql.append(separator).append("employee_name LIKE :employeeName");
+            params.put("employeeName", "%" + employeeName + "%");
+            separator = " AND ";
+        }
+        if (startDate != null && endDate != null) {
+            // Monthly rows are stored on the first day of their month, so a one-month range is an equality,
+            // which lets the index also supply the order of the remaining sort columns
+            if (startDate.getDayOfMonth() == 1 && startDate.plusMonths(1).equals(endDate)) {
+                sql.append(separator).append("record_date = :startDate");
+            } else {
+                sql.append(separator).append("record_date >= :startDate AND record_date < :endDate");
+                params.put("endDate", Date.valueOf(endDate));
+            }
+            params.put("startDate", Date.valueOf(startDate));
+            separator = " AND ";
+        }
+        return separator.equals(" AND ");
+    }
+
+    // (c0, c1, ...) strictly after the cursor in sort order, expanded so each level can use the index.
+    // NULL ratings sort first ascending and last descending, as MySQL orders them.
+    private static void seek(StringBuilder sql, Map<String, Object> params, SortKey key, boolean descending,
+                             Object[] after, int i) {
+        String column = key.columns[i];
+        String name = "after" + i;
+        String op = descending ? " < :" : " > :";
+        Object value = after[i];
+        boolean last = i == key.columns.length - 1;
+
+        if (value == null) {
+            sql.append('(');
+            if (!descending) {
+                sql.append(column).append(" IS NOT NULL OR ");
+            }
+            sql.append('(').append(column).append(" IS NULL AND ");
+            seek(sql, params, key, descending, after, i + 1);
+            sql.append("))");
+            return;
+        }
+
+        params.put(name, value instanceof LocalDate ? Date.valueOf((LocalDate) value) : value);
+        if (last) {
+            sql.append(column).append(op).append(name);
+            return;
+        }
+        sql.append('(').append(column).append(op).append(name);
+        if (descending && "performance_rating".equals(column)) {
+            sql.append(" OR ").append(column).append(" IS NULL");
+        }
+        sql.append(" OR (").append(column).append(" = :").append(name).append(" AND ");
+        seek(sql, params, key, descending, after, i + 1);
+        sql.append("))");
+    }
+}
@@ -0,0 +1,198 @@
+package com.demo.sys.repository;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.entity.DailyPerformance;
+import com.demo.sys.entity.EmployeePerformance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for imported rows
+ * Both entities use IDENTITY ids, which disables Hibernate insert batching, so imports write through
+ * PreparedStatement batches instead; with rewriteBatchedStatements=true on the MySQL URL each batch is
+ * sent as one multi-row INSERT. Runs on the connection of the current transaction.
+ */
+@Repository
+public class PerformanceBatchWriter {
+
+    private static final String INSERT_DAILY =
+        "INSERT INTO daily_performance (employee_id, employee_name, department, record_date, attendance, " +
+        "late_early_minutes, overtime_hours, total_tasks, completed_tasks) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_MONTHLY =
+        "INSERT INTO employee_performance (employee_id, employee_name, department, attendance_rate, " +
+        "kpi_completion, overtime_hours, performance_rating, record_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_DAILY = INSERT_DAILY +
+        " ON DUPLICATE KEY UPDATE employee_name = VALUES(employee_name), department = VALUES(department), " +
+        "attendance = VALUES(attendance), late_early_minutes = VALUES(late_early_minutes), " +
+        "overtime_hours = VALUES(overtime_hours), total_tasks = VALUES(total_tasks), " +
+        "completed_tasks = VALUES(completed_tasks)";
+
+    private static final String UPSERT_MONTHLY = INSERT_MONTHLY +
+        " ON DUPLICATE KEY UPDATE employee_name = VALUES(employee_name), department = VALUES(department), " +
+        "attendance_rate = VALUES(attendance_rate), kpi_completion = VALUES(kpi_completion), " +
+        "overtime_hours = VALUES(overtime_hours), performance_rating = VALUES(performance_rating)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImportConfig importConfig;
+
+    @Autowired
+    private DailyPerformanceBulkLoader dailyPerformanceBulkLoader;
+
+    /**
+     * Insert daily records; generated ids are not read back
+     * Large lists go through LOAD DATA when import.bulk-load is enabled and the server allows it
+     */
+    public void insertDaily(List<DailyPerformance> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (importConfig.isBulkLoad() && records.size() >= importConfig.getBulkLoadMinRows()
+                && dailyPerformanceBulkLoader.load(records)) {
+            return;
+        }
+        writeDaily(INSERT_DAILY, records);
+    }
+
+    /**
+     * Insert or update daily records keyed on (employee_id, record_date)
+     */
+    public void upsertDaily(List<DailyPerformance> records) {
+        if (!records.isEmpty()) {
+            writeDaily(UPSERT_DAILY, records);
+        }
+    }
+
+    /**
+     * Insert or update monthly performances keyed on (employee_id, record_date); ids are not read back
+     */
+    public void upsertMonthly(List<EmployeePerformance> performances) {
+        if (performances.isEmpty()) {
+            return;
+        }
+        int batchSize = importConfig.getJdbcBatchSize();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPSERT_MONTHLY)) {
+                int pending = 0;
+                for (EmployeePerformance performance : performances) {
+                    bindMonthly(ps, performance);
+                    ps.addBatch();
+                    if (++pending == batchSize) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+            }
+            return null;
+        });
+    }
+
+    private void writeDaily(String sql, List<DailyPerformance> records) {
+        int batchSize = importConfig.getJdbcBatchSize();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (DailyPerformance record : records) {
+                    ps.setString(1, record.getEmployeeId());
+                    ps.setString(2, record.getEmployeeName());
+                    ps.setString(3, record.getDepartment());
+                    ps.setDate(4, Date.valueOf(record.getRecordDate()));
+                    ps.setString(5, record.getAttendance());
+                    setInteger(ps, 6, record.getLateEarlyMinutes());
+                    setDouble(ps, 7, record.getOvertimeHours());
+                    setInteger(ps, 8, record.getTotalTasks());
+                    setInteger(ps, 9, record.getCompletedTasks());
+                    ps.addBatch();
+                    if (++pending == batchSize) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Insert monthly performances and set their generated ids
+     */
+    public void insertMonthly(List<EmployeePerformance> performances) {
+        if (performances.isEmpty()) {
+            return;
+        }
+        int batchSize = importConfig.getJdbcBatchSize();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_MONTHLY, Statement.RETURN_GENERATED_KEYS)) {
+                int batchStart = 0;
+                for (int i = 0; i < performances.size(); i++) {
+                    EmployeePerformance performance = performances.get(i);
+                    bindMonthly(ps, performance);
+                    ps.addBatch();
+                    if (i + 1 - batchStart == batchSize || i + 1 == performances.size()) {
+                        ps.executeBatch();
+                        readGeneratedIds(ps, performances, batchStart, i + 1);
+                        batchStart = i + 1;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void bindMonthly(PreparedStatement ps, EmployeePerformance performance) throws SQLException {
+        ps.setString(1, performance.getEmployeeID());
+        ps.setString(2, performance.getEmployeeName());
+        ps.setString(3, performance.getDepartment());
+        ps.setDouble(4, performance.getAttendanceRate());
+        ps.setDouble(5, performance.getKpiCompletion());
+        ps.setDouble(6, performance.getOvertimeHours());
+        setInteger(ps, 7, performance.getPerformanceRating());
+        ps.setDate(8, Date.valueOf(performance.getRecordDate().atDay(1)));
+    }
+
+    // Generated keys come back in insert order; drivers that return none leave the ids unset
+    private static void readGeneratedIds(PreparedStatement ps, List<EmployeePerformance> performances,
+                                         int from, int to) throws SQLException {
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            for (int i = from; i < to && keys.next(); i++) {
+                performances.get(i).setId(keys.getLong(1));
+            }
+        }
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.sys.repository;
+
+import com.demo.sys.config.CacheRegions;
+import com.demo.sys.entity.PerformanceMonth;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PerformanceMonthRepository extends JpaRepository<PerformanceMonth, Long> {
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.PERFORMANCE_MONTH_QUERIES)
+    })
+    Optional<PerformanceMonth> findByRecordDate(YearMonth recordDate);
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.PERFORMANCE_MONTH_QUERIES)
+    })
+    boolean existsByRecordDate(YearMonth recordDate);
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.PERFORMANCE_MONTH_QUERIES)
+    })
+    Optional<PerformanceMonth> findTopByOrderByRecordDateDesc();
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CacheRegions.PERFORMANCE_MONTH_QUERIES)
+    })
+    List<PerformanceMonth> findAllByOrderByRecordDateAsc();
+
+    /**
+     * Monthly row counts grouped by month, used once to build the catalog for existing data
+     */
+    @Query("SELECT e.recordDate, COUNT(e) FROM EmployeePerformance e GROUP BY e.recordDate")
+    List<Object[]> countMonthlyRowsByMonth();
+}
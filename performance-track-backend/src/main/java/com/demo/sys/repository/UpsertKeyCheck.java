@@ -0,0 +1,91 @@
+package com.demo.sys.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifies the (employee_id, record_date) unique keys that upsert imports depend on
+ * ddl-auto=update creates uk_daily_employee_date and uk_performance_employee_month, but silently gives up when
+ * the table already holds duplicate rows; ON DUPLICATE KEY UPDATE then degrades to plain inserts. The keys are
+ * checked once at startup and upserts are refused while one is missing. Run db/add-upsert-unique-keys.sql to
+ * remove the duplicates and add the keys.
+ */
+@Repository
+public class UpsertKeyCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpsertKeyCheck.class);
+
+    private static final String[] TABLES = {"daily_performance", "employee_performance"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Set<String> tablesMissingKey;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        Set<String> missing = jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            Set<String> result = new HashSet<>();
+            for (String table : TABLES) {
+                if (!hasEmployeeDateKey(connection.getMetaData(), connection.getCatalog(), table)) {
+                    result.add(table);
+                }
+            }
+            return result;
+        });
+        if (!missing.isEmpty()) {
+            logger.error("表 {} 缺少(employee_id, record_date)唯一键(可能存在重复数据)，覆盖导入已停用；" +
+                "请执行 db/add-upsert-unique-keys.sql 后重启", missing);
+        }
+        tablesMissingKey = missing;
+    }
+
+    /**
+     * Throws when an upsert would insert duplicates instead of updating
+     */
+    public void requireUpsertKeys() {
+        Set<String> missing = tablesMissingKey;
+        if (missing == null) {
+            check();
+            missing = tablesMissingKey;
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("表 " + missing + " 缺少(employee_id, record_date)唯一键，无法覆盖导入；" +
+                "请先执行 db/add-upsert-unique-keys.sql");
+        }
+    }
+
+    // A unique index whose columns are exactly employee_id and record_date; names are compared case-insensitively
+    private static boolean hasEmployeeDateKey(DatabaseMetaData metaData, String catalog, String table) throws SQLException {
+        Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = metaData.getIndexInfo(catalog, null, name, true, false)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        uniqueIndexes.computeIfAbsent(index.toLowerCase(), k -> new HashSet<>()).add(column.toLowerCase());
+                    }
+                }
+            }
+        }
+        Set<String> expected = new HashSet<>();
+        expected.add("employee_id");
+        expected.add("record_date");
+        return uniqueIndexes.containsValue(expected);
+    }
+}
@@ -0,0 +1,277 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.dto.BatchImportFileResultDTO;
+import com.demo.sys.dto.PerformanceImportResultDTO;
+import com.demo.sys.entity.EmployeePerformance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 批量导入多个月度Excel/CSV文件(或包含它们的zip包)
+ * 1. 在有界线程池中并行解析并汇总每个文件，解析时校验月份冲突
+ * 2. 所有文件的月度绩效统一训练一次KNN模型并计算评分
+ * 3. 每个月份在独立事务中并行保存
+ */
+@Service
+public class BatchImportService {
+
+    @Autowired
+    private ExcelImportService excelImportService;
+
+    @Autowired
+    private EmployeePerformanceService employeePerformanceService;
+
+    @Autowired
+    @Qualifier("batchImportExecutor")
+    private ThreadPoolTaskExecutor batchImportExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ImportConfig importConfig;
+
+    /**
+     * 批量导入文件，返回每个文件的导入结果
+     */
+    public List<BatchImportFileResultDTO> importFiles(MultipartFile[] files) throws IOException {
+        List<BatchSource> sources = new ArrayList<>();
+        try {
+            ZipBudget budget = new ZipBudget(importConfig.getZipMaxEntries(), importConfig.getZipMaxUncompressedBytes());
+            for (MultipartFile file : files) {
+                if (!file.isEmpty()) {
+                    addSources(file, sources, budget);
+                }
+            }
+
+            // 1. 并行解析，同一批次中的月份也不允许重复
+            Map<YearMonth, String> claimedMonths = new ConcurrentHashMap<>();
+            List<CompletableFuture<ParsedFile>> parseTasks = sources.stream()
+                .map(source -> CompletableFuture.supplyAsync(() -> parse(source, claimedMonths), batchImportExecutor))
+                .collect(Collectors.toList());
+            List<ParsedFile> parsedFiles = parseTasks.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+            // 2. 所有成功解析的文件一起计算绩效评分，模型只训练一次
+            List<EmployeePerformance> monthlyPerformances = parsedFiles.stream()
+                .filter(parsed -> parsed.data != null)
+                .flatMap(parsed -> parsed.data.getMonthlyPerformances().stream())
+                .collect(Collectors.toList());
+            if (!monthlyPerformances.isEmpty()) {
+                excelImportService.calculatePerformanceRatings(monthlyPerformances);
+            }
+
+            // 3. 每个月份一个事务，并行保存
+            List<CompletableFuture<BatchImportFileResultDTO>> saveTasks = parsedFiles.stream()
+                .map(parsed -> parsed.data == null
+                    ? CompletableFuture.completedFuture(parsed.result)
+                    : CompletableFuture.supplyAsync(() -> save(parsed), batchImportExecutor))
+                .collect(Collectors.toList());
+            return saveTasks.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+        } finally {
+            for (BatchSource source : sources) {
+                source.delete();
+            }
+        }
+    }
+
+    /**
+     * 解析单个文件
+     */
+    private ParsedFile parse(BatchSource source, Map<YearMonth, String> claimedMonths) {
+        YearMonth[] claimed = new YearMonth[1];
+        try (InputStream in = source.open()) {
+            PerformanceImportResultDTO data = excelImportService.parseExcel(in, source.name, yearMonth -> {
+                employeePerformanceService.requireNoDataForYearMonth(yearMonth);
+                String other = claimedMonths.putIfAbsent(yearMonth, source.name);
+                if (other != null) {
+                    throw new IllegalArgumentException(
+                        "同一批次中的文件 " + other + " 已包含该月份(" + yearMonth + ")的数据");
+                }
+                claimed[0] = yearMonth;
+            });
+            return new ParsedFile(data, null);
+        } catch (MonthAlreadyImportedException e) {
+            return new ParsedFile(null, new BatchImportFileResultDTO(
+                source.name, e.getYearMonth(), BatchImportFileResultDTO.STATUS_CONFLICT, 0, e.getMessage()));
+        } catch (Exception e) {
+            // 释放该文件占用的月份，避免影响同批次的其他文件
+            if (claimed[0] != null) {
+                claimedMonths.remove(claimed[0], source.name);
+            }
+            return new ParsedFile(null, new BatchImportFileResultDTO(
+                source.name, claimed[0], BatchImportFileResultDTO.STATUS_FAILED, 0, "文件处理失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 在独立事务中保存单个月份，保存前再次校验月份冲突
+     */
+    private BatchImportFileResultDTO save(ParsedFile parsed) {
+        PerformanceImportResultDTO data = parsed.data;
+        YearMonth yearMonth = data.getYearMonth();
+        try {
+            List<EmployeePerformance> saved = new TransactionTemplate(transactionManager).execute(status -> {
+                employeePerformanceService.requireNoDataForYearMonth(yearMonth);
+                return excelImportService.saveImportedData(data.getDailyPerformances(), data.getMonthlyPerformances());
+            });
+            return new BatchImportFileResultDTO(
+                data.getFileName(), yearMonth, BatchImportFileResultDTO.STATUS_IMPORTED,
+                saved.size(), "共导入" + saved.size() + "条绩效记录");
+        } catch (MonthAlreadyImportedException e) {
+            return new BatchImportFileResultDTO(
+                data.getFileName(), yearMonth, BatchImportFileResultDTO.STATUS_CONFLICT, 0, e.getMessage());
+        } catch (RuntimeException e) {
+            return new BatchImportFileResultDTO(
+                data.getFileName(), yearMonth, BatchImportFileResultDTO.STATUS_FAILED, 0, "保存数据失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 展开上传的文件：zip包中的每个Excel/CSV文件写入临时文件，其余文件直接读取
+     * 整个批次的zip条目数和解压字节数受budget限制，单个zip包解压后的大小不超过压缩包的zipMaxCompressionRatio倍；
+     * 超出时整个批次失败，已写入的临时文件由importFiles删除
+     */
+    private void addSources(MultipartFile file, List<BatchSource> sources, ZipBudget budget) throws IOException {
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getName();
+        if (!fileName.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+            sources.add(new BatchSource(fileName, file, null));
+            return;
+        }
+
+        long ratioLimit = file.getSize() * (long) importConfig.getZipMaxCompressionRatio();
+        long extracted = 0;
+        try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                budget.addEntry(fileName);
+                String entryName = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+                String lowerName = entryName.toLowerCase(Locale.ROOT);
+                if (entry.isDirectory() || entryName.startsWith(".") || entry.getName().startsWith("__MACOSX/")
+                        || !(lowerName.endsWith(".xlsx") || lowerName.endsWith(".xls") || lowerName.endsWith(".csv"))) {
+                    continue;
+                }
+                Path tempFile = Files.createTempFile("batch-import-", "-" + entryName);
+                sources.add(new BatchSource(entryName, null, tempFile));
+                extracted = copyEntry(zip, tempFile, fileName, extracted, ratioLimit, budget);
+            }
+        }
+    }
+
+    /**
+     * 把当前zip条目复制到临时文件，边复制边计数，超出限制时立即停止
+     *
+     * @return 该zip包已解压的字节数
+     */
+    private static long copyEntry(ZipInputStream zip, Path target, String fileName, long extracted,
+                                  long ratioLimit, ZipBudget budget) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = zip.read(buffer)) > 0) {
+                extracted += read;
+                if (extracted > ratioLimit) {
+                    throw new IllegalArgumentException("zip包 " + fileName + " 的压缩比异常，已停止解压");
+                }
+                budget.addBytes(fileName, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return extracted;
+    }
+
+    /**
+     * 一个批次中所有zip包共用的条目数和解压字节数上限
+     */
+    private static class ZipBudget {
+        private final int maxEntries;
+        private final long maxBytes;
+        private int entries;
+        private long bytes;
+
+        ZipBudget(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        void addEntry(String fileName) {
+            if (++entries > maxEntries) {
+                throw new IllegalArgumentException("zip包 " + fileName + " 中的文件过多，每批最多 " + maxEntries + " 个");
+            }
+        }
+
+        void addBytes(String fileName, int count) {
+            bytes += count;
+            if (bytes > maxBytes) {
+                throw new IllegalArgumentException("zip包 " + fileName + " 解压后超过 " + maxBytes / (1024 * 1024) + "MB，已停止解压");
+            }
+        }
+    }
+
+    /**
+     * 待导入的单个Excel文件
+     */
+    private static class BatchSource {
+        private final String name;
+        private final MultipartFile file;
+        private final Path tempFile;
+
+        BatchSource(String name, MultipartFile file, Path tempFile) {
+            this.name = name;
+            this.file = file;
+            this.tempFile = tempFile;
+        }
+
+        InputStream open() throws IOException {
+            return tempFile != null ? Files.newInputStream(tempFile) : file.getInputStream();
+        }
+
+        void delete() {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    tempFile.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    /**
+     * 解析结果：成功时data不为空，否则result记录失败原因
+     */
+    private static class ParsedFile {
+        private final PerformanceImportResultDTO data;
+        private final BatchImportFileResultDTO result;
+
+        ParsedFile(PerformanceImportResultDTO data, BatchImportFileResultDTO result) {
+            this.data = data;
+            this.result = result;
+        }
+    }
+}
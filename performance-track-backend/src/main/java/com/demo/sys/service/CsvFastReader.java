@@ -0,0 +1,406 @@
+package com.demo.sys.service;
+
+import com.demo.sys.entity.DailyPerformance;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * 每日绩效CSV快速读取器
+ * 通过内存映射的FileChannel按字节解析固定的9列(Date, EmployeeID, EmployeeName, Department, Attendance,
+ * LateEarlyMinutes, OvertimeHours, TotalTasks, CompletedTasks)，直接生成DailyPerformance：
+ * - 日期和数值列通过字节视图交给FieldParser转换(与DailyRowDecoder相同的规则)，不创建中间字符串
+ * - 员工ID、姓名、部门等重复出现的文本通过字符串池复用
+ * - 支持UTF-8 BOM、\r\n换行和双引号包裹的字段(字段内不能换行)
+ */
+@Component
+public class CsvFastReader {
+
+    public static final int COLUMNS = DailyRowDecoder.COLUMNS;
+
+    // 每次映射的文件窗口大小，单行不能超过该长度
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    /**
+     * 记录回调
+     * 第一行作为表头传给header，其余非空行转换为每日记录，
+     * 无法转换的行交给reject(列号从0开始，原因为DailyRowDecoder中的常量)，校验规则与DailyRowDecoder一致
+     */
+    public interface RecordHandler {
+        void header(String[] cells);
+
+        void record(int rowNum, DailyPerformance record);
+
+        void reject(int rowNum, int column, String reason);
+    }
+
+    /**
+     * 读取输入流中的CSV内容，先写入临时文件再按文件映射读取
+     */
+    public void read(InputStream in, RecordHandler handler) throws IOException {
+        Path tempFile = Files.createTempFile("csv-import-", ".csv");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            read(tempFile.toFile(), handler);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 按窗口映射文件并逐行解析，跨越窗口边界的行从下一个窗口的行首重新映射
+     */
+    public void read(File file, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            LineParser parser = new LineParser(handler);
+            while (position < size) {
+                long length = Math.min(WINDOW_SIZE, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int consumed = parser.parse(buffer, (int) length, last);
+                if (consumed == 0 && !last) {
+                    throw new IOException("CSV文件格式错误：第 " + (parser.rowNum + 1) + " 行过长");
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    /**
+     * 行解析状态，跨窗口保持行号和字符串池
+     */
+    private static class LineParser {
+
+        private final RecordHandler handler;
+        private final StringPool pool = new StringPool();
+        private final ByteChars chars = new ByteChars();
+        private final int[] starts = new int[COLUMNS + 1];
+        private final int[] ends = new int[COLUMNS + 1];
+        private final boolean[] quoted = new boolean[COLUMNS + 1];
+        private int rowNum;
+        private boolean headerRead;
+
+        LineParser(RecordHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * 解析缓冲区中的完整行，返回已处理的字节数
+         * 不是最后一个窗口时，末尾不完整的行留给下一个窗口
+         */
+        int parse(ByteBuffer buf, int limit, boolean last) {
+            chars.reset(buf, limit);
+            int pos = 0;
+            if (!headerRead && rowNum == 0 && limit >= 3
+                    && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF) {
+                pos = 3;
+            }
+
+            int lineStart = pos;
+            while (pos < limit) {
+                if (buf.get(pos) == '\n') {
+                    line(buf, lineStart, pos);
+                    lineStart = pos + 1;
+                }
+                pos++;
+            }
+            if (last && lineStart < limit) {
+                line(buf, lineStart, limit);
+                lineStart = limit;
+            }
+            return lineStart;
+        }
+
+        private void line(ByteBuffer buf, int start, int end) {
+            if (end > start && buf.get(end - 1) == '\r') {
+                end--;
+            }
+            int row = rowNum++;
+            int fields = split(buf, start, end);
+
+            if (!headerRead) {
+                headerRead = true;
+                String[] cells = new String[fields];
+                for (int i = 0; i < fields; i++) {
+                    cells[i] = decode(buf, i);
+                }
+                handler.header(cells);
+                return;
+            }
+
+            if (isBlank(fields)) {
+                return;
+            }
+            // 缺少的列按空值处理
+            for (int i = fields; i < COLUMNS; i++) {
+                starts[i] = 0;
+                ends[i] = 0;
+                quoted[i] = false;
+            }
+            for (int i = 0; i < COLUMNS; i++) {
+                if (starts[i] == ends[i] && DailyRowDecoder.isRequired(i)) {
+                    handler.reject(row, i, DailyRowDecoder.REASON_MISSING);
+                    return;
+                }
+            }
+
+            LocalDate date = FieldParser.parseDate(chars, starts[0], ends[0]);
+            if (date == null) {
+                handler.reject(row, 0, DailyRowDecoder.REASON_INVALID_DATE);
+                return;
+            }
+            String attendance = FieldParser.parseAttendance(chars, starts[4], ends[4]);
+            if (attendance == null) {
+                handler.reject(row, 4, DailyRowDecoder.REASON_INVALID_ATTENDANCE);
+                return;
+            }
+            Integer lateEarlyMinutes = starts[5] == ends[5] ? null : FieldParser.parseInteger(chars, starts[5], ends[5]);
+            Double overtimeHours = starts[6] == ends[6] ? null : FieldParser.parseDecimal(chars, starts[6], ends[6]);
+            Integer totalTasks = FieldParser.parseInteger(chars, starts[7], ends[7]);
+            Integer completedTasks = FieldParser.parseInteger(chars, starts[8], ends[8]);
+            int invalid = lateEarlyMinutes == null && starts[5] != ends[5] ? 5
+                : overtimeHours == null && starts[6] != ends[6] ? 6
+                : totalTasks == null ? 7
+                : completedTasks == null ? 8 : -1;
+            if (invalid >= 0) {
+                handler.reject(row, invalid, DailyRowDecoder.REASON_INVALID_NUMBER);
+                return;
+            }
+
+            DailyPerformance record = new DailyPerformance();
+            record.setRecordDate(date);
+            record.setEmployeeId(text(buf, 1));
+            record.setEmployeeName(text(buf, 2));
+            record.setDepartment(text(buf, 3));
+            record.setAttendance(attendance);
+            record.setLateEarlyMinutes(lateEarlyMinutes);
+            record.setOvertimeHours(overtimeHours);
+            record.setTotalTasks(totalTasks);
+            record.setCompletedTasks(completedTasks);
+            handler.record(row, record);
+        }
+
+        /**
+         * 按逗号切分字段，记录去除首尾空格和引号后的字节范围，最多记录COLUMNS列
+         */
+        private int split(ByteBuffer buf, int start, int end) {
+            int fields = 0;
+            int pos = start;
+            while (fields <= COLUMNS) {
+                while (pos < end && buf.get(pos) == ' ') {
+                    pos++;
+                }
+
+                int fieldStart = pos;
+                int fieldEnd;
+                boolean isQuoted = pos < end && buf.get(pos) == '"';
+                if (isQuoted) {
+                    fieldStart = ++pos;
+                    while (pos < end) {
+                        if (buf.get(pos) == '"') {
+                            if (pos + 1 < end && buf.get(pos + 1) == '"') {
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                    fieldEnd = pos;
+                    while (pos < end && buf.get(pos) != ',') {
+                        pos++;
+                    }
+                } else {
+                    while (pos < end && buf.get(pos) != ',') {
+                        pos++;
+                    }
+                    fieldEnd = pos;
+                    while (fieldEnd > fieldStart && buf.get(fieldEnd - 1) == ' ') {
+                        fieldEnd--;
+                    }
+                }
+
+                if (fields < starts.length) {
+                    starts[fields] = fieldStart;
+                    ends[fields] = fieldEnd;
+                    quoted[fields] = isQuoted;
+                }
+                fields++;
+                if (pos >= end) {
+                    break;
+                }
+                pos++;
+            }
+            return Math.min(fields, COLUMNS);
+        }
+
+        // 空行或全部字段为空的行(如Excel导出的空行)直接跳过
+        private boolean isBlank(int fields) {
+            for (int i = 0; i < fields; i++) {
+                if (starts[i] != ends[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String decode(ByteBuffer buf, int field) {
+            int length = ends[field] - starts[field];
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buf.get(starts[field] + i);
+            }
+            String value = new String(bytes, StandardCharsets.UTF_8).trim();
+            return quoted[field] ? value.replace("\"\"", "\"") : value;
+        }
+
+        private String text(ByteBuffer buf, int field) {
+            if (starts[field] == ends[field]) {
+                return null;
+            }
+            int start = starts[field];
+            int end = ends[field];
+            if (quoted[field]) {
+                for (int i = start; i < end; i++) {
+                    if (buf.get(i) == '"') {
+                        return decode(buf, field);
+                    }
+                }
+                while (start < end && buf.get(start) == ' ') {
+                    start++;
+                }
+                while (end > start && buf.get(end - 1) == ' ') {
+                    end--;
+                }
+            }
+            return pool.get(buf, start, end);
+        }
+    }
+
+    /**
+     * 把映射窗口中的字节当作字符序列交给FieldParser，每个字节对应一个字符(数字、符号和日期只使用ASCII)
+     */
+    private static final class ByteChars implements CharSequence {
+        private ByteBuffer buf;
+        private int length;
+
+        void reset(ByteBuffer buf, int length) {
+            this.buf = buf;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buf.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buf.get(start + i);
+            }
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+
+    /**
+     * 按字节内容复用字符串，同一个员工ID、姓名、部门只创建一次String
+     */
+    private static class StringPool {
+
+        private static final int MAX_SIZE = 1 << 16;
+
+        private byte[][] keys = new byte[256][];
+        private String[] values = new String[256];
+        private int size;
+
+        String get(ByteBuffer buf, int start, int end) {
+            int length = end - start;
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buf.get(i);
+            }
+
+            int mask = keys.length - 1;
+            int index = (hash ^ (hash >>> 16)) & mask;
+            while (keys[index] != null) {
+                if (matches(keys[index], buf, start, length)) {
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+
+            byte[] key = new byte[length];
+            for (int i = 0; i < length; i++) {
+                key[i] = buf.get(start + i);
+            }
+            String value = new String(key, StandardCharsets.UTF_8);
+            if (size >= MAX_SIZE) {
+                // 不重复的文本过多时不再缓存
+                return value;
+            }
+            keys[index] = key;
+            values[index] = value;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+            return value;
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buf, int start, int length) {
+            if (key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != buf.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int hash = Arrays.hashCode(oldKeys[i]);
+                    int index = (hash ^ (hash >>> 16)) & mask;
+                    while (keys[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+}
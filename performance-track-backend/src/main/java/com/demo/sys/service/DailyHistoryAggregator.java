@@ -0,0 +1,55 @@
+package com.demo.sys.service;
+
+import com.demo.sys.dto.DailyFeatureRowDTO;
+import com.demo.sys.repository.DailyPerformanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * 按(员工, 月份)汇总全部每日历史数据，作为KNN模型的训练特征
+ * 每日记录通过游标逐批读取并立即累加，内存占用只与员工月份数量有关，与每日记录总数无关。
+ */
+@Component
+public class DailyHistoryAggregator {
+
+    @Autowired
+    private DailyPerformanceRepository dailyPerformanceRepository;
+
+    /**
+     * 汇总全部每日记录；在导入事务中调用时可以读到本次已写入但未提交的记录
+     */
+    @Transactional(readOnly = true)
+    public MonthlyAggregator aggregate() {
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        try (Stream<DailyFeatureRowDTO> rows = dailyPerformanceRepository.streamFeatureRows()) {
+            rows.forEach(row -> add(aggregator, row));
+        }
+        return aggregator;
+    }
+
+    /**
+     * 只汇总指定月份的每日记录
+     */
+    @Transactional(readOnly = true)
+    public MonthlyAggregator aggregate(Collection<YearMonth> months) {
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        for (YearMonth month : months) {
+            try (Stream<DailyFeatureRowDTO> rows = dailyPerformanceRepository.streamFeatureRowsBetween(
+                    month.atDay(1), month.plusMonths(1).atDay(1))) {
+                rows.forEach(row -> add(aggregator, row));
+            }
+        }
+        return aggregator;
+    }
+
+    private static void add(MonthlyAggregator aggregator, DailyFeatureRowDTO row) {
+        aggregator.add(row.getEmployeeId(), null, null, row.getRecordDate(),
+            row.getAttendance(), row.getLateEarlyMinutes(), row.getOvertimeHours(),
+            row.getTotalTasks(), row.getCompletedTasks());
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.sys.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 导入文件中已出现的(员工, 日期)
+ * daily_performance在(employee_id, record_date)上有唯一键，同一文件中重复的行会使整批写入失败，解析时据此跳过。
+ * 每个员工按月份保存一个日期位图({月份序号, 位图}成对存放)，查找时不为每行创建对象。
+ *
+ * 非线程安全，每次解析使用一个新实例。
+ */
+class DailyKeySet {
+
+    private final Map<String, int[]> monthsByEmployee = new HashMap<>();
+
+    /**
+     * 记录一个(员工, 日期)
+     *
+     * @return 是否第一次出现
+     */
+    boolean add(String employeeId, LocalDate date) {
+        int month = date.getYear() * 12 + date.getMonthValue() - 1;
+        int bit = 1 << (date.getDayOfMonth() - 1);
+        int[] months = monthsByEmployee.get(employeeId);
+        if (months == null) {
+            monthsByEmployee.put(employeeId, new int[]{month, bit});
+            return true;
+        }
+        for (int i = 0; i < months.length; i += 2) {
+            if (months[i] == month) {
+                if ((months[i + 1] & bit) != 0) {
+                    return false;
+                }
+                months[i + 1] |= bit;
+                return true;
+            }
+        }
+        months = Arrays.copyOf(months, months.length + 2);
+        months[months.length - 2] = month;
+        months[months.length - 1] = bit;
+        monthsByEmployee.put(employeeId, months);
+        return true;
+    }
+}
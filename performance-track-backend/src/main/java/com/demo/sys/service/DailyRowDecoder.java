@@ -0,0 +1,141 @@
+package com.demo.sys.service;
+
+import com.demo.sys.entity.DailyPerformance;
+
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+
+/**
+ * 每日绩效行解码器
+ * 列的顺序、类型和是否必填在类加载时确定，逐个单元格校验并转换(FieldParser)，不通过异常判断格式错误。
+ * 无法转换的行记入RejectionReport(行号、列、原因)并返回null，解析成本与正常行相同。
+ */
+public class DailyRowDecoder {
+
+    public static final String[] HEADERS = {
+        "Date", "EmployeeID", "EmployeeName", "Department", "Attendance",
+        "LateEarlyMinutes", "OvertimeHours", "TotalTasks", "CompletedTasks"
+    };
+
+    public static final int COLUMNS = HEADERS.length;
+
+    public static final String REASON_MISSING = "不能为空";
+    public static final String REASON_INVALID_DATE = "日期格式错误，应为yyyy-MM-dd";
+    public static final String REASON_INVALID_ATTENDANCE = "出勤状态应为Y或N";
+    public static final String REASON_INVALID_NUMBER = "数值格式错误";
+    public static final String REASON_DUPLICATE = "该员工当天的记录重复，只保留第一条";
+
+    private enum Type { DATE, TEXT, ATTENDANCE, INTEGER, DECIMAL }
+
+    /**
+     * 列定义：类型、是否必填(对应实体中的非空字段)以及写入记录的方法
+     */
+    private static final class Column {
+        final Type type;
+        final boolean required;
+        final BiConsumer<DailyPerformance, Object> setter;
+
+        @SuppressWarnings("unchecked")
+        <T> Column(Type type, boolean required, BiConsumer<DailyPerformance, T> setter) {
+            this.type = type;
+            this.required = required;
+            this.setter = (BiConsumer<DailyPerformance, Object>) setter;
+        }
+    }
+
+    private static final Column[] PLAN = {
+        new Column(Type.DATE, true, (DailyPerformance r, LocalDate v) -> r.setRecordDate(v)),
+        new Column(Type.TEXT, true, (DailyPerformance r, String v) -> r.setEmployeeId(v)),
+        new Column(Type.TEXT, true, (DailyPerformance r, String v) -> r.setEmployeeName(v)),
+        new Column(Type.TEXT, true, (DailyPerformance r, String v) -> r.setDepartment(v)),
+        new Column(Type.ATTENDANCE, true, (DailyPerformance r, String v) -> r.setAttendance(v)),
+        new Column(Type.INTEGER, false, (DailyPerformance r, Integer v) -> r.setLateEarlyMinutes(v)),
+        new Column(Type.DECIMAL, false, (DailyPerformance r, Double v) -> r.setOvertimeHours(v)),
+        new Column(Type.INTEGER, true, (DailyPerformance r, Integer v) -> r.setTotalTasks(v)),
+        new Column(Type.INTEGER, true, (DailyPerformance r, Integer v) -> r.setCompletedTasks(v))
+    };
+
+    private static final DailyRowDecoder INSTANCE = new DailyRowDecoder();
+
+    public static DailyRowDecoder getInstance() {
+        return INSTANCE;
+    }
+
+    private DailyRowDecoder() {
+    }
+
+    /**
+     * 该列是否必填
+     */
+    public static boolean isRequired(int column) {
+        return PLAN[column].required;
+    }
+
+    /**
+     * 解码一行单元格文本
+     * 全部为空的行直接跳过，缺少的列按空值处理；有错误时只记录第一个出错的列
+     *
+     * @param rowNum 从0开始的行号
+     * @return 每日记录，跳过或拒绝时返回null
+     */
+    public DailyPerformance decode(int rowNum, String[] cells, RejectionReport report) {
+        if (isBlank(cells)) {
+            return null;
+        }
+        DailyPerformance record = new DailyPerformance();
+        for (int i = 0; i < COLUMNS; i++) {
+            Column column = PLAN[i];
+            String text = i < cells.length ? cells[i] : null;
+            if (isBlank(text)) {
+                if (column.required) {
+                    report.reject(rowNum, i, REASON_MISSING);
+                    return null;
+                }
+                continue;
+            }
+
+            Object value;
+            String reason;
+            switch (column.type) {
+                case DATE:
+                    value = FieldParser.parseDate(text, 0, text.length());
+                    reason = REASON_INVALID_DATE;
+                    break;
+                case ATTENDANCE:
+                    value = FieldParser.parseAttendance(text, 0, text.length());
+                    reason = REASON_INVALID_ATTENDANCE;
+                    break;
+                case INTEGER:
+                    value = FieldParser.parseInteger(text, 0, text.length());
+                    reason = REASON_INVALID_NUMBER;
+                    break;
+                case DECIMAL:
+                    value = FieldParser.parseDecimal(text, 0, text.length());
+                    reason = REASON_INVALID_NUMBER;
+                    break;
+                default:
+                    value = text;
+                    reason = null;
+            }
+            if (value == null) {
+                report.reject(rowNum, i, reason);
+                return null;
+            }
+            column.setter.accept(record, value);
+        }
+        return record;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isEmpty();
+    }
+
+    private static boolean isBlank(String[] cells) {
+        for (String cell : cells) {
+            if (!isBlank(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
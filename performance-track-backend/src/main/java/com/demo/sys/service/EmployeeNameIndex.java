@@ -0,0 +1,216 @@
+package com.demo.sys.service;
+
+import com.demo.sys.entity.EmployeePerformance;
+import com.demo.sys.repository.EmployeePerformanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 员工姓名的子串索引
+ * LIKE '%关键字%'无法使用B树索引，每次按姓名搜索都要扫描全表。这里在内存中维护所有出现过的(员工ID, 姓名)组合，
+ * 为每个姓名的所有1、2、3字符片段建立倒排表(片段 -> 有序的组合序号)：
+ * - 不超过3个字符的关键字直接取对应片段的倒排表
+ * - 更长的关键字对其所有3字符片段的倒排表求交集，再逐个核对姓名是否包含关键字
+ * 查询开销取决于倒排表长度而不是员工总数。不区分大小写，与MySQL默认排序规则下的LIKE一致。
+ * 员工改名后新旧姓名都保留在索引中，历史记录仍按各自的姓名匹配；索引只把关键字换算为候选员工ID，
+ * 查询时仍按每行的姓名核对。启动时从数据库加载，导入提交后增量加入新的组合。
+ */
+@Component
+public class EmployeeNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeNameIndex.class);
+
+    private static final int MAX_GRAM = 3;
+
+    @Autowired
+    private EmployeePerformanceRepository employeePerformanceRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 已加入的(员工ID, 小写姓名)组合；组合序号 -> 员工ID和小写姓名
+    private final Set<String> pairs = new HashSet<>();
+    private final List<String> employeeIds = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+
+    // 片段 -> 姓名包含该片段的组合序号
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * 启动时按现有数据建立索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        List<Object[]> employees = employeePerformanceRepository.findDistinctEmployeeNames();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : employees) {
+                put((String) row[0], (String) row[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("员工姓名索引已建立，共{}个员工姓名，{}个片段", employees.size(), postings.size());
+    }
+
+    /**
+     * 索引是否已建立，未建立时调用方应退回到LIKE查询
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 有姓名包含关键字的员工ID，按首次加入索引的顺序
+     * 改过名的员工只有部分记录的姓名匹配，调用方需要同时按姓名过滤
+     */
+    public Set<String> findEmployeeIds(String keyword) {
+        String key = keyword.toLowerCase(Locale.ROOT);
+        Set<String> result = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            if (key.length() <= MAX_GRAM) {
+                Postings list = postings.get(key);
+                if (list != null) {
+                    for (int i = 0; i < list.size; i++) {
+                        result.add(employeeIds.get(list.ordinals[i]));
+                    }
+                }
+                return result;
+            }
+
+            // 从最短的倒排表开始求交集
+            Postings[] lists = new Postings[key.length() - MAX_GRAM + 1];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(key.substring(i, i + MAX_GRAM));
+                if (lists[i] == null) {
+                    return result;
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            Postings shortest = lists[0];
+            for (int i = 0; i < shortest.size; i++) {
+                int ordinal = shortest.ordinals[i];
+                boolean all = true;
+                for (int j = 1; j < lists.length && all; j++) {
+                    all = lists[j].contains(ordinal);
+                }
+                if (all && names.get(ordinal).contains(key)) {
+                    result.add(employeeIds.get(ordinal));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 把导入的员工加入索引；在事务中调用时等到提交后再加入
+     */
+    public void addAll(Collection<EmployeePerformance> performances) {
+        List<String[]> employees = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (EmployeePerformance performance : performances) {
+            if (seen.add(performance.getEmployeeID() + '\u0000' + performance.getEmployeeName())) {
+                employees.add(new String[]{performance.getEmployeeID(), performance.getEmployeeName()});
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putAll(employees);
+                }
+            });
+        } else {
+            putAll(employees);
+        }
+    }
+
+    private void putAll(List<String[]> employees) {
+        lock.writeLock().lock();
+        try {
+            for (String[] employee : employees) {
+                put(employee[0], employee[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 加入新的(员工ID, 姓名)组合；员工改名时旧姓名保留，仍有记录使用它
+    private void put(String employeeId, String employeeName) {
+        if (employeeId == null || employeeName == null) {
+            return;
+        }
+        String name = employeeName.toLowerCase(Locale.ROOT);
+        if (!pairs.add(employeeId + '\u0000' + name)) {
+            return;
+        }
+        int ordinal = employeeIds.size();
+        employeeIds.add(employeeId);
+        names.add(name);
+        for (String gram : grams(name)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+        }
+    }
+
+    // 姓名中所有不重复的1到3字符片段
+    private static Set<String> grams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= name.length(); i++) {
+                grams.add(name.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 有序的组合序号列表
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+
+        void add(int ordinal) {
+            int pos = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, pos, ordinals, pos + 1, size - pos);
+            ordinals[pos] = ordinal;
+            size++;
+        }
+    }
+}
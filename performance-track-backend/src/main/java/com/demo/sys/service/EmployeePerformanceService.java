@@ -1,13 +1,26 @@
 package com.demo.sys.service;
 
+import com.demo.sys.dto.KeysetPageDTO;
+import com.demo.sys.dto.KeysetSearchDTO;
+import com.demo.sys.dto.PerformanceRowDTO;
 import com.demo.sys.entity.EmployeePerformance;
 import com.demo.sys.repository.EmployeePerformanceRepository;
+import com.demo.sys.repository.EmployeePerformanceSearchRepository;
+import com.demo.sys.repository.EmployeePerformanceSearchRepository.SortKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,20 +29,167 @@ public class EmployeePerformanceService {
     @Autowired
     private EmployeePerformanceRepository employeePerformanceRepository;
 
+    @Autowired
+    private PerformanceMonthCatalog performanceMonthCatalog;
+
+    @Autowired
+    private EmployeePerformanceSearchRepository employeePerformanceSearchRepository;
+
+    @Autowired
+    private EmployeeNameIndex employeeNameIndex;
+
+    /**
+     * 键集分页每页最多返回的记录数
+     */
+    public static final int MAX_KEYSET_PAGE_SIZE = 100;
+
+    // 姓名匹配的员工超过这个数量时不再展开为IN列表，退回到LIKE查询
+    private static final int MAX_NAME_MATCHES = 1000;
+
+    private static final int TOTAL_CACHE_MAX_ENTRIES = 256;
+    private static final long TOTAL_CACHE_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    // 查询条件 -> {总数, 过期时间}，按访问顺序排列
+    private final LinkedHashMap<String, long[]> totalCache = new LinkedHashMap<String, long[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > TOTAL_CACHE_MAX_ENTRIES;
+        }
+    };
+
     /**
      * 根据YearMonth对象搜索
+     * 列表查询都在只读事务中直接返回PerformanceRowDTO，不创建受管实体，也不在提交时做脏检查
      */
-    public Page<EmployeePerformance> search(String employeeID, String employeeName, YearMonth recordDate, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<PerformanceRowDTO> search(String employeeID, String employeeName, YearMonth recordDate, Pageable pageable) {
+        Set<String> employeeIds = resolveEmployeeIds(employeeName);
+        if (employeeIds != null) {
+            return employeeIds.isEmpty() ? Page.empty(pageable)
+                : employeePerformanceRepository.searchInEmployees(employeeID, employeeName, employeeIds, recordDate, pageable);
+        }
         return employeePerformanceRepository.search(employeeID, employeeName, recordDate, pageable);
     }
     
     /**
      * 使用日期前缀字符串进行搜索
+     * 前缀(如"2024"、"2024-0"、"2024-06")先换算为日期区间[起始, 结束)，再按区间查询，可以使用record_date索引
      */
-    public Page<EmployeePerformance> searchWithDatePrefix(String employeeID, String employeeName, String datePrefix, Pageable pageable) {
-        return employeePerformanceRepository.searchWithDatePrefix(employeeID, employeeName, datePrefix, pageable);
+    @Transactional(readOnly = true)
+    public Page<PerformanceRowDTO> searchWithDatePrefix(String employeeID, String employeeName, String datePrefix, Pageable pageable) {
+        if (datePrefix == null || datePrefix.isEmpty()) {
+            return search(employeeID, employeeName, null, pageable);
+        }
+        LocalDate[] range = datePrefixRange(datePrefix);
+        if (range == null) {
+            return Page.empty(pageable);
+        }
+        // 月度记录的日期都是当月1日，日期区间内的记录即1日落在区间内的月份
+        YearMonth fromMonth = firstMonthOnOrAfter(range[0]);
+        YearMonth toMonth = firstMonthOnOrAfter(range[1]);
+        if (!fromMonth.isBefore(toMonth)) {
+            return Page.empty(pageable);
+        }
+        Set<String> employeeIds = resolveEmployeeIds(employeeName);
+        if (employeeIds != null) {
+            return employeeIds.isEmpty() ? Page.empty(pageable)
+                : employeePerformanceRepository.searchByMonthRangeInEmployees(employeeID, employeeName, employeeIds,
+                    fromMonth, toMonth, pageable);
+        }
+        return employeePerformanceRepository.searchByMonthRange(employeeID, employeeName, fromMonth, toMonth, pageable);
     }
     
+    /**
+     * 键集分页搜索
+     * 每页从上一页最后一行之后继续读取size+1行(多出的一行用于判断是否还有下一页)，不使用偏移量，
+     * 也不在每页都执行COUNT，任意深度的页开销相同。只允许按有索引的列排序。
+     * 需要总数时：只按单个月份筛选直接读取月份目录，其余条件的计数缓存一分钟，因此是近似值
+     * @throws IllegalArgumentException 排序列不受支持或游标无效
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO searchKeyset(KeysetSearchDTO request) {
+        SortKey key = SortKey.fromProperty(request.getSortBy());
+        if (key == null) {
+            throw new IllegalArgumentException("不支持按该字段排序: " + request.getSortBy());
+        }
+        boolean descending = !"asc".equalsIgnoreCase(request.getDirection());
+        int size = Math.max(1, Math.min(request.getSize(), MAX_KEYSET_PAGE_SIZE));
+
+        LocalDate[] range = null;
+        String datePrefix = request.getRecordDate();
+        if (datePrefix != null && !datePrefix.isEmpty()) {
+            range = datePrefixRange(datePrefix);
+            if (range == null) {
+                return new KeysetPageDTO(new ArrayList<>(), size, null, request.isIncludeTotal() ? 0L : null);
+            }
+        }
+        LocalDate startDate = range != null ? range[0] : null;
+        LocalDate endDate = range != null ? range[1] : null;
+        String employeeID = emptyToNull(request.getEmployeeID());
+        String employeeName = emptyToNull(request.getEmployeeName());
+        String fingerprint = employeeID + "\u0000" + employeeName + "\u0000" + startDate + "\u0000" + endDate;
+
+        Set<String> employeeIds = resolveEmployeeIds(employeeName);
+        if (employeeIds != null && employeeIds.isEmpty()) {
+            return new KeysetPageDTO(new ArrayList<>(), size, null, request.isIncludeTotal() ? 0L : null);
+        }
+
+        Object[] after = null;
+        if (request.getCursor() != null && !request.getCursor().isEmpty()) {
+            after = SearchCursor.decode(request.getCursor(), key, descending, fingerprint);
+        }
+
+        List<PerformanceRowDTO> rows = employeePerformanceSearchRepository.findPage(
+            employeeID, employeeName, employeeIds, startDate, endDate, key, descending, after, size + 1);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = SearchCursor.encode(key, descending, fingerprint, key.valuesOf(rows.get(size - 1)));
+        }
+
+        Long total = null;
+        if (request.isIncludeTotal()) {
+            total = approximateTotal(employeeID, employeeName, employeeIds, startDate, endDate, fingerprint);
+        }
+        return new KeysetPageDTO(new ArrayList<>(rows), size, nextCursor, total);
+    }
+
+    private long approximateTotal(String employeeID, String employeeName, Set<String> employeeIds,
+                                  LocalDate startDate, LocalDate endDate, String fingerprint) {
+        if (employeeID == null && employeeName == null && startDate != null && startDate.getDayOfMonth() == 1 && startDate.plusMonths(1).equals(endDate)) {
+            return performanceMonthCatalog.monthlyRows(YearMonth.from(startDate));
+        }
+
+        long now = System.nanoTime();
+        synchronized (totalCache) {
+            long[] cached = totalCache.get(fingerprint);
+            if (cached != null && now - cached[1] < 0) {
+                return cached[0];
+            }
+        }
+        long total = employeePerformanceSearchRepository.count(employeeID, employeeName, employeeIds, startDate, endDate);
+        synchronized (totalCache) {
+            totalCache.put(fingerprint, new long[] { total, now + TOTAL_CACHE_TTL_NANOS });
+        }
+        return total;
+    }
+
+    /**
+     * 通过姓名索引把姓名关键字换算为员工ID
+     * @return 有姓名匹配的员工ID，查询时仍按姓名过滤；没有关键字、索引未建立或匹配的员工过多时返回null，由调用方只使用LIKE查询
+     */
+    private Set<String> resolveEmployeeIds(String employeeName) {
+        if (employeeName == null || employeeName.isEmpty() || !employeeNameIndex.isReady()) {
+            return null;
+        }
+        Set<String> employeeIds = employeeNameIndex.findEmployeeIds(employeeName);
+        return employeeIds.size() <= MAX_NAME_MATCHES ? employeeIds : null;
+    }
+
+    private static String emptyToNull(String text) {
+        return text == null || text.isEmpty() ? null : text;
+    }
+
     /**
      * 计算所有记录数量
      */
@@ -38,36 +198,35 @@ public class EmployeePerformanceService {
     }
     
     /**
-     * 获取所有不同的日期
+     * 获取所有不同的日期，从月份目录读取
      */
     public List<String> findAllDistinctDates() {
-        // 获取所有记录
-        List<EmployeePerformance> allRecords = employeePerformanceRepository.findAll();
-        
-        // 提取所有不同的日期
-        return allRecords.stream()
-            .map(record -> {
-                if (record.getRecordDate() != null) {
-                    return record.getRecordDate().toString();
-                }
-                return "null";
-            })
-            .distinct()
+        return performanceMonthCatalog.months().stream()
+            .map(YearMonth::toString)
             .collect(Collectors.toList());
     }
     
+    /**
+     * 获取最新的月份
+     */
+    public Optional<YearMonth> findLatestMonth() {
+        return performanceMonthCatalog.latestMonth();
+    }
+    
     /**
      * 根据年月查询记录
      */
-    public List<EmployeePerformance> findByYearAndMonth(int year, int month) {
-        return employeePerformanceRepository.findByYearAndMonth(year, month);
+    @Transactional(readOnly = true)
+    public List<PerformanceRowDTO> findByYearAndMonth(int year, int month) {
+        return findByRecordDate(YearMonth.of(year, month));
     }
     
     /**
      * 根据YearMonth查询记录
      */
-    public List<EmployeePerformance> findByRecordDate(YearMonth yearMonth) {
-        return employeePerformanceRepository.findByRecordDate(yearMonth);
+    @Transactional(readOnly = true)
+    public List<PerformanceRowDTO> findByRecordDate(YearMonth yearMonth) {
+        return employeePerformanceRepository.findRowsByRecordDate(yearMonth);
     }
     
     /**
@@ -76,8 +235,7 @@ public class EmployeePerformanceService {
      * @return 如果存在记录则返回true，否则返回false
      */
     public boolean hasDataForYearMonth(YearMonth yearMonth) {
-        List<EmployeePerformance> existingRecords = employeePerformanceRepository.findByRecordDate(yearMonth);
-        return !existingRecords.isEmpty();
+        return performanceMonthCatalog.contains(yearMonth);
     }
     
     /**
@@ -87,7 +245,70 @@ public class EmployeePerformanceService {
      * @return 如果存在记录则返回true，否则返回false
      */
     public boolean hasDataForYearMonth(int year, int month) {
-        List<EmployeePerformance> existingRecords = employeePerformanceRepository.findByYearAndMonth(year, month);
-        return !existingRecords.isEmpty();
+        return hasDataForYearMonth(YearMonth.of(year, month));
+    }
+    
+    /**
+     * 校验特定年月的数据尚不存在，可作为导入时的月份校验
+     * @param yearMonth 年月
+     * @throws MonthAlreadyImportedException 如果该月份已有记录
+     */
+    public void requireNoDataForYearMonth(YearMonth yearMonth) {
+        if (hasDataForYearMonth(yearMonth)) {
+            throw new MonthAlreadyImportedException(yearMonth);
+        }
+    }
+
+    /**
+     * 把yyyy-MM-dd格式的前缀换算为日期区间[起始, 结束)
+     * 以该前缀开头的日期在字典序和时间上都连续：起始为补齐后最小的有效日期，结束为补齐后最大的有效日期的下一天
+     * @return 区间的起止日期，没有日期以该前缀开头时返回null
+     */
+    static LocalDate[] datePrefixRange(String prefix) {
+        final String pattern = "dddd-dd-dd";
+        if (prefix.length() > pattern.length()) {
+            return null;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (pattern.charAt(i) == '-' ? c != '-' : c < '0' || c > '9') {
+                return null;
+            }
+        }
+
+        LocalDate first = smallestDate(prefix + "0000-00-00".substring(prefix.length()));
+        LocalDate last = largestDate(prefix + "9999-19-39".substring(prefix.length()));
+        if (first == null || last == null || first.isAfter(last)) {
+            return null;
+        }
+        return new LocalDate[] { first, last.plusDays(1) };
+    }
+
+    // 1日不早于该日期的第一个月份
+    static YearMonth firstMonthOnOrAfter(LocalDate date) {
+        YearMonth month = YearMonth.from(date);
+        return date.getDayOfMonth() == 1 ? month : month.plusMonths(1);
+    }
+
+    // 补齐后的最小日期：月、日为0时取1，日超出当月天数时说明没有匹配的日期
+    private static LocalDate smallestDate(String text) {
+        int year = Integer.parseInt(text.substring(0, 4));
+        int month = Math.max(Integer.parseInt(text.substring(5, 7)), 1);
+        int day = Math.max(Integer.parseInt(text.substring(8, 10)), 1);
+        if (month > 12 || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    // 补齐后的最大日期：月、日超出范围时取该月(年)的最后一天，月、日为0时说明没有匹配的日期
+    private static LocalDate largestDate(String text) {
+        int year = Integer.parseInt(text.substring(0, 4));
+        int month = Math.min(Integer.parseInt(text.substring(5, 7)), 12);
+        int day = Integer.parseInt(text.substring(8, 10));
+        if (month == 0 || day == 0) {
+            return null;
+        }
+        return LocalDate.of(year, month, Math.min(day, YearMonth.of(year, month).lengthOfMonth()));
     }
-} 
\ No newline at end of file
+}
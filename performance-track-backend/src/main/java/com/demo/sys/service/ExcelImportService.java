@@ -1,68 +1,363 @@
 package com.demo.sys.service;
 
+import com.demo.sys.config.ImportConfig;
 import com.demo.sys.dto.PerformanceImportResultDTO;
 import com.demo.sys.entity.DailyPerformance;
 import com.demo.sys.entity.EmployeePerformance;
 import com.demo.sys.repository.DailyPerformanceRepository;
-import com.demo.sys.repository.EmployeePerformanceRepository;
+import com.demo.sys.repository.PerformanceBatchWriter;
+import com.demo.sys.repository.UpsertKeyCheck;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.time.LocalDate;
+import java.io.InputStream;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelImportService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExcelImportService.class);
+
+    // 解析时每隔多少行报告一次进度
+    private static final int PROGRESS_INTERVAL = 1000;
+
     @Autowired
     private DailyPerformanceRepository dailyPerformanceRepository;
 
-    @Autowired
-    private EmployeePerformanceRepository employeePerformanceRepository;
     
     @Autowired
     private KNNModelService knnModelService;
 
+    @Autowired
+    private XlsxStreamingReader xlsxStreamingReader;
+
+    @Autowired
+    private CsvFastReader csvFastReader;
+
+    @Autowired
+    private ImportConfig importConfig;
+
+    @Autowired
+    private ImportResultCache importResultCache;
+
+    @Autowired
+    @Qualifier("importPipelineExecutor")
+    private ThreadPoolTaskExecutor importPipelineExecutor;
+
+    @Autowired
+    private PerformanceBatchWriter performanceBatchWriter;
+
+    @Autowired
+    private PerformanceMonthCatalog performanceMonthCatalog;
+
+    @Autowired
+    private EmployeeNameIndex employeeNameIndex;
+
+    @Autowired
+    private PerformanceCacheService performanceCacheService;
+
+    @Autowired
+    private RatingModelTrainer ratingModelTrainer;
+
+    @Autowired
+    private UpsertKeyCheck upsertKeyCheck;
+
     /**
      * 导入Excel文件，处理每日考勤记录并计算月度绩效，并保存到数据库
      */
-    @Transactional
+    @Transactional(rollbackFor = Exception.class)
     public List<EmployeePerformance> importExcel(MultipartFile file) throws IOException {
+        return importExcel(file, yearMonth -> { });
+    }
+
+    /**
+     * 导入Excel文件，monthCheck在确定文件所属年月后立即调用，可抛出异常提前终止解析
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<EmployeePerformance> importExcel(MultipartFile file, Consumer<YearMonth> monthCheck) throws IOException {
+        // 大文件按块解析和保存，不在内存中保留全部每日记录
+        if (file.getSize() >= importConfig.getPipelineThresholdBytes()) {
+            try (InputStream in = file.getInputStream()) {
+                return importExcelPipelined(in, file.getOriginalFilename(), monthCheck, ImportProgressListener.NONE);
+            }
+        }
+
+        // 1. 解析Excel文件(之前预览过的相同文件直接使用缓存的结果)
+        PerformanceImportResultDTO result = processExcelWithoutSaving(file, monthCheck);
+        
+        // 2. 保存数据到数据库
+        return saveImportedData(result.getDailyPerformances(), result.getMonthlyPerformances());
+    }
+
+    /**
+     * 导入Excel输入流，通过listener报告处理阶段和已解析行数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<EmployeePerformance> importExcel(
+            InputStream in, String fileName, Consumer<YearMonth> monthCheck,
+            ImportProgressListener listener) throws IOException {
         // 1. 解析Excel文件，获取每日记录和月度绩效
-        PerformanceImportResultDTO result = processExcelWithoutSaving(file);
+        PerformanceImportResultDTO result = processExcelWithoutSaving(in, fileName, monthCheck, listener);
         
         // 2. 保存数据到数据库
+        listener.onStage(ImportProgressListener.STAGE_SAVING);
         return saveImportedData(result.getDailyPerformances(), result.getMonthlyPerformances());
     }
     
+    /**
+     * 流水线方式导入：解析线程把每日记录按块放入有界队列，当前线程(事务所在线程)逐块汇总并批量写入数据库，
+     * 写入的记录不进入持久化上下文。内存中只保留每个(员工, 月份)的累加值和少量待写入的块，
+     * 解析快于写入时解析线程在队列满时等待
+     * 解析失败(包括IOException)时整个导入回滚，不会留下写了一部分的月份；
+     * 评分使用的模型不包含本次导入的每日记录，与先评分后写入的内存导入结果一致
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<EmployeePerformance> importExcelPipelined(
+            InputStream in, String fileName, Consumer<YearMonth> monthCheck,
+            ImportProgressListener listener) throws IOException {
+        ChunkPipe pipe = new ChunkPipe(importConfig.getPipelineChunkSize(), importConfig.getPipelineQueueChunks());
+        DailyRecordCollector collector = new DailyRecordCollector(
+            yearMonthFromFilename(fileName), monthCheck, listener, pipe);
+        
+        // 1. 在解析线程中读取文件
+        listener.onStage(ImportProgressListener.STAGE_PARSING);
+        importPipelineExecutor.execute(() -> {
+            try {
+                readRecords(in, fileName, collector);
+                pipe.finish(null);
+            } catch (Throwable e) {
+                pipe.finish(e);
+            }
+        });
+        
+        // 2. 逐块汇总并保存每日记录
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        Map<YearMonth, Long> dailyRowsByMonth = new HashMap<>();
+        try {
+            List<DailyPerformance> chunk;
+            while ((chunk = pipe.take()) != null) {
+                for (DailyPerformance record : chunk) {
+                    aggregator.add(record);
+                }
+                PerformanceMonthCatalog.countDaily(chunk, dailyRowsByMonth);
+                performanceBatchWriter.insertDaily(chunk);
+            }
+        } catch (InterruptedException e) {
+            pipe.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("导入已中断", e);
+        } catch (RuntimeException e) {
+            pipe.cancel();
+            throw e;
+        }
+        pipe.rethrowFailure();
+        listener.onRows(collector.recordCount);
+        if (collector.yearMonth == null) {
+            throw new IllegalArgumentException("无法从文件中提取年月信息");
+        }
+        logRejections(fileName, collector.rejections);
+        
+        // 3. 计算绩效评分并保存月度绩效
+        listener.onStage(ImportProgressListener.STAGE_RATING);
+        List<EmployeePerformance> monthlyPerformances = aggregator.toEmployeePerformances();
+        calculatePerformanceRatings(monthlyPerformances);
+        
+        listener.onStage(ImportProgressListener.STAGE_SAVING);
+        performanceBatchWriter.insertMonthly(monthlyPerformances);
+        performanceMonthCatalog.recordInserted(monthlyPerformances, dailyRowsByMonth);
+        employeeNameIndex.addAll(monthlyPerformances);
+        importResultCache.invalidateAll();
+        performanceCacheService.evictPerformances();
+        return monthlyPerformances;
+    }
+
+    /**
+     * 解析线程与保存线程之间的有界块队列
+     */
+    private static class ChunkPipe implements Consumer<DailyPerformance> {
+
+        // 解析结束标记
+        private static final List<DailyPerformance> END = new ArrayList<>(0);
+
+        private final BlockingQueue<List<DailyPerformance>> queue;
+        private final int chunkSize;
+        private List<DailyPerformance> chunk;
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        ChunkPipe(int chunkSize, int queueChunks) {
+            this.chunkSize = chunkSize;
+            this.queue = new ArrayBlockingQueue<>(queueChunks);
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void accept(DailyPerformance record) {
+            chunk.add(record);
+            if (chunk.size() >= chunkSize) {
+                put(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        /**
+         * 解析结束(failure为空)或失败，通知保存线程
+         */
+        void finish(Throwable failure) {
+            this.failure = failure;
+            try {
+                if (failure == null && !chunk.isEmpty()) {
+                    put(chunk);
+                }
+                put(END);
+            } catch (CancellationException e) {
+                // 保存线程已放弃，不再需要结束标记
+            }
+        }
+
+        /**
+         * 取下一块，解析结束时返回null
+         */
+        List<DailyPerformance> take() throws InterruptedException {
+            List<DailyPerformance> next = queue.take();
+            return next == END ? null : next;
+        }
+
+        void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        void rethrowFailure() throws IOException {
+            Throwable e = failure;
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+
+        // 队列满时等待，保存线程放弃后停止解析
+        private void put(List<DailyPerformance> value) {
+            try {
+                while (!queue.offer(value, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        throw new CancellationException("导入已取消");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("导入已中断");
+            }
+        }
+    }
+
     /**
      * 处理Excel文件但不保存到数据库，用于预览
      */
     public PerformanceImportResultDTO processExcelWithoutSaving(MultipartFile file) throws IOException {
-        // 1. 解析Excel文件，获取每日记录
-        List<DailyPerformance> dailyRecords = parseDailyRecords(file);
-        
-        // 2. 按员工和月份分组计算月度绩效
-        List<EmployeePerformance> monthlyPerformances = calculateMonthlyPerformance(dailyRecords);
+        return processExcelWithoutSaving(file, yearMonth -> { });
+    }
+
+    /**
+     * 处理Excel文件但不保存到数据库
+     * 文件只读取一遍：年月优先从文件名获取，否则取自第一条有效数据行，
+     * 确定后立即交给monthCheck校验，校验失败时不再解析剩余的行
+     * 相同内容的文件在缓存有效期内只解析和评分一次
+     */
+    public PerformanceImportResultDTO processExcelWithoutSaving(
+            MultipartFile file, Consumer<YearMonth> monthCheck) throws IOException {
+        return importResultCache.get(file, monthCheck, () -> {
+            try (InputStream in = file.getInputStream()) {
+                return processExcelWithoutSaving(in, file.getOriginalFilename(), monthCheck, ImportProgressListener.NONE);
+            }
+        });
+    }
+
+    /**
+     * 处理Excel输入流但不保存到数据库
+     */
+    public PerformanceImportResultDTO processExcelWithoutSaving(
+            InputStream in, String fileName, Consumer<YearMonth> monthCheck,
+            ImportProgressListener listener) throws IOException {
+        // 1-2. 解析并汇总月度指标
+        PerformanceImportResultDTO result = parseExcel(in, fileName, monthCheck, listener);
         
         // 3. 使用KNN模型计算绩效评分
-        calculatePerformanceRatings(monthlyPerformances);
+        listener.onStage(ImportProgressListener.STAGE_RATING);
+        calculatePerformanceRatings(result.getMonthlyPerformances());
         
         // 返回处理结果，但不保存到数据库
-        return new PerformanceImportResultDTO(
+        return result;
+    }
+
+    /**
+     * 解析Excel输入流并汇总月度指标，不计算绩效评分
+     * 不访问KNN模型，可在多个线程中并行调用
+     */
+    public PerformanceImportResultDTO parseExcel(
+            InputStream in, String fileName, Consumer<YearMonth> monthCheck) throws IOException {
+        return parseExcel(in, fileName, monthCheck, ImportProgressListener.NONE);
+    }
+
+    /**
+     * 解析Excel输入流并汇总月度指标，通过listener报告进度
+     */
+    public PerformanceImportResultDTO parseExcel(
+            InputStream in, String fileName, Consumer<YearMonth> monthCheck,
+            ImportProgressListener listener) throws IOException {
+        // 1. 解析Excel文件，获取每日记录和所属年月
+        listener.onStage(ImportProgressListener.STAGE_PARSING);
+        List<DailyPerformance> dailyRecords = new ArrayList<>();
+        DailyRecordCollector collector = new DailyRecordCollector(
+            yearMonthFromFilename(fileName), monthCheck, listener, dailyRecords::add);
+        readRecords(in, fileName, collector);
+        listener.onRows(dailyRecords.size());
+        if (collector.yearMonth == null) {
+            throw new IllegalArgumentException("无法从文件中提取年月信息");
+        }
+        
+        // 2. 按员工和月份分组计算月度绩效
+        listener.onStage(ImportProgressListener.STAGE_AGGREGATING);
+        List<EmployeePerformance> monthlyPerformances = calculateMonthlyPerformance(dailyRecords);
+        
+        PerformanceImportResultDTO result = new PerformanceImportResultDTO(
             dailyRecords, 
             monthlyPerformances, 
-            file.getOriginalFilename()
+            fileName
         );
+        result.setYearMonth(collector.yearMonth);
+        result.setRejectedRowCount(collector.rejections.getCount());
+        result.setRejectedRows(collector.rejections.toDTOs());
+        logRejections(fileName, collector.rejections);
+        return result;
     }
     
     /**
@@ -73,55 +368,203 @@ public class ExcelImportService {
             List<DailyPerformance> dailyRecords, 
             List<EmployeePerformance> monthlyPerformances) {
         
-        // 1. 保存每日记录
-        dailyPerformanceRepository.saveAll(dailyRecords);
+        // 1. 批量写入每日记录
+        performanceBatchWriter.insertDaily(dailyRecords);
         
-        // 2. 保存月度绩效
-        employeePerformanceRepository.saveAll(monthlyPerformances);
+        // 2. 批量写入月度绩效
+        performanceBatchWriter.insertMonthly(monthlyPerformances);
+        
+        // 3. 更新月份目录和员工姓名索引
+        Map<YearMonth, Long> dailyRowsByMonth = new HashMap<>();
+        PerformanceMonthCatalog.countDaily(dailyRecords, dailyRowsByMonth);
+        performanceMonthCatalog.recordInserted(monthlyPerformances, dailyRowsByMonth);
+        employeeNameIndex.addAll(monthlyPerformances);
+        
+        // 4. 训练数据已变化，缓存的评分结果和绩效查询缓存失效
+        importResultCache.invalidateAll();
+        performanceCacheService.evictPerformances();
         
         return monthlyPerformances;
     }
 
     /**
-     * 解析Excel文件，获取每日记录
+     * 以覆盖方式导入：按(员工ID, 日期)插入或更新每日记录，不做月份冲突检查
+     * 修正后的文件或只包含部分员工的文件可以重复导入，只重算受影响的(员工, 月份)的月度绩效：
+     * 从数据库重新读取这些员工在相关月份的全部每日记录汇总，再按(员工ID, 月份)写入月度绩效
+     * 文件只解析不评分(不经过导入结果缓存)，评分只在重新汇总后进行一次；
+     * 依赖(employee_id, record_date)唯一键，唯一键缺失时拒绝导入
      */
-    private List<DailyPerformance> parseDailyRecords(MultipartFile file) throws IOException {
-        List<DailyPerformance> dailyRecords = new ArrayList<>();
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
+    @Transactional(rollbackFor = Exception.class)
+    public List<EmployeePerformance> upsertExcel(MultipartFile file) throws IOException {
+        upsertKeyCheck.requireUpsertKeys();
+        PerformanceImportResultDTO result;
+        try (InputStream in = file.getInputStream()) {
+            result = parseExcel(in, file.getOriginalFilename(), yearMonth -> { });
+        }
+        List<DailyPerformance> dailyRecords = result.getDailyPerformances();
+        if (dailyRecords.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        // 验证表头
-        Row headerRow = sheet.getRow(0);
-        validateHeaders(headerRow);
+        // 1. 批量插入或更新每日记录
+        performanceBatchWriter.upsertDaily(dailyRecords);
 
-        // 处理数据行
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) continue;
+        // 2. 确定受影响的员工和月份
+        Set<String> employeeIds = new HashSet<>();
+        Set<String> affected = new HashSet<>();
+        Set<YearMonth> months = new HashSet<>();
+        YearMonth first = null;
+        YearMonth last = null;
+        for (DailyPerformance record : dailyRecords) {
+            YearMonth month = YearMonth.from(record.getRecordDate());
+            employeeIds.add(record.getEmployeeId());
+            affected.add(record.getEmployeeId() + "|" + month);
+            months.add(month);
+            if (first == null || month.isBefore(first)) {
+                first = month;
+            }
+            if (last == null || month.isAfter(last)) {
+                last = month;
+            }
+        }
 
-            try {
-                DailyPerformance record = createDailyRecord(row);
-                dailyRecords.add(record);
-            } catch (Exception e) {
-                System.err.println("处理第 " + (i + 1) + " 行数据时出错: " + e.getMessage());
+        // 3. 按数据库中的每日记录重新汇总受影响的月度绩效
+        List<DailyPerformance> stored = dailyPerformanceRepository.findByRecordDateBetweenAndEmployeeIdIn(
+            first.atDay(1), last.atEndOfMonth(), employeeIds);
+        List<EmployeePerformance> monthlyPerformances = new ArrayList<>();
+        for (EmployeePerformance performance : calculateMonthlyPerformance(stored)) {
+            if (affected.contains(performance.getEmployeeID() + "|" + performance.getRecordDate())) {
+                monthlyPerformances.add(performance);
             }
         }
 
-        return dailyRecords;
+        // 4. 评分后批量插入或更新月度绩效
+        calculatePerformanceRatings(monthlyPerformances);
+        performanceBatchWriter.upsertMonthly(monthlyPerformances);
+        performanceMonthCatalog.refresh(months);
+        employeeNameIndex.addAll(monthlyPerformances);
+        importResultCache.invalidateAll();
+        performanceCacheService.evictPerformances();
+
+        return monthlyPerformances;
+    }
+
+    /**
+     * 按文件类型读取每日记录：CSV走内存映射快速读取，其余按Excel读取
+     */
+    private void readRecords(InputStream in, String fileName, DailyRecordCollector collector) throws IOException {
+        if (isCsv(fileName)) {
+            csvFastReader.read(in, collector);
+        } else {
+            readRows(in, collector);
+        }
+    }
+
+    private static void logRejections(String fileName, RejectionReport rejections) {
+        if (rejections.getCount() > 0) {
+            logger.warn("{} 中有 {} 行数据无法导入，已跳过", fileName, rejections.getCount());
+        }
+    }
+
+    /**
+     * 逐行读取Excel文件的第一个工作表
+     * xlsx文件默认走SAX流式读取，xls文件或关闭流式模式时加载完整工作簿
+     */
+    private void readRows(InputStream input, XlsxStreamingReader.RowHandler handler) throws IOException {
+        InputStream in = FileMagic.prepareToCheckMagic(input);
+        if (importConfig.isStreaming() && FileMagic.valueOf(in) == FileMagic.OOXML) {
+            xlsxStreamingReader.read(in, handler);
+            return;
+        }
+
+        try (Workbook workbook = WorkbookFactory.create(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                handler.row(row.getRowNum(), getRowValues(row));
+            }
+        }
+    }
+
+    /**
+     * 收集每日记录：第一行校验表头，其余行转换为DailyPerformance
+     * 第一条有效数据行确定年月(文件名中没有时)并触发月份校验
+     * Excel按单元格文本回调并由DailyRowDecoder解码，CSV由CsvFastReader直接生成记录，
+     * 无法解码的行和同一(员工, 日期)的重复行记入rejections，有效记录交给sink
+     */
+    private class DailyRecordCollector implements XlsxStreamingReader.RowHandler, CsvFastReader.RecordHandler {
+
+        private final Consumer<DailyPerformance> sink;
+        private final RejectionReport rejections = new RejectionReport();
+        private final DailyKeySet keys = new DailyKeySet();
+        private final Consumer<YearMonth> monthCheck;
+        private final ImportProgressListener listener;
+        private YearMonth yearMonth;
+        private boolean headerValidated;
+        private int recordCount;
+
+        DailyRecordCollector(YearMonth yearMonth, Consumer<YearMonth> monthCheck, ImportProgressListener listener,
+                             Consumer<DailyPerformance> sink) {
+            this.yearMonth = yearMonth;
+            this.monthCheck = monthCheck;
+            this.listener = listener;
+            this.sink = sink;
+            if (yearMonth != null) {
+                monthCheck.accept(yearMonth);
+            }
+        }
+
+        @Override
+        public void row(int rowNum, String[] cells) {
+            if (!headerValidated) {
+                if (rowNum != 0) {
+                    throw new IllegalArgumentException("Excel文件格式错误：缺少表头");
+                }
+                header(cells);
+                return;
+            }
+
+            DailyPerformance record = DailyRowDecoder.getInstance().decode(rowNum, cells, rejections);
+            if (record != null) {
+                record(rowNum, record);
+            }
+        }
+
+        @Override
+        public void header(String[] cells) {
+            validateHeaders(cells);
+            headerValidated = true;
+        }
+
+        @Override
+        public void record(int rowNum, DailyPerformance record) {
+            if (!keys.add(record.getEmployeeId(), record.getRecordDate())) {
+                rejections.reject(rowNum, RejectionReport.WHOLE_ROW, DailyRowDecoder.REASON_DUPLICATE);
+                return;
+            }
+            if (yearMonth == null) {
+                yearMonth = YearMonth.from(record.getRecordDate());
+                monthCheck.accept(yearMonth);
+            }
+            sink.accept(record);
+            if (++recordCount % PROGRESS_INTERVAL == 0) {
+                listener.onRows(recordCount);
+            }
+        }
+
+        @Override
+        public void reject(int rowNum, int column, String reason) {
+            rejections.reject(rowNum, column, reason);
+        }
     }
 
     /**
      * 验证表头是否符合要求
      */
-    private void validateHeaders(Row headerRow) {
-        String[] expectedHeaders = {
-            "Date", "EmployeeID", "EmployeeName", "Department", "Attendance", 
-            "LateEarlyMinutes", "OvertimeHours", "TotalTasks", "CompletedTasks"
-        };
+    private void validateHeaders(String[] headerCells) {
+        String[] expectedHeaders = DailyRowDecoder.HEADERS;
 
         for (int i = 0; i < expectedHeaders.length; i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell == null || !expectedHeaders[i].equals(getCellValueAsString(cell))) {
+            if (!expectedHeaders[i].equals(cell(headerCells, i))) {
                 throw new IllegalArgumentException(
                     "Excel文件格式错误：表头不符合要求，应为: " + 
                     String.join(", ", expectedHeaders)
@@ -130,225 +573,63 @@ public class ExcelImportService {
         }
     }
 
-    /**
-     * 从行数据创建每日记录
-     */
-    private DailyPerformance createDailyRecord(Row row) {
-        DailyPerformance record = new DailyPerformance();
-        
-        // 解析日期
-        String dateStr = getCellValueAsString(row.getCell(0));
-        if (dateStr != null && !dateStr.isEmpty()) {
-            record.setRecordDate(LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE));
-        } else {
-            throw new IllegalArgumentException("日期不能为空");
-        }
-        
-        // 基本信息
-        record.setEmployeeId(getCellValueAsString(row.getCell(1)));
-        record.setEmployeeName(getCellValueAsString(row.getCell(2)));
-        record.setDepartment(getCellValueAsString(row.getCell(3)));
-        
-        // 出勤信息
-        record.setAttendance(getCellValueAsString(row.getCell(4)));
-        record.setLateEarlyMinutes(getCellValueAsInteger(row.getCell(5)));
-        record.setOvertimeHours(getCellValueAsDouble(row.getCell(6)));
-        
-        // 任务信息
-        record.setTotalTasks(getCellValueAsInteger(row.getCell(7)));
-        record.setCompletedTasks(getCellValueAsInteger(row.getCell(8)));
-        
-        return record;
-    }
-
     /**
      * 计算月度绩效
      */
     private List<EmployeePerformance> calculateMonthlyPerformance(List<DailyPerformance> dailyRecords) {
-        // 按员工ID和月份分组
-        Map<String, Map<YearMonth, List<DailyPerformance>>> groupedRecords = 
-            dailyRecords.stream()
-                .collect(Collectors.groupingBy(
-                    DailyPerformance::getEmployeeId,
-                    Collectors.groupingBy(record -> 
-                        YearMonth.from(record.getRecordDate())
-                    )
-                ));
-        
-        List<EmployeePerformance> monthlyPerformances = new ArrayList<>();
-        
-        // 遍历每个员工的每月记录
-        for (Map.Entry<String, Map<YearMonth, List<DailyPerformance>>> employeeEntry : groupedRecords.entrySet()) {
-            String employeeId = employeeEntry.getKey();
-            
-            for (Map.Entry<YearMonth, List<DailyPerformance>> monthEntry : employeeEntry.getValue().entrySet()) {
-                YearMonth yearMonth = monthEntry.getKey();
-                List<DailyPerformance> monthRecords = monthEntry.getValue();
-                
-                // 如果有记录，则创建月度绩效
-                if (!monthRecords.isEmpty()) {
-                    EmployeePerformance performance = new EmployeePerformance();
-                    
-                    // 设置基本信息
-                    DailyPerformance firstRecord = monthRecords.get(0);
-                    performance.setEmployeeID(employeeId);
-                    performance.setEmployeeName(firstRecord.getEmployeeName());
-                    performance.setDepartment(firstRecord.getDepartment());
-                    performance.setRecordDate(yearMonth);
-                    
-                    // 计算出勤率
-                    double totalEffectiveHours = 0; // 实际有效工作小时
-                    double totalExpectedHours = 0; // 应该工作的总小时数
-
-                    // 过滤掉周末，只计算工作日
-                    List<DailyPerformance> workdayRecords = monthRecords.stream()
-                        .filter(record -> {
-                            int dayOfWeek = record.getRecordDate().getDayOfWeek().getValue();
-                            // 1-5是周一到周五，6-7是周末
-                            return dayOfWeek >= 1 && dayOfWeek <= 5;
-                        })
-                        .collect(Collectors.toList());
-                    
-                    System.out.println("员工: " + employeeId + ", 月份: " + yearMonth + ", 总记录: " + 
-                        monthRecords.size() + ", 工作日记录: " + workdayRecords.size());
-                    
-                    for (DailyPerformance daily : workdayRecords) {
-                        // 每个工作日计入应该工作的时间
-                        totalExpectedHours += 8;
-
-                        if ("Y".equalsIgnoreCase(daily.getAttendance())) {
-                            // 计算有效工作时间
-                            double lateEarlyMinutes = (daily.getLateEarlyMinutes() != null ? daily.getLateEarlyMinutes() : 0);
-                            double lateEarlyHours = lateEarlyMinutes / 60.0;
-                            double effectiveHours = Math.max(0, 8 - lateEarlyHours); // 不能为负数
-                            totalEffectiveHours += effectiveHours;
-                            
-                            System.out.println("  员工: " + employeeId + 
-                                ", 日期: " + daily.getRecordDate() + 
-                                ", 出勤: Y" +
-                                ", 迟到早退(分钟): " + lateEarlyMinutes + 
-                                ", 有效工作时间(小时): " + effectiveHours);
-                        } else {
-                            // 没有出勤，有效工作时间为0
-                            System.out.println("  员工: " + employeeId + 
-                                ", 日期: " + daily.getRecordDate() + 
-                                ", 出勤: N, 有效工作时间: 0");
-                        }
-                    }
-                    
-                    // 避免除以零
-                    double attendanceRate = 0;
-                    if (totalExpectedHours > 0) {
-                        attendanceRate = (totalEffectiveHours / totalExpectedHours) * 100;
-                    }
-                    
-                    System.out.println("员工: " + employeeId + 
-                        ", 月份: " + yearMonth +
-                        ", 总有效工作时间: " + totalEffectiveHours + 
-                        ", 应工作时间: " + totalExpectedHours + 
-                        ", 计算的出勤率: " + attendanceRate + "%");
-                    
-                    performance.setAttendanceRate(Math.round(attendanceRate * 10) / 10.0); // 保留1位小数
-                    
-                    // 计算KPI完成率
-                    int totalTasks = workdayRecords.stream()
-                        .mapToInt(r -> r.getTotalTasks() != null ? r.getTotalTasks() : 0)
-                        .sum();
-                    int completedTasks = workdayRecords.stream()
-                        .mapToInt(r -> r.getCompletedTasks() != null ? r.getCompletedTasks() : 0)
-                        .sum();
-                    
-                    double kpiCompletion = totalTasks > 0 ? ((double) completedTasks / totalTasks) * 100 : 0;
-                    performance.setKpiCompletion(Math.round(kpiCompletion * 10) / 10.0); // 保留1位小数
-                    
-                    // 计算加班时长
-                    double overtimeHours = monthRecords.stream()
-                        .mapToDouble(r -> r.getOvertimeHours() != null ? r.getOvertimeHours() : 0)
-                        .sum();
-                    performance.setOvertimeHours(Math.round(overtimeHours * 10) / 10.0); // 保留1位小数
-                    
-                    // 绩效评分后期由KNN模型计算
-                    
-                    monthlyPerformances.add(performance);
-                }
-            }
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        for (DailyPerformance record : dailyRecords) {
+            aggregator.add(record);
         }
         
-        return monthlyPerformances;
+        // 绩效评分后期由KNN模型计算
+        return aggregator.toEmployeePerformances();
     }
 
     /**
      * 使用KNN模型计算绩效评分
      */
-    private void calculatePerformanceRatings(List<EmployeePerformance> performances) {
+    public void calculatePerformanceRatings(List<EmployeePerformance> performances) {
         try {
-            System.out.println("开始使用KNN模型计算绩效评分...");
+            logger.info("开始使用KNN模型计算绩效评分...");
             
-            // 1. 准备训练数据 - 使用DailyPerformance数据
-            // 获取历史每日绩效数据
-            List<DailyPerformance> dailyTrainingData = dailyPerformanceRepository.findAll();
+            // 1. 准备模型 - 使用DailyPerformance数据
+            // 模型已由每日历史训练时只增量追加新月份的数据，否则逐批读取全部历史每日数据完整训练
+            Set<YearMonth> pendingMonths = new HashSet<>();
+            for (EmployeePerformance performance : performances) {
+                pendingMonths.add(performance.getRecordDate());
+            }
+            long trainedRecords = ratingModelTrainer.prepare(pendingMonths);
             
-            System.out.println("获取到 " + dailyTrainingData.size() + " 条每日绩效记录用于训练");
+            logger.info("KNN模型包含 {} 条每日绩效记录", trainedRecords);
             
             // 如果没有足够的历史数据，添加一些样本数据
             List<EmployeePerformance> sampleData = new ArrayList<>();
-            if (dailyTrainingData.size() < 20) {
-                System.out.println("每日绩效历史数据不足，添加模拟数据进行训练");
+            if (trainedRecords < 20) {
+                logger.info("每日绩效历史数据不足，添加模拟数据进行训练");
                 sampleData = createSampleTrainingData();
             }
             
             // 2. 训练模型
-            if (dailyTrainingData.size() >= 10) {
-                System.out.println("使用每日绩效数据训练KNN模型");
-                knnModelService.trainModelWithDailyData(dailyTrainingData);
-                
-                // 3. 为每个没有评分的绩效记录预测评分
-                for (EmployeePerformance performance : performances) {
-                    if (performance.getPerformanceRating() == null) {
-                        Integer predictedRating = knnModelService.predictPerformanceRating(
-                            performance.getAttendanceRate(),
-                            performance.getKpiCompletion(),
-                            performance.getOvertimeHours()
-                        );
-                        
-                        performance.setPerformanceRating(predictedRating);
-                        System.out.println("员工: " + performance.getEmployeeID() + 
-                            ", 预测绩效评分: " + predictedRating + 
-                            " (出勤率: " + performance.getAttendanceRate() + 
-                            ", KPI完成率: " + performance.getKpiCompletion() + 
-                            ", 加班时长: " + performance.getOvertimeHours() + ")");
-                    }
-                }
+            if (trainedRecords >= RatingModelTrainer.MIN_TRAINING_RECORDS) {
+                // 3. 为所有没有评分的绩效记录批量预测评分
+                int predicted = knnModelService.predictMissingRatings(performances);
+                logger.info("预测了 {} 条绩效评分", predicted);
             } else if (!sampleData.isEmpty()) {
                 // 使用样本数据训练
-                System.out.println("使用样本数据训练KNN模型");
+                logger.info("使用样本数据训练KNN模型");
                 knnModelService.trainModel(sampleData);
                 
                 // 预测评分
-                for (EmployeePerformance performance : performances) {
-                    if (performance.getPerformanceRating() == null) {
-                        Integer predictedRating = knnModelService.predictPerformanceRating(
-                            performance.getAttendanceRate(),
-                            performance.getKpiCompletion(),
-                            performance.getOvertimeHours()
-                        );
-                        
-                        performance.setPerformanceRating(predictedRating);
-                        System.out.println("员工: " + performance.getEmployeeID() + 
-                            ", 预测绩效评分(样本): " + predictedRating + 
-                            " (出勤率: " + performance.getAttendanceRate() + 
-                            ", KPI完成率: " + performance.getKpiCompletion() + 
-                            ", 加班时长: " + performance.getOvertimeHours() + ")");
-                    }
-                }
+                int predicted = knnModelService.predictMissingRatings(performances);
+                logger.info("预测了 {} 条绩效评分(样本模型)", predicted);
             } else {
-                System.out.println("训练数据不足，无法训练KNN模型。需要至少10条记录。");
+                logger.warn("训练数据不足，无法训练KNN模型。需要至少10条记录。");
                 // 使用简单规则设置默认评分
                 setDefaultRatings(performances);
             }
         } catch (Exception e) {
-            System.err.println("KNN模型计算异常: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("KNN模型计算异常: {}", e.getMessage(), e);
             // 发生异常时使用简单规则设置默认评分
             setDefaultRatings(performances);
         }
@@ -358,7 +639,7 @@ public class ExcelImportService {
      * 当无法使用KNN模型时，使用简单规则设置默认评分
      */
     private void setDefaultRatings(List<EmployeePerformance> performances) {
-        System.out.println("使用简单规则设置默认评分");
+        logger.info("使用简单规则设置默认评分");
         
         for (EmployeePerformance performance : performances) {
             if (performance.getPerformanceRating() == null) {
@@ -377,10 +658,9 @@ public class ExcelImportService {
                 }
                 
                 performance.setPerformanceRating(rating);
-                System.out.println("员工: " + performance.getEmployeeID() + 
-                    ", 默认绩效评分: " + rating + 
-                    " (加权分数: " + score + ", 出勤率: " + performance.getAttendanceRate() + 
-                    ", KPI完成率: " + performance.getKpiCompletion() + ")");
+                logger.debug("员工: {}, 默认绩效评分: {} (加权分数: {}, 出勤率: {}, KPI完成率: {})",
+                    performance.getEmployeeID(), rating, score,
+                    performance.getAttendanceRate(), performance.getKpiCompletion());
             }
         }
     }
@@ -455,12 +735,27 @@ public class ExcelImportService {
         sample8.setPerformanceRating(1);
         samples.add(sample8);
         
-        System.out.println("创建了 " + samples.size() + " 条样本训练数据");
+        logger.info("创建了 {} 条样本训练数据", samples.size());
         return samples;
     }
 
+    // 工具方法：按列号取单元格值，超出范围时返回null
+    private static String cell(String[] cells, int index) {
+        return index < cells.length ? cells[index] : null;
+    }
+
+    // 工具方法：将工作簿中的一行转换为与流式读取一致的单元格值
+    private static String[] getRowValues(Row row) {
+        int lastCell = Math.max(row.getLastCellNum(), 0);
+        String[] cells = new String[lastCell];
+        for (int i = 0; i < lastCell; i++) {
+            cells[i] = getCellValueAsString(row.getCell(i));
+        }
+        return cells;
+    }
+
     // 工具方法：获取单元格字符串值
-    private String getCellValueAsString(Cell cell) {
+    private static String getCellValueAsString(Cell cell) {
         if (cell == null) return null;
         
         switch (cell.getCellType()) {
@@ -468,98 +763,38 @@ public class ExcelImportService {
                 return cell.getStringCellValue().trim();
             case NUMERIC:
                 if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toInstant()
-                        .atZone(java.time.ZoneId.systemDefault())
+                    return cell.getLocalDateTimeCellValue()
                         .toLocalDate()
                         .format(DateTimeFormatter.ISO_LOCAL_DATE);
                 }
-                return String.valueOf((long) cell.getNumericCellValue());
+                return NumberToTextConverter.toText(cell.getNumericCellValue());
             default:
                 return null;
         }
     }
 
-    // 工具方法：获取单元格整数值
-    private Integer getCellValueAsInteger(Cell cell) {
-        if (cell == null) return null;
-        
-        switch (cell.getCellType()) {
-            case NUMERIC:
-                return (int) cell.getNumericCellValue();
-            case STRING:
-                try {
-                    return Integer.parseInt(cell.getStringCellValue().trim());
-                } catch (NumberFormatException e) {
-                    return null;
-                }
-            default:
-                return null;
-        }
-    }
-
-    // 工具方法：获取单元格浮点值
-    private Double getCellValueAsDouble(Cell cell) {
-        if (cell == null) return null;
-        
-        switch (cell.getCellType()) {
-            case NUMERIC:
-                return cell.getNumericCellValue();
-            case STRING:
-                try {
-                    return Double.parseDouble(cell.getStringCellValue().trim());
-                } catch (NumberFormatException e) {
-                    return null;
-                }
-            default:
-                return null;
-        }
+    // 工具方法：按扩展名判断是否为CSV文件
+    private static boolean isCsv(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".csv");
     }
 
     /**
-     * 从Excel文件名或内容中提取年月信息
-     * 
-     * @param file Excel文件
-     * @return 提取的YearMonth对象
-     * @throws IOException 如果文件读取失败
+     * 从像 "EmployeePerformance_202406.xlsx" 或 "EmployeePerformance_202406.csv" 这样的文件名中提取年月
+     *
+     * @param filename 文件名
+     * @return 提取的YearMonth对象，文件名不符合格式时返回null
      */
-    public YearMonth extractYearMonthFromExcel(MultipartFile file) throws IOException {
-        // 尝试从文件名中提取年月
-        String filename = file.getOriginalFilename();
-        if (filename != null && filename.matches(".*_\\d{6}\\.xlsx?$")) {
-            // 从像 "EmployeePerformance_202406.xlsx" 这样的文件名中提取
+    private static YearMonth yearMonthFromFilename(String filename) {
+        if (filename != null && filename.matches("(?i).*_\\d{6}\\.(xlsx?|csv)$")) {
             String yearMonthStr = filename.replaceAll(".*_(\\d{6})\\..+", "$1");
             try {
                 int year = Integer.parseInt(yearMonthStr.substring(0, 4));
                 int month = Integer.parseInt(yearMonthStr.substring(4, 6));
                 return YearMonth.of(year, month);
             } catch (Exception e) {
-                // 如果从文件名解析失败，继续从内容提取
-            }
-        }
-        
-        // 从文件内容中提取年月
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-        
-        // 跳过表头，读取第一个数据行
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) continue;
-            
-            Cell dateCell = row.getCell(0);
-            if (dateCell != null) {
-                String dateStr = getCellValueAsString(dateCell);
-                if (dateStr != null && !dateStr.isEmpty()) {
-                    try {
-                        LocalDate date = LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE);
-                        return YearMonth.from(date);
-                    } catch (Exception e) {
-                        // 继续尝试下一行
-                    }
-                }
+                // 如果从文件名解析失败，由文件内容确定
             }
         }
-        
-        throw new IllegalArgumentException("无法从文件中提取年月信息");
+        return null;
     }
-} 
\ No newline at end of file
+}
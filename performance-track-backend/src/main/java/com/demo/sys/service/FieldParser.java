@@ -0,0 +1,176 @@
+package com.demo.sys.service;
+
+import java.time.LocalDate;
+
+/**
+ * 每日绩效字段的字符级解析，DailyRowDecoder(单元格文本)和CsvFastReader(映射文件的字节)共用
+ * 输入是CharSequence中[start, end)的一段，逐字符校验语法，不通过异常判断格式错误；无法解析时返回null。
+ * 调用方保证区间非空。
+ */
+final class FieldParser {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private FieldParser() {
+    }
+
+    /**
+     * 解析yyyy-MM-dd格式的日期，格式或取值错误时返回null
+     */
+    static LocalDate parseDate(CharSequence text, int start, int end) {
+        if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            return null;
+        }
+        int year = digits(text, start, start + 4);
+        int month = digits(text, start + 5, start + 7);
+        int day = digits(text, start + 8, start + 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int monthLength = month == 2 ? (leap ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31);
+        return day <= monthLength ? LocalDate.of(year, month, day) : null;
+    }
+
+    /**
+     * 出勤状态，Y/N不区分大小写，统一为大写
+     */
+    static String parseAttendance(CharSequence text, int start, int end) {
+        if (end - start == 1) {
+            char c = text.charAt(start);
+            if (c == 'Y' || c == 'y') {
+                return "Y";
+            }
+            if (c == 'N' || c == 'n') {
+                return "N";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析整数，小数部分按截断处理(Excel中的数值可能带".0")，无法解析时返回null
+     */
+    static Integer parseInteger(CharSequence text, int start, int end) {
+        int pos = start;
+        boolean negative = text.charAt(pos) == '-';
+        if (negative || text.charAt(pos) == '+') {
+            pos++;
+        }
+
+        long value = 0;
+        int digitStart = pos;
+        while (pos < end) {
+            int d = text.charAt(pos) - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            value = value * 10 + d;
+            if (value > Integer.MAX_VALUE) {
+                return null;
+            }
+            pos++;
+        }
+        if (pos == digitStart) {
+            return null;
+        }
+        if (pos < end) {
+            // 只允许小数部分，如 "3.0"
+            if (text.charAt(pos) != '.') {
+                return null;
+            }
+            for (pos++; pos < end; pos++) {
+                int d = text.charAt(pos) - '0';
+                if (d < 0 || d > 9) {
+                    return null;
+                }
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * 解析小数，无法解析时返回null
+     * 先按语法逐字符校验；有效数字不超过15位且没有指数时直接由整数尾数和10的幂计算，结果与Double.parseDouble一致，
+     * 其余情况交给Double.parseDouble(已校验，不会抛出异常)
+     */
+    static Double parseDecimal(CharSequence text, int start, int end) {
+        int pos = start;
+        boolean negative = text.charAt(pos) == '-';
+        if (negative || text.charAt(pos) == '+') {
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digitCount = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        boolean slow = false;
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) {
+                    scale++;
+                }
+                if ((mantissa != 0 && ++digitCount > 15) || scale >= POWERS_OF_TEN.length) {
+                    slow = true;
+                    mantissa = 0;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if ((c == 'e' || c == 'E') && anyDigit) {
+                return isExponent(text, pos + 1, end) ? slowParse(text, start, end) : null;
+            } else {
+                return null;
+            }
+        }
+        if (!anyDigit) {
+            return null;
+        }
+        if (slow) {
+            return slowParse(text, start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static Double slowParse(CharSequence text, int start, int end) {
+        return Double.parseDouble(text.subSequence(start, end).toString());
+    }
+
+    // 指数部分：可选符号后至少一位数字
+    private static boolean isExponent(CharSequence text, int pos, int end) {
+        if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+            pos++;
+        }
+        if (pos == end) {
+            return false;
+        }
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 解析固定位数的非负整数，包含非数字字符时返回-1
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int d = text.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,220 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.dto.ImportJobStatusDTO;
+import com.demo.sys.entity.EmployeePerformance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 后台导入任务
+ * 上传文件先写入临时文件，由专用线程池解析、评分并保存，
+ * 处理阶段和已解析行数推送到 /topic/import-jobs/{jobId}，也可通过状态接口轮询
+ */
+@Service
+public class ImportJobService {
+
+    public static final String TOPIC_PREFIX = "/topic/import-jobs/";
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    @Autowired
+    private ExcelImportService excelImportService;
+
+    @Autowired
+    private EmployeePerformanceService employeePerformanceService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ImportConfig importConfig;
+
+    @Autowired
+    @Qualifier("importJobExecutor")
+    private ThreadPoolTaskExecutor importJobExecutor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 提交导入任务，立即返回任务状态
+     *
+     * @throws TaskRejectedException 排队的任务已满
+     */
+    public ImportJobStatusDTO submit(MultipartFile file) throws IOException {
+        removeExpiredJobs();
+
+        // 请求结束后上传的临时文件会被清理，先复制一份供后台任务读取
+        Path tempFile = Files.createTempFile("import-job-", ".tmp");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.jobId, job);
+        try {
+            importJobExecutor.execute(() -> run(job, tempFile));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.jobId);
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    /**
+     * 查询任务状态，任务不存在或已过期时返回null
+     */
+    public ImportJobStatusDTO getStatus(String jobId) {
+        removeExpiredJobs();
+        ImportJob job = jobs.get(jobId);
+        return job != null ? job.snapshot() : null;
+    }
+
+    private void run(ImportJob job, Path tempFile) {
+        job.start();
+        publish(job);
+        Consumer<YearMonth> monthCheck = yearMonth -> {
+            job.yearMonth(yearMonth);
+            employeePerformanceService.requireNoDataForYearMonth(yearMonth);
+        };
+        ImportProgressListener listener = new ImportProgressListener() {
+            @Override
+            public void onStage(String stage) {
+                job.stage(stage);
+                publish(job);
+            }
+
+            @Override
+            public void onRows(int parsedRows) {
+                job.parsedRows(parsedRows);
+                publish(job);
+            }
+        };
+        try (InputStream in = Files.newInputStream(tempFile)) {
+            // 大文件按块解析和保存，内存占用与文件大小无关
+            List<EmployeePerformance> saved = Files.size(tempFile) >= importConfig.getPipelineThresholdBytes()
+                ? excelImportService.importExcelPipelined(in, job.fileName, monthCheck, listener)
+                : excelImportService.importExcel(in, job.fileName, monthCheck, listener);
+            job.finish(ImportJobStatusDTO.STATUS_COMPLETED, saved.size(),
+                "文件上传成功，共导入" + saved.size() + "条绩效记录");
+        } catch (MonthAlreadyImportedException e) {
+            job.finish(ImportJobStatusDTO.STATUS_CONFLICT, 0, e.getMessage());
+        } catch (Exception e) {
+            logger.error("导入任务 {} 失败: {}", job.jobId, e.getMessage());
+            job.finish(ImportJobStatusDTO.STATUS_FAILED, 0, "文件处理失败: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                tempFile.toFile().deleteOnExit();
+            }
+            publish(job);
+        }
+    }
+
+    private void publish(ImportJob job) {
+        try {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + job.jobId, job.snapshot());
+        } catch (Exception e) {
+            // 推送失败不影响导入，客户端仍可轮询状态
+            logger.warn("推送导入任务 {} 进度失败: {}", job.jobId, e.getMessage());
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(importConfig.getJobRetentionMinutes());
+        jobs.values().removeIf(job -> job.isFinishedBefore(expiry));
+    }
+
+    /**
+     * 任务状态，由导入线程更新，由请求线程读取快照
+     */
+    private static class ImportJob {
+        private final String jobId;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private LocalDateTime updatedAt = createdAt;
+        private String status = ImportJobStatusDTO.STATUS_QUEUED;
+        private String stage;
+        private int parsedRows;
+        private int recordCount;
+        private YearMonth yearMonth;
+        private String message;
+
+        ImportJob(String jobId, String fileName) {
+            this.jobId = jobId;
+            this.fileName = fileName;
+        }
+
+        synchronized void start() {
+            status = ImportJobStatusDTO.STATUS_RUNNING;
+            updatedAt = LocalDateTime.now();
+        }
+
+        synchronized void stage(String stage) {
+            this.stage = stage;
+            updatedAt = LocalDateTime.now();
+        }
+
+        synchronized void parsedRows(int parsedRows) {
+            this.parsedRows = parsedRows;
+            updatedAt = LocalDateTime.now();
+        }
+
+        synchronized void yearMonth(YearMonth yearMonth) {
+            this.yearMonth = yearMonth;
+        }
+
+        synchronized void finish(String status, int recordCount, String message) {
+            this.status = status;
+            this.recordCount = recordCount;
+            this.message = message;
+            updatedAt = LocalDateTime.now();
+        }
+
+        synchronized boolean isFinishedBefore(LocalDateTime time) {
+            boolean finished = !ImportJobStatusDTO.STATUS_QUEUED.equals(status)
+                && !ImportJobStatusDTO.STATUS_RUNNING.equals(status);
+            return finished && updatedAt.isBefore(time);
+        }
+
+        synchronized ImportJobStatusDTO snapshot() {
+            ImportJobStatusDTO dto = new ImportJobStatusDTO();
+            dto.setJobId(jobId);
+            dto.setFileName(fileName);
+            dto.setStatus(status);
+            dto.setStage(stage);
+            dto.setParsedRows(parsedRows);
+            dto.setRecordCount(recordCount);
+            dto.setYearMonth(yearMonth);
+            dto.setMessage(message);
+            dto.setCreatedAt(createdAt);
+            dto.setUpdatedAt(updatedAt);
+            return dto;
+        }
+    }
+}
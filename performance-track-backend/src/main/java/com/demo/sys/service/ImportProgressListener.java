@@ -0,0 +1,35 @@
+package com.demo.sys.service;
+
+/**
+ * 导入进度回调
+ */
+public interface ImportProgressListener {
+
+    String STAGE_PARSING = "PARSING";
+    String STAGE_AGGREGATING = "AGGREGATING";
+    String STAGE_RATING = "RATING";
+    String STAGE_SAVING = "SAVING";
+
+    /**
+     * 不关心进度时使用
+     */
+    ImportProgressListener NONE = new ImportProgressListener() {
+        @Override
+        public void onStage(String stage) {
+        }
+
+        @Override
+        public void onRows(int parsedRows) {
+        }
+    };
+
+    /**
+     * 进入新的处理阶段
+     */
+    void onStage(String stage);
+
+    /**
+     * 已解析的数据行数，解析过程中周期性调用
+     */
+    void onRows(int parsedRows);
+}
@@ -0,0 +1,284 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.dto.PerformanceImportResultDTO;
+import com.demo.sys.entity.DailyPerformance;
+import com.demo.sys.entity.EmployeePerformance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 导入结果缓存，按上传内容(文件名和文件字节)的SHA-256索引
+ * 同一个文件反复预览、预览后再上传时直接返回已解析并评分的结果：
+ * - 相同内容的并发请求只计算一次，其余请求等待同一个结果
+ * - 条目数、缓存的每日记录总数和存活时间都有上限，超出时淘汰最久未使用的结果
+ * - 绩效数据保存后清空缓存，因为评分依赖已有数据训练的模型
+ * 命中时仍会对结果所属的年月执行monthCheck
+ * 缓存的结果只作为模板，每次返回新的DTO和实体副本：保存时写入的id等修改不会影响其他请求和缓存本身
+ */
+@Component
+public class ImportResultCache {
+
+    @Autowired
+    private ImportConfig importConfig;
+
+    // 按访问顺序排列，最久未使用的在最前
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 每次清空缓存时递增，清空前开始的计算结果不再写入缓存
+    private long generation;
+
+    /**
+     * 计算导入结果，可能抛出IOException
+     */
+    public interface Loader {
+        PerformanceImportResultDTO load() throws IOException;
+    }
+
+    /**
+     * 获取文件的导入结果，缓存中没有时调用loader计算；返回的结果属于调用方，可以修改
+     */
+    public PerformanceImportResultDTO get(MultipartFile file, Consumer<YearMonth> monthCheck, Loader loader) throws IOException {
+        if (importConfig.getResultCacheMaxEntries() <= 0) {
+            return loader.load();
+        }
+
+        String key = digest(file);
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(generation, System.nanoTime()
+                    + TimeUnit.MINUTES.toNanos(importConfig.getResultCacheTtlMinutes()));
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            return load(key, entry, loader);
+        }
+
+        PerformanceImportResultDTO result = await(entry);
+        if (result.getYearMonth() != null) {
+            monthCheck.accept(result.getYearMonth());
+        }
+        return copyOf(result);
+    }
+
+    /**
+     * 清空缓存，在事务中调用时等到提交后再清空
+     */
+    public void invalidateAll() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private PerformanceImportResultDTO load(String key, Entry entry, Loader loader) throws IOException {
+        PerformanceImportResultDTO result;
+        try {
+            result = loader.load();
+        } catch (IOException | RuntimeException | Error e) {
+            // 失败的结果不缓存，等待中的请求收到同样的异常
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            entry.rows = result.getDailyPerformances() != null ? result.getDailyPerformances().size() : 0;
+            if (entry.generation != generation || entry.rows > importConfig.getResultCacheMaxRows()) {
+                entries.remove(key, entry);
+            }
+            evict();
+        }
+        entry.future.complete(result);
+        return copyOf(result);
+    }
+
+    private static PerformanceImportResultDTO await(Entry entry) throws IOException {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    // 淘汰过期条目，再按最久未使用的顺序淘汰已完成的条目直到满足上限
+    private void evict() {
+        long now = System.nanoTime();
+        long rows = 0;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry.isExpired(now)) {
+                it.remove();
+            } else {
+                rows += entry.rows;
+            }
+        }
+
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            if (entries.size() <= importConfig.getResultCacheMaxEntries() && rows <= importConfig.getResultCacheMaxRows()) {
+                break;
+            }
+            Entry entry = it.next().getValue();
+            if (entry.future.isDone()) {
+                rows -= entry.rows;
+                it.remove();
+            }
+        }
+    }
+
+    // 复制结果和其中的实体，拒绝行信息不会被修改，只复制列表
+    private static PerformanceImportResultDTO copyOf(PerformanceImportResultDTO result) {
+        List<DailyPerformance> dailyRecords = null;
+        if (result.getDailyPerformances() != null) {
+            dailyRecords = new ArrayList<>(result.getDailyPerformances().size());
+            for (DailyPerformance record : result.getDailyPerformances()) {
+                dailyRecords.add(copyOf(record));
+            }
+        }
+        List<EmployeePerformance> monthlyPerformances = null;
+        if (result.getMonthlyPerformances() != null) {
+            monthlyPerformances = new ArrayList<>(result.getMonthlyPerformances().size());
+            for (EmployeePerformance performance : result.getMonthlyPerformances()) {
+                monthlyPerformances.add(copyOf(performance));
+            }
+        }
+
+        PerformanceImportResultDTO copy = new PerformanceImportResultDTO(
+            dailyRecords, monthlyPerformances, result.getFileName());
+        copy.setYearMonth(result.getYearMonth());
+        copy.setRecordCount(result.getRecordCount());
+        copy.setRejectedRowCount(result.getRejectedRowCount());
+        if (result.getRejectedRows() != null) {
+            copy.setRejectedRows(new ArrayList<>(result.getRejectedRows()));
+        }
+        return copy;
+    }
+
+    private static DailyPerformance copyOf(DailyPerformance record) {
+        DailyPerformance copy = new DailyPerformance();
+        copy.setId(record.getId());
+        copy.setEmployeeId(record.getEmployeeId());
+        copy.setEmployeeName(record.getEmployeeName());
+        copy.setDepartment(record.getDepartment());
+        copy.setRecordDate(record.getRecordDate());
+        copy.setAttendance(record.getAttendance());
+        copy.setLateEarlyMinutes(record.getLateEarlyMinutes());
+        copy.setCompletedTasks(record.getCompletedTasks());
+        copy.setTotalTasks(record.getTotalTasks());
+        copy.setOvertimeHours(record.getOvertimeHours());
+        return copy;
+    }
+
+    private static EmployeePerformance copyOf(EmployeePerformance performance) {
+        EmployeePerformance copy = new EmployeePerformance();
+        copy.setId(performance.getId());
+        copy.setEmployeeID(performance.getEmployeeID());
+        copy.setEmployeeName(performance.getEmployeeName());
+        copy.setDepartment(performance.getDepartment());
+        copy.setAttendanceRate(performance.getAttendanceRate());
+        copy.setKpiCompletion(performance.getKpiCompletion());
+        copy.setOvertimeHours(performance.getOvertimeHours());
+        copy.setPerformanceRating(performance.getPerformanceRating());
+        copy.setRecordDate(performance.getRecordDate());
+        return copy;
+    }
+
+    private static String digest(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // 年月和解析方式取决于文件名，文件名也计入摘要
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        digest.update(fileName.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = file.getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 缓存条目，计算完成前future未完成
+     */
+    private static class Entry {
+        private final CompletableFuture<PerformanceImportResultDTO> future = new CompletableFuture<>();
+        private final long generation;
+        private final long expiresAt;
+        private int rows;
+
+        Entry(long generation, long expiresAt) {
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return future.isDone() && now - expiresAt > 0;
+        }
+    }
+}
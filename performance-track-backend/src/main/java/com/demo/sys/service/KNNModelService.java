@@ -1,47 +1,84 @@
 package com.demo.sys.service;
 
+import com.demo.sys.config.KNNConfig;
+import com.demo.sys.config.KNNSearchConfig;
 import com.demo.sys.entity.DailyPerformance;
 import com.demo.sys.entity.EmployeePerformance;
-import com.demo.sys.model.KNNConfig;
 import com.demo.sys.model.PerformanceTrainingData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import weka.classifiers.AbstractClassifier;
 import weka.classifiers.Classifier;
+import weka.classifiers.UpdateableClassifier;
 import weka.classifiers.lazy.IBk;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.EuclideanDistance;
 import weka.core.Instance;
 import weka.core.Instances;
+import weka.core.neighboursearch.BallTree;
+import weka.core.neighboursearch.KDTree;
 import weka.core.neighboursearch.LinearNNSearch;
+import weka.core.neighboursearch.NearestNeighbourSearch;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class KNNModelService {
     
-    private Classifier knnClassifier;
+    private static final Logger logger = LoggerFactory.getLogger(KNNModelService.class);
+    
+    // 两种引擎的模型都在建立完成后才通过volatile字段发布，预测时不读取训练过程中的状态
+    // 使用Weka引擎时的模型
+    private volatile WekaModel wekaModel;
+    // 使用本地引擎时的模型，与wekaModel只有一个不为空
+    private volatile KnnEngine knnEngine;
     private Instances trainingInstances;
     private ArrayList<Attribute> attributes;
-    private KNNConfig knnConfig;
     
-    public KNNModelService() {
-        // 默认KNN配置
-        knnConfig = new KNNConfig();
-        knnConfig.setK(3);
-        knnConfig.setAttendanceWeight(0.4);
-        knnConfig.setKpiWeight(0.5);
-        knnConfig.setOvertimeWeight(0.1);
-    }
+    // 由每日历史训练时各月份包含的每日记录数；为空表示模型由样本数据训练或尚未训练
+    private final Map<YearMonth, Long> trainedDailyRows = new HashMap<>();
+    // 训练时月份目录中各月份的最后导入时间，覆盖导入后记录数不变时据此发现月份已改写
+    private final Map<YearMonth, LocalDateTime> trainedImportTimes = new HashMap<>();
+    // 每次完整训练生成新的编号，增量快照只能追加到同一次训练的快照之后
+    private long buildId;
+    // 上次完整训练的实例数和特征取值范围({出勤率, KPI完成率, 加班时长})，以及之后增量追加的实例数
+    private int fullBuildSamples;
+    private int appendedSamples;
+    private double[] fullBuildMin;
+    private double[] fullBuildMax;
+    private double[] currentMin;
+    private double[] currentMax;
+    
+    @Autowired
+    private KNNSearchConfig knnSearchConfig;
+    
+    // K值和特征权重(knn.k, knn.*-weight)，两种引擎都使用
+    @Autowired
+    private KNNConfig knnConfig;
     
     /**
      * 添加多个训练数据
      */
-    public void addAllTrainingData(List<PerformanceTrainingData> trainingDataList) {
+    public synchronized void addAllTrainingData(List<PerformanceTrainingData> trainingDataList) {
+        trainedDailyRows.clear();
+        trainedImportTimes.clear();
         try {
-            System.out.println("开始添加训练数据...");
+            logger.info("开始添加训练数据...");
             
             // 初始化属性
             initializeAttributes();
@@ -63,13 +100,12 @@ public class KNNModelService {
                 trainingInstances.add(instance);
             }
             
-            System.out.println("添加了 " + trainingDataList.size() + " 条训练数据，总计 " + trainingInstances.size() + " 条");
+            logger.info("添加了 {} 条训练数据，总计 {} 条", trainingDataList.size(), trainingInstances.size());
             
             // 训练模型
             buildAndTrainModel();
         } catch (Exception e) {
-            System.err.println("添加训练数据失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("添加训练数据失败: {}", e.getMessage(), e);
             throw new RuntimeException("添加训练数据失败", e);
         }
     }
@@ -84,9 +120,11 @@ public class KNNModelService {
     /**
      * 使用员工绩效数据训练KNN模型
      */
-    public void trainModel(List<EmployeePerformance> trainingData) {
+    public synchronized void trainModel(List<EmployeePerformance> trainingData) {
+        trainedDailyRows.clear();
+        trainedImportTimes.clear();
         try {
-            System.out.println("开始训练KNN模型(使用月度数据)...");
+            logger.info("开始训练KNN模型(使用月度数据)...");
             
             // 初始化属性
             initializeAttributes();
@@ -110,8 +148,7 @@ public class KNNModelService {
             
             buildAndTrainModel();
         } catch (Exception e) {
-            System.err.println("KNN模型训练失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("KNN模型训练失败: {}", e.getMessage(), e);
             throw new RuntimeException("KNN模型训练失败", e);
         }
     }
@@ -120,8 +157,24 @@ public class KNNModelService {
      * 使用每日绩效数据训练KNN模型
      */
     public void trainModelWithDailyData(List<DailyPerformance> dailyData) {
+        // 按员工和月份汇总，每个员工的每个月生成一个训练样本
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        for (DailyPerformance record : dailyData) {
+            aggregator.add(record);
+        }
+        trainModelWithMonthlyAggregates(aggregator, Collections.emptyMap());
+    }
+
+    /**
+     * 使用已按(员工, 月份)汇总的每日数据训练KNN模型
+     * importTimes是汇总前从月份目录读取的各月份最后导入时间，与每日记录数一起作为训练数据水位
+     */
+    public synchronized void trainModelWithMonthlyAggregates(MonthlyAggregator aggregator,
+                                                             Map<YearMonth, LocalDateTime> importTimes) {
+        trainedDailyRows.clear();
+        trainedImportTimes.clear();
         try {
-            System.out.println("开始训练KNN模型(使用每日数据)...");
+            logger.info("开始训练KNN模型(使用每日数据)...");
             
             // 初始化属性
             initializeAttributes();
@@ -130,69 +183,286 @@ public class KNNModelService {
             trainingInstances = new Instances("PerformanceTraining", attributes, 0);
             trainingInstances.setClassIndex(attributes.size() - 1);
             
-            // 按员工和日期分组处理数据
-            Map<String, Map<String, List<DailyPerformance>>> groupedData = dailyData.stream()
-                .collect(Collectors.groupingBy(
-                    DailyPerformance::getEmployeeId,
-                    Collectors.groupingBy(dp -> dp.getRecordDate().toString().substring(0, 7)) // 按年月分组
-                ));
+            addAggregates(aggregator, Collections.emptySet());
             
-            // 每个分组计算特征并添加到训练集
-            for (Map.Entry<String, Map<String, List<DailyPerformance>>> employeeEntry : groupedData.entrySet()) {
-                // 每个员工的每个月生成一个训练样本
-                for (Map.Entry<String, List<DailyPerformance>> monthEntry : employeeEntry.getValue().entrySet()) {
-                    List<DailyPerformance> records = monthEntry.getValue();
-                    
-                    if (records.isEmpty()) continue;
-                    
-                    // 计算该员工该月的各项指标
-                    double attendanceRate = calculateAttendanceRate(records);
-                    double kpiCompletion = calculateKpiCompletion(records);
-                    double overtimeHours = calculateOvertimeHours(records);
-                    
-                    // 从历史数据中获取评分（如果有）
-                    Integer performanceRating = determinePerformanceRating(records);
-                    
-                    // 只有有绩效评分的数据才加入训练集
-                    if (performanceRating != null) {
-                        Instance instance = createInstance(
-                            attendanceRate,
-                            kpiCompletion,
-                            overtimeHours,
-                            performanceRating
-                        );
-                        trainingInstances.add(instance);
-                        
-                        System.out.println("添加训练数据: 员工=" + employeeEntry.getKey() + 
-                            ", 月份=" + monthEntry.getKey() + 
-                            ", 出勤率=" + attendanceRate + 
-                            ", KPI完成率=" + kpiCompletion + 
-                            ", 加班时长=" + overtimeHours + 
-                            ", 绩效评分=" + performanceRating);
-                    }
-                }
-            }
-            
-            System.out.println("从每日数据生成了 " + trainingInstances.size() + " 条训练实例");
+            logger.info("从每日数据生成了 {} 条训练实例", trainingInstances.size());
             
             buildAndTrainModel();
         } catch (Exception e) {
-            System.err.println("使用每日数据训练KNN模型失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("使用每日数据训练KNN模型失败: {}", e.getMessage(), e);
             throw new RuntimeException("KNN模型训练失败", e);
         }
+        
+        fullBuildSamples = trainingInstances.size();
+        appendedSamples = 0;
+        currentMin = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        currentMax = new double[]{Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < trainingInstances.size(); i++) {
+            includeInRanges(trainingInstances.get(i));
+        }
+        fullBuildMin = currentMin.clone();
+        fullBuildMax = currentMax.clone();
+        buildId = ThreadLocalRandom.current().nextLong();
+        recordTrainedMonths(aggregator, Collections.emptySet(), importTimes);
+    }
+    
+    /**
+     * 把新月份的汇总数据增量加入由每日历史训练的模型，耗时只与新数据量有关
+     * 本地引擎追加实例并更新取值范围；Weka的IBk实现了UpdateableClassifier，逐个更新分类器和搜索结构。
+     * 模型中已有的月份会被跳过(例如期间完成了一次完整训练)；失败时模型标记为需要完整训练
+     */
+    public synchronized void appendMonthlyAggregates(MonthlyAggregator aggregator,
+                                                     Map<YearMonth, LocalDateTime> importTimes) {
+        if (trainedDailyRows.isEmpty()) {
+            throw new IllegalStateException("模型不是由每日历史训练的，不能增量追加");
+        }
+        try {
+            int from = trainingInstances.size();
+            Set<YearMonth> trainedMonths = new HashSet<>(trainedDailyRows.keySet());
+            addAggregates(aggregator, trainedMonths);
+            int count = trainingInstances.size() - from;
+            
+            double[] attendanceRates = new double[count];
+            double[] kpiCompletions = new double[count];
+            double[] overtimeHours = new double[count];
+            int[] ratings = new int[count];
+            for (int i = 0; i < count; i++) {
+                Instance instance = trainingInstances.get(from + i);
+                attendanceRates[i] = instance.value(0);
+                kpiCompletions[i] = instance.value(1);
+                overtimeHours[i] = instance.value(2);
+                ratings[i] = Integer.parseInt(instance.stringValue(3));
+                includeInRanges(instance);
+            }
+            WekaModel weka = wekaModel;
+            if (weka != null) {
+                weka.update(attendanceRates, kpiCompletions, overtimeHours, ratings, count);
+            }
+            if (knnEngine != null && count > 0) {
+                knnEngine = knnEngine.append(attendanceRates, kpiCompletions, overtimeHours, ratings, count);
+            }
+            
+            appendedSamples += count;
+            recordTrainedMonths(aggregator, trainedMonths, importTimes);
+            logger.info("KNN模型增量追加 {} 条训练实例，总计 {} 条", count, trainingInstances.size());
+        } catch (Exception e) {
+            trainedDailyRows.clear();
+            trainedImportTimes.clear();
+            throw new RuntimeException("KNN模型增量训练失败", e);
+        }
+    }
+    
+    /**
+     * 模型是否由每日历史训练，只有这样的模型可以增量追加
+     */
+    public synchronized boolean isTrainedFromHistory() {
+        return !trainedDailyRows.isEmpty();
+    }
+    
+    /**
+     * 模型包含的各月份每日记录数
+     */
+    public synchronized Map<YearMonth, Long> getTrainedDailyRows() {
+        return new HashMap<>(trainedDailyRows);
+    }
+    
+    /**
+     * 模型包含的各月份训练时的最后导入时间
+     */
+    public synchronized Map<YearMonth, LocalDateTime> getTrainedImportTimes() {
+        return new HashMap<>(trainedImportTimes);
+    }
+    
+    /**
+     * 上次完整训练后追加的实例数与完整训练时实例数之比
+     */
+    public synchronized double appendedRatio() {
+        return fullBuildSamples > 0 ? (double) appendedSamples / fullBuildSamples : 0;
+    }
+    
+    /**
+     * 各特征取值范围相对上次完整训练时变宽的最大比例
+     */
+    public synchronized double rangeDrift() {
+        if (fullBuildMin == null) {
+            return 0;
+        }
+        double drift = 0;
+        for (int f = 0; f < fullBuildMin.length; f++) {
+            double builtWidth = fullBuildMax[f] - fullBuildMin[f];
+            double width = currentMax[f] - currentMin[f];
+            if (width > builtWidth) {
+                drift = Math.max(drift, builtWidth > 0 ? (width - builtWidth) / builtWidth : Double.POSITIVE_INFINITY);
+            }
+        }
+        return drift;
+    }
+    
+    /**
+     * 当前模型的完整快照：训练实例、特征取值范围和训练数据水位(各月份的每日记录数和最后导入时间)
+     * 只有由每日历史训练的模型才有意义，否则返回null
+     */
+    public synchronized ModelSnapshot snapshot() {
+        return snapshotSince(buildId, 0);
+    }
+    
+    /**
+     * 已写入的快照属于同一次完整训练(writtenBuildId)且包含前writtenSamples条实例时，
+     * 只返回之后增量追加的实例；否则返回完整快照。没有需要写入的内容或模型不是由每日历史训练时返回null
+     */
+    public synchronized ModelSnapshot snapshotSince(long writtenBuildId, int writtenSamples) {
+        if (trainedDailyRows.isEmpty()) {
+            return null;
+        }
+        int total = trainingInstances.size();
+        int from = 0;
+        if (writtenBuildId == buildId && writtenSamples > 0 && writtenSamples <= total) {
+            if (writtenSamples == total) {
+                return null;
+            }
+            from = writtenSamples;
+        }
+        int count = total - from;
+        double[] attendanceRates = new double[count];
+        double[] kpiCompletions = new double[count];
+        double[] overtimeHours = new double[count];
+        int[] ratings = new int[count];
+        for (int i = 0; i < count; i++) {
+            Instance instance = trainingInstances.get(from + i);
+            attendanceRates[i] = instance.value(0);
+            kpiCompletions[i] = instance.value(1);
+            overtimeHours[i] = instance.value(2);
+            ratings[i] = Integer.parseInt(instance.stringValue(3));
+        }
+        return new ModelSnapshot(buildId, from, new HashMap<>(trainedDailyRows), new HashMap<>(trainedImportTimes),
+            attendanceRates, kpiCompletions, overtimeHours, ratings, fullBuildSamples, appendedSamples,
+            fullBuildMin.clone(), fullBuildMax.clone(), currentMin.clone(), currentMax.clone());
+    }
+    
+    /**
+     * 从快照恢复模型，按当前配置的引擎、K值和权重重新建立搜索结构，不需要读取每日历史
+     */
+    public synchronized void restore(ModelSnapshot snapshot) {
+        if (snapshot.offset != 0) {
+            throw new IllegalArgumentException("增量快照不能单独恢复");
+        }
+        trainedDailyRows.clear();
+        trainedImportTimes.clear();
+        try {
+            initializeAttributes();
+            trainingInstances = new Instances("PerformanceTraining", attributes, snapshot.ratings.length);
+            trainingInstances.setClassIndex(attributes.size() - 1);
+            for (int i = 0; i < snapshot.ratings.length; i++) {
+                trainingInstances.add(createInstance(
+                    snapshot.attendanceRates[i],
+                    snapshot.kpiCompletions[i],
+                    snapshot.overtimeHours[i],
+                    snapshot.ratings[i]
+                ));
+            }
+            buildAndTrainModel();
+        } catch (Exception e) {
+            throw new RuntimeException("从快照恢复KNN模型失败", e);
+        }
+        
+        fullBuildSamples = snapshot.fullBuildSamples;
+        appendedSamples = snapshot.appendedSamples;
+        fullBuildMin = snapshot.fullBuildMin.clone();
+        fullBuildMax = snapshot.fullBuildMax.clone();
+        currentMin = snapshot.currentMin.clone();
+        currentMax = snapshot.currentMax.clone();
+        buildId = snapshot.buildId;
+        trainedDailyRows.putAll(snapshot.trainedDailyRows);
+        trainedImportTimes.putAll(snapshot.trainedImportTimes);
+    }
+    
+    // 把汇总结果中能确定评分的(员工, 月份)加入训练集，跳过skipMonths中的月份
+    private void addAggregates(MonthlyAggregator aggregator, Set<YearMonth> skipMonths) {
+        for (int slot = 0; slot < aggregator.size(); slot++) {
+            if (skipMonths.contains(aggregator.yearMonth(slot))) {
+                continue;
+            }
+            double attendanceRate = aggregator.attendanceRate(slot);
+            double kpiCompletion = aggregator.kpiCompletion(slot);
+            double overtimeHours = aggregator.overtimeHours(slot);
+            
+            // 从历史数据中获取评分（如果有）
+            Integer performanceRating = determinePerformanceRating(attendanceRate, kpiCompletion);
+            
+            // 只有有绩效评分的数据才加入训练集
+            if (performanceRating != null) {
+                trainingInstances.add(createInstance(
+                    attendanceRate,
+                    kpiCompletion,
+                    overtimeHours,
+                    performanceRating
+                ));
+            }
+        }
+    }
+    
+    private void recordTrainedMonths(MonthlyAggregator aggregator, Set<YearMonth> skipMonths,
+                                     Map<YearMonth, LocalDateTime> importTimes) {
+        for (int slot = 0; slot < aggregator.size(); slot++) {
+            YearMonth month = aggregator.yearMonth(slot);
+            if (skipMonths.contains(month)) {
+                continue;
+            }
+            trainedDailyRows.merge(month, (long) aggregator.recordCount(slot), Long::sum);
+            LocalDateTime importedAt = importTimes.get(month);
+            if (importedAt != null) {
+                trainedImportTimes.put(month, importedAt);
+            }
+        }
+    }
+    
+    private void includeInRanges(Instance instance) {
+        for (int f = 0; f < currentMin.length; f++) {
+            currentMin[f] = Math.min(currentMin[f], instance.value(f));
+            currentMax[f] = Math.max(currentMax[f], instance.value(f));
+        }
     }
     
     /**
      * 构建并训练KNN模型
      */
     private void buildAndTrainModel() throws Exception {
-        System.out.println("训练实例数: " + trainingInstances.size());
+        logger.info("训练实例数: {}", trainingInstances.size());
         
         if (trainingInstances.size() == 0) {
             throw new IllegalStateException("没有可用的训练数据");
         }
         
+        // 新模型建立完成前继续使用原来的模型
+        if (knnSearchConfig.getEngine() == KNNSearchConfig.Engine.NATIVE) {
+            knnEngine = buildEngine();
+            wekaModel = null;
+            logger.info("KNN模型训练完成(本地引擎), K={}", knnEngine.k());
+            return;
+        }
+        
+        // Weka的欧氏距离不支持特征权重：先按训练集取值范围归一化并乘以权重的平方根，再关闭它自己的归一化
+        double[] weights = featureWeights();
+        double[] searchMin = new double[weights.length];
+        double[] searchScale = new double[weights.length];
+        for (int f = 0; f < weights.length; f++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < trainingInstances.size(); i++) {
+                min = Math.min(min, trainingInstances.get(i).value(f));
+                max = Math.max(max, trainingInstances.get(i).value(f));
+            }
+            searchMin[f] = min;
+            searchScale[f] = max > min ? Math.sqrt(weights[f]) / (max - min) : 0;
+        }
+        Instances searchInstances = new Instances("PerformanceSearch", attributes, trainingInstances.size());
+        searchInstances.setClassIndex(attributes.size() - 1);
+        for (int i = 0; i < trainingInstances.size(); i++) {
+            Instance instance = trainingInstances.get(i);
+            searchInstances.add(WekaModel.searchInstance(searchInstances, searchMin, searchScale,
+                instance.value(0), instance.value(1), instance.value(2), Integer.parseInt(instance.stringValue(3))));
+        }
+        
         // 配置KNN
         IBk knn = new IBk();
         
@@ -201,85 +471,94 @@ public class KNNModelService {
         
         // 配置距离度量
         EuclideanDistance distance = new EuclideanDistance();
-        distance.setInstances(trainingInstances);
+        distance.setDontNormalize(true);
+        distance.setInstances(searchInstances);
         
         // 设置属性索引和权重
         StringBuilder indices = new StringBuilder();
         for (int i = 0; i < trainingInstances.numAttributes() - 1; i++) {
             if (i > 0) indices.append(",");
-            indices.append(i);
+            indices.append(i + 1);  // Weka的属性范围从1开始
         }
         distance.setAttributeIndices(indices.toString());
         
-        LinearNNSearch search = new LinearNNSearch();
-        search.setDistanceFunction(distance);
-        knn.setNearestNeighbourSearchAlgorithm(search);
+        knn.setNearestNeighbourSearchAlgorithm(createNeighbourSearch(distance));
         
         // 训练模型
-        knn.buildClassifier(trainingInstances);
-        knnClassifier = knn;
+        knn.buildClassifier(searchInstances);
+        wekaModel = new WekaModel(knn, new Instances(searchInstances, 0), searchMin, searchScale);
+        knnEngine = null;
         
-        System.out.println("KNN模型训练完成");
+        logger.info("KNN模型训练完成, K={}", knnConfig.getK());
     }
     
-    /**
-     * 计算出勤率
-     */
-    private double calculateAttendanceRate(List<DailyPerformance> records) {
-        double totalEffectiveHours = 0;
-        double totalExpectedHours = 0;
-        
-        for (DailyPerformance record : records) {
-            // 跳过周末
-            int dayOfWeek = record.getRecordDate().getDayOfWeek().getValue();
-            if (dayOfWeek > 5) continue; // 周末跳过
-            
-            // 每个工作日计入应该工作的时间
-            totalExpectedHours += 8;
-            
-            if ("Y".equalsIgnoreCase(record.getAttendance())) {
-                double lateEarlyMinutes = (record.getLateEarlyMinutes() != null ? record.getLateEarlyMinutes() : 0);
-                double lateEarlyHours = lateEarlyMinutes / 60.0;
-                double effectiveHours = Math.max(0, 8 - lateEarlyHours);
-                totalEffectiveHours += effectiveHours;
-            }
-        }
-        
-        return totalExpectedHours > 0 ? (totalEffectiveHours / totalExpectedHours) * 100 : 0;
+    private double[] featureWeights() {
+        return new double[]{knnConfig.getAttendanceWeight(), knnConfig.getKpiWeight(), knnConfig.getOvertimeWeight()};
     }
     
     /**
-     * 计算KPI完成率
+     * 由训练实例建立本地KNN引擎，使用当前配置的K值和特征权重
      */
-    private double calculateKpiCompletion(List<DailyPerformance> records) {
-        int totalTasks = records.stream()
-            .mapToInt(r -> r.getTotalTasks() != null ? r.getTotalTasks() : 0)
-            .sum();
-        int completedTasks = records.stream()
-            .mapToInt(r -> r.getCompletedTasks() != null ? r.getCompletedTasks() : 0)
-            .sum();
-        
-        return totalTasks > 0 ? ((double) completedTasks / totalTasks) * 100 : 0;
+    private KnnEngine buildEngine() {
+        int size = trainingInstances.size();
+        double[] attendanceRates = new double[size];
+        double[] kpiCompletions = new double[size];
+        double[] overtimeHours = new double[size];
+        int[] ratings = new int[size];
+        for (int i = 0; i < size; i++) {
+            Instance instance = trainingInstances.get(i);
+            attendanceRates[i] = instance.value(0);
+            kpiCompletions[i] = instance.value(1);
+            overtimeHours[i] = instance.value(2);
+            ratings[i] = Integer.parseInt(instance.stringValue(3));
+        }
+        return new KnnEngine(attendanceRates, kpiCompletions, overtimeHours, ratings, size, knnConfig.getK(),
+            knnConfig.getAttendanceWeight(), knnConfig.getKpiWeight(), knnConfig.getOvertimeWeight());
     }
     
     /**
-     * 计算加班时长
+     * 按配置创建近邻搜索算法
+     * LinearNNSearch每次预测都要扫描全部训练实例；KD树和球树在训练时建立索引，预测时只访问少量叶子节点。
+     * AUTO模式下训练集较小时使用线性扫描，较大时按特征维数选择KD树或球树
      */
-    private double calculateOvertimeHours(List<DailyPerformance> records) {
-        return records.stream()
-            .mapToDouble(r -> r.getOvertimeHours() != null ? r.getOvertimeHours() : 0)
-            .sum();
+    private NearestNeighbourSearch createNeighbourSearch(EuclideanDistance distance) throws Exception {
+        KNNSearchConfig.Algorithm algorithm = knnSearchConfig.getAlgorithm();
+        if (algorithm == KNNSearchConfig.Algorithm.AUTO) {
+            int dimensions = trainingInstances.numAttributes() - 1;
+            if (trainingInstances.size() < knnSearchConfig.getTreeMinInstances()) {
+                algorithm = KNNSearchConfig.Algorithm.LINEAR;
+            } else if (dimensions <= knnSearchConfig.getKdTreeMaxDimensions()) {
+                algorithm = KNNSearchConfig.Algorithm.KD_TREE;
+            } else {
+                algorithm = KNNSearchConfig.Algorithm.BALL_TREE;
+            }
+        }
+        
+        NearestNeighbourSearch search;
+        switch (algorithm) {
+            case KD_TREE:
+                KDTree kdTree = new KDTree();
+                kdTree.setMaxInstInLeaf(knnSearchConfig.getMaxInstancesInLeaf());
+                search = kdTree;
+                break;
+            case BALL_TREE:
+                BallTree ballTree = new BallTree();
+                ballTree.getBallTreeConstructor().setMaxInstancesInLeaf(knnSearchConfig.getMaxInstancesInLeaf());
+                search = ballTree;
+                break;
+            default:
+                search = new LinearNNSearch();
+        }
+        search.setDistanceFunction(distance);
+        logger.info("近邻搜索算法: {}, 训练实例数: {}", algorithm, trainingInstances.size());
+        return search;
     }
     
     /**
      * 确定绩效评分（从历史数据判断）
-     * 这里需要实际业务逻辑来确定评分，暂时返回随机值用于示例
+     * 这里需要实际业务逻辑来确定评分，暂时基于月度指标的简单规则
      */
-    private Integer determinePerformanceRating(List<DailyPerformance> records) {
-        // 简单逻辑：基于出勤率和KPI完成率的加权平均
-        double attendanceRate = calculateAttendanceRate(records);
-        double kpiCompletion = calculateKpiCompletion(records);
-        
+    private Integer determinePerformanceRating(double attendanceRate, double kpiCompletion) {
         // 这里假设我们已经有了一些绩效评分规则
         double score = (attendanceRate * 0.4) + (kpiCompletion * 0.6);
         
@@ -299,40 +578,84 @@ public class KNNModelService {
      * 预测员工绩效评分
      */
     public Integer predictPerformanceRating(double attendanceRate, double kpiCompletion, double overtimeHours) {
-        if (knnClassifier == null || trainingInstances == null) {
+        // 本地引擎：不创建实例，不输出日志
+        KnnEngine engine = knnEngine;
+        if (engine != null) {
+            return engine.predict(attendanceRate, kpiCompletion, overtimeHours);
+        }
+        
+        WekaModel weka = wekaModel;
+        if (weka == null) {
             throw new IllegalStateException("KNN模型尚未训练，无法进行预测");
         }
         
         try {
-            // 创建测试实例
-            Instance testInstance = createInstance(attendanceRate, kpiCompletion, overtimeHours, null);
-            testInstance.setDataset(trainingInstances);
-            
-            // 进行预测
-            double prediction = knnClassifier.classifyInstance(testInstance);
-            int predictedRating = (int) Math.round(prediction);
+            int predictedRating = weka.predict(attendanceRate, kpiCompletion, overtimeHours);
             
             // 确保评分在有效范围内 (1-3)
             predictedRating = Math.max(1, Math.min(3, predictedRating));
             
-            System.out.println("预测结果: 出勤率=" + attendanceRate + 
-                ", KPI完成率=" + kpiCompletion + 
-                ", 加班时长=" + overtimeHours + 
-                " => 绩效评分=" + predictedRating);
-                
             return predictedRating;
         } catch (Exception e) {
-            System.err.println("绩效评分预测失败: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("绩效评分预测失败: {}", e.getMessage(), e);
             // 发生异常时返回默认评分
             return calculateDefaultRating(attendanceRate, kpiCompletion, overtimeHours);
         }
     }
     
+    /**
+     * 批量预测员工绩效评分
+     * 把样本拆分到公共ForkJoinPool的多个线程中并行计算，整个批次使用同一个模型。
+     * 本地引擎的模型只读；Weka引擎的每个工作线程使用自己的分类器副本，不在模型锁上排队
+     *
+     * @param features 每行一个样本：出勤率、KPI完成率、加班时长
+     * @return 与features同序的评分(1-3)
+     */
+    public int[] predictBatch(double[][] features) {
+        KnnEngine engine = knnEngine;
+        if (engine != null) {
+            return engine.predictBatch(features, ForkJoinPool.commonPool(), knnSearchConfig.getBatchTaskSize());
+        }
+        
+        WekaModel weka = wekaModel;
+        if (weka == null) {
+            throw new IllegalStateException("KNN模型尚未训练，无法进行预测");
+        }
+        return weka.predictBatch(features, ForkJoinPool.commonPool(), knnSearchConfig.getBatchTaskSize());
+    }
+    
+    /**
+     * 为没有评分的月度绩效批量预测评分
+     *
+     * @return 预测的记录数
+     */
+    public int predictMissingRatings(List<EmployeePerformance> performances) {
+        List<EmployeePerformance> unrated = new ArrayList<>();
+        for (EmployeePerformance performance : performances) {
+            if (performance.getPerformanceRating() == null) {
+                unrated.add(performance);
+            }
+        }
+        
+        double[][] features = new double[unrated.size()][];
+        for (int i = 0; i < features.length; i++) {
+            EmployeePerformance performance = unrated.get(i);
+            features[i] = new double[]{
+                performance.getAttendanceRate(), performance.getKpiCompletion(), performance.getOvertimeHours()
+            };
+        }
+        
+        int[] ratings = predictBatch(features);
+        for (int i = 0; i < ratings.length; i++) {
+            unrated.get(i).setPerformanceRating(ratings[i]);
+        }
+        return ratings.length;
+    }
+    
     /**
      * 根据简单规则计算默认评分
      */
-    private Integer calculateDefaultRating(double attendanceRate, double kpiCompletion, double overtimeHours) {
+    private static Integer calculateDefaultRating(double attendanceRate, double kpiCompletion, double overtimeHours) {
         // 简单规则：基于出勤率和KPI完成率的加权平均
         double score = (attendanceRate * 0.4) + (kpiCompletion * 0.6);
         
@@ -372,6 +695,10 @@ public class KNNModelService {
      */
     private Instance createInstance(Double attendanceRate, Double kpiCompletion, Double overtimeHours, Integer performanceRating) {
         Instance instance = new DenseInstance(attributes.size());
+        // 设置分类值时需要数据集中的属性定义
+        if (trainingInstances != null) {
+            instance.setDataset(trainingInstances);
+        }
         
         // 设置特征值
         instance.setValue(0, attendanceRate != null ? attendanceRate : 0);
@@ -387,13 +714,229 @@ public class KNNModelService {
     }
     
     /**
-     * 更新KNN配置
+     * 更新KNN配置，下次训练时生效
+     */
+    public void updateConfig(com.demo.sys.model.KNNConfig config) {
+        knnConfig.setK(config.getK());
+        knnConfig.setAttendanceWeight(config.getAttendanceWeight());
+        knnConfig.setKpiWeight(config.getKpiWeight());
+        knnConfig.setOvertimeWeight(config.getOvertimeWeight());
+        logger.info("KNN配置已更新: K={}, 出勤权重={}, KPI权重={}, 加班权重={}",
+            config.getK(), config.getAttendanceWeight(), config.getKpiWeight(), config.getOvertimeWeight());
+    }
+    
+    /**
+     * Weka引擎的模型：IBk分类器和换算特征用的取值范围、权重
+     * Weka的近邻搜索在查询时修改内部状态，单个预测和增量更新都在模型对象上加锁；
+     * 批量预测时每个线程使用自己的分类器副本(连同搜索结构一起复制)，增量更新后副本在下次使用时重新复制。
+     * 完整训练建立新的模型对象后整体替换，不阻塞旧模型上的预测
      */
-    public void updateConfig(KNNConfig config) {
-        this.knnConfig = config;
-        System.out.println("KNN配置已更新: K=" + config.getK() + 
-            ", 出勤权重=" + config.getAttendanceWeight() + 
-            ", KPI权重=" + config.getKpiWeight() + 
-            ", 加班权重=" + config.getOvertimeWeight());
+    private static final class WekaModel {
+        // 每个线程只保留一个副本，模型被替换后在下次使用时换成新模型的副本
+        private static final ThreadLocal<Replica> REPLICAS = new ThreadLocal<>();
+        private static final AtomicLong IDS = new AtomicLong();
+        
+        // 副本按编号而不是引用关联模型，已替换的模型不会因为线程中残留的副本而无法回收
+        private final long id = IDS.incrementAndGet();
+        private final Classifier classifier;
+        // 只有属性定义的空数据集，预测实例通过它找到属性和分类值
+        private final Instances header;
+        private final double[] searchMin;
+        private final double[] searchScale;
+        // 每次增量更新加一，与副本中记录的值不同时副本已过期
+        private volatile int revision;
+
+        WekaModel(Classifier classifier, Instances header, double[] searchMin, double[] searchScale) {
+            this.classifier = classifier;
+            this.header = header;
+            this.searchMin = searchMin;
+            this.searchScale = searchScale;
+        }
+
+        synchronized int predict(double attendanceRate, double kpiCompletion, double overtimeHours) throws Exception {
+            return classify(classifier, attendanceRate, kpiCompletion, overtimeHours);
+        }
+
+        synchronized void update(double[] attendanceRates, double[] kpiCompletions, double[] overtimeHours,
+                                 int[] ratings, int count) throws Exception {
+            for (int i = 0; i < count; i++) {
+                ((UpdateableClassifier) classifier).updateClassifier(searchInstance(header, searchMin, searchScale,
+                    attendanceRates[i], kpiCompletions[i], overtimeHours[i], ratings[i]));
+            }
+            revision++;
+        }
+
+        /**
+         * 批量预测，按threshold拆分后在pool中并行执行，与KnnEngine.predictBatch相同
+         * 单个样本预测失败时与predictPerformanceRating一样使用简单规则的评分
+         */
+        int[] predictBatch(double[][] features, ForkJoinPool pool, int threshold) {
+            int[] ratings = new int[features.length];
+            if (pool == null || features.length <= threshold) {
+                predictRange(features, ratings, 0, features.length);
+            } else {
+                pool.invoke(new BatchTask(features, ratings, 0, features.length, Math.max(1, threshold)));
+            }
+            return ratings;
+        }
+
+        private void predictRange(double[][] features, int[] ratings, int from, int to) {
+            Classifier replica = replica();
+            for (int i = from; i < to; i++) {
+                double[] row = features[i];
+                try {
+                    ratings[i] = Math.max(1, Math.min(3, classify(replica, row[0], row[1], row[2])));
+                } catch (Exception e) {
+                    logger.warn("绩效评分预测失败: {}", e.getMessage(), e);
+                    ratings[i] = calculateDefaultRating(row[0], row[1], row[2]);
+                }
+            }
+        }
+
+        // 当前线程的分类器副本，复制时持有模型锁，避免与预测和增量更新同时访问搜索结构
+        private Classifier replica() {
+            Replica replica = REPLICAS.get();
+            if (replica == null || replica.modelId != id || replica.revision != revision) {
+                // 先释放旧副本，避免复制期间同时占用两份内存
+                REPLICAS.remove();
+                synchronized (this) {
+                    try {
+                        replica = new Replica(id, AbstractClassifier.makeCopy(classifier), revision);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("复制Weka分类器失败", e);
+                    }
+                }
+                REPLICAS.set(replica);
+            }
+            return replica.classifier;
+        }
+
+        private int classify(Classifier target, double attendanceRate, double kpiCompletion,
+                             double overtimeHours) throws Exception {
+            Instance instance = searchInstance(header, searchMin, searchScale,
+                attendanceRate, kpiCompletion, overtimeHours, null);
+            // 预测结果是分类属性值的序号
+            double prediction = target.classifyInstance(instance);
+            return Integer.parseInt(header.classAttribute().value((int) prediction));
+        }
+
+        private static final class Replica {
+            final long modelId;
+            final Classifier classifier;
+            final int revision;
+
+            Replica(long modelId, Classifier classifier, int revision) {
+                this.modelId = modelId;
+                this.classifier = classifier;
+                this.revision = revision;
+            }
+        }
+
+        /**
+         * 对半拆分样本区间，直到不超过threshold个
+         */
+        private final class BatchTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final double[][] features;
+            private final int[] ratings;
+            private final int from;
+            private final int to;
+            private final int threshold;
+
+            BatchTask(double[][] features, int[] ratings, int from, int to, int threshold) {
+                this.features = features;
+                this.ratings = ratings;
+                this.from = from;
+                this.to = to;
+                this.threshold = threshold;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= threshold) {
+                    predictRange(features, ratings, from, to);
+                    return;
+                }
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(features, ratings, from, middle, threshold),
+                          new BatchTask(features, ratings, middle, to, threshold));
+            }
+        }
+
+        /**
+         * 按训练时的取值范围和权重换算Weka分类器使用的实例
+         */
+        static Instance searchInstance(Instances dataset, double[] searchMin, double[] searchScale,
+                                       double attendanceRate, double kpiCompletion, double overtimeHours,
+                                       Integer performanceRating) {
+            Instance instance = new DenseInstance(dataset.numAttributes());
+            instance.setDataset(dataset);
+            instance.setValue(0, (attendanceRate - searchMin[0]) * searchScale[0]);
+            instance.setValue(1, (kpiCompletion - searchMin[1]) * searchScale[1]);
+            instance.setValue(2, (overtimeHours - searchMin[2]) * searchScale[2]);
+            if (performanceRating != null) {
+                instance.setValue(3, performanceRating.toString());
+            }
+            return instance;
+        }
+    }
+    
+    /**
+     * 模型快照，由ModelSnapshotStore读写
+     * KNN模型就是训练实例本身，快照保存实例的原始特征值和评分，恢复时重新建立搜索结构。
+     * offset大于0时是增量快照，只包含第offset条之后追加的实例，水位、计数和取值范围是追加后的完整值。
+     */
+    public static class ModelSnapshot {
+        // 所属的完整训练
+        final long buildId;
+        // 第一条实例在模型中的序号
+        final int offset;
+        // 训练数据水位：各月份的每日记录数和最后导入时间
+        final Map<YearMonth, Long> trainedDailyRows;
+        final Map<YearMonth, LocalDateTime> trainedImportTimes;
+        final double[] attendanceRates;
+        final double[] kpiCompletions;
+        final double[] overtimeHours;
+        final int[] ratings;
+        final int fullBuildSamples;
+        final int appendedSamples;
+        // 特征取值范围({出勤率, KPI完成率, 加班时长})，用于判断是否需要完整重新训练
+        final double[] fullBuildMin;
+        final double[] fullBuildMax;
+        final double[] currentMin;
+        final double[] currentMax;
+
+        ModelSnapshot(long buildId, int offset, Map<YearMonth, Long> trainedDailyRows,
+                      Map<YearMonth, LocalDateTime> trainedImportTimes, double[] attendanceRates, double[] kpiCompletions,
+                      double[] overtimeHours, int[] ratings, int fullBuildSamples, int appendedSamples,
+                      double[] fullBuildMin, double[] fullBuildMax, double[] currentMin, double[] currentMax) {
+            this.buildId = buildId;
+            this.offset = offset;
+            this.trainedDailyRows = trainedDailyRows;
+            this.trainedImportTimes = trainedImportTimes;
+            this.attendanceRates = attendanceRates;
+            this.kpiCompletions = kpiCompletions;
+            this.overtimeHours = overtimeHours;
+            this.ratings = ratings;
+            this.fullBuildSamples = fullBuildSamples;
+            this.appendedSamples = appendedSamples;
+            this.fullBuildMin = fullBuildMin;
+            this.fullBuildMax = fullBuildMax;
+            this.currentMin = currentMin;
+            this.currentMax = currentMax;
+        }
+
+        public Map<YearMonth, Long> getTrainedDailyRows() {
+            return trainedDailyRows;
+        }
+
+        public Map<YearMonth, LocalDateTime> getTrainedImportTimes() {
+            return trainedImportTimes;
+        }
+
+        public int size() {
+            return ratings.length;
+        }
     }
-}
\ No newline at end of file
+}
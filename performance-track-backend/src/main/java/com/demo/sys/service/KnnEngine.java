@@ -0,0 +1,367 @@
+package com.demo.sys.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 基于基本类型数组的KNN分类器(出勤率、KPI完成率、加班时长三个特征，评分1-3)
+ *
+ * 训练数据按列存放在float数组中(structure of arrays)。各特征按训练数据的取值范围归一化并乘以特征权重，
+ * 归一化不改写存储的值，而是体现在每个特征的距离系数 权重/范围宽度² 中，
+ * 加权欧氏距离的平方 = Σ 系数 × 差值²。追加实例使范围变宽时只需重算三个系数。
+ * 每列切分为固定长度的块，块内下标与距离数组下标相同；如果用"起始位置+i"访问一整列，
+ * JIT无法排除两个数组重叠的可能，不会向量化距离循环。
+ *
+ * 预测时逐块计算距离：先在一个简单的循环中把一块训练实例到查询点的距离写入临时数组，
+ * 该循环没有分支和方法调用，可以由JIT自动向量化；再扫描这块距离，用固定大小的最大堆保留最近的K个。
+ * 临时数组和堆按线程复用，预测过程不分配对象。
+ * (项目使用Java 11，没有Vector API，依赖C2的自动向量化)
+ *
+ * 建立后不可变，可以被多个线程同时使用；批量预测按fork/join拆分到多个线程，各线程使用自己的临时数组。
+ * append返回包含新实例的新引擎，与原引擎共享已写满的块，只复制最后一个未满的块。
+ */
+public final class KnnEngine {
+
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 3;
+
+    // 每块计算的训练实例数，距离数组保持在L1缓存内
+    private static final int BLOCK = 1024;
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<>();
+
+    private final int size;
+    private final int k;
+    private final double attendanceWeight;
+    private final double kpiWeight;
+    private final double overtimeWeight;
+
+    // 原始特征值和评分，按BLOCK分块，最后一块可能不满
+    private final float[][] attendance;
+    private final float[][] kpi;
+    private final float[][] overtime;
+    private final byte[][] ratings;
+
+    // 各特征的取值范围：{出勤率, KPI完成率, 加班时长}
+    private final double[] min;
+    private final double[] max;
+
+    // 距离系数：权重 / 范围宽度²，宽度为0的特征不参与距离计算
+    private final float attendanceCoefficient;
+    private final float kpiCoefficient;
+    private final float overtimeCoefficient;
+
+    /**
+     * 由原始特征建立
+     *
+     * @param ratings 每个实例的评分(1-3)
+     * @param size 使用各数组的前size个元素
+     */
+    public KnnEngine(double[] attendanceRates, double[] kpiCompletions, double[] overtimeHours, int[] ratings, int size,
+                     int k, double attendanceWeight, double kpiWeight, double overtimeWeight) {
+        this(new float[0][], new float[0][], new float[0][], new byte[0][], 0,
+            new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY},
+            new double[]{Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY},
+            attendanceRates, kpiCompletions, overtimeHours, ratings, size,
+            k, attendanceWeight, kpiWeight, overtimeWeight);
+        if (size <= 0) {
+            throw new IllegalArgumentException("没有可用的训练数据");
+        }
+    }
+
+    // 在已有的块之后追加count个实例
+    private KnnEngine(float[][] attendance, float[][] kpi, float[][] overtime, byte[][] ratings, int size,
+                      double[] min, double[] max,
+                      double[] attendanceRates, double[] kpiCompletions, double[] overtimeHours, int[] newRatings,
+                      int count, int k, double attendanceWeight, double kpiWeight, double overtimeWeight) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K必须大于0: " + k);
+        }
+        this.size = size + count;
+        this.k = k;
+        this.attendanceWeight = attendanceWeight;
+        this.kpiWeight = kpiWeight;
+        this.overtimeWeight = overtimeWeight;
+
+        int blocks = (this.size + BLOCK - 1) / BLOCK;
+        this.attendance = Arrays.copyOf(attendance, blocks);
+        this.kpi = Arrays.copyOf(kpi, blocks);
+        this.overtime = Arrays.copyOf(overtime, blocks);
+        this.ratings = Arrays.copyOf(ratings, blocks);
+        // 原来未满的最后一块复制后再写入，原引擎看到的内容不变
+        for (int b = size / BLOCK; b < blocks; b++) {
+            int length = Math.min(BLOCK, this.size - b * BLOCK);
+            this.attendance[b] = grow(this.attendance[b], length);
+            this.kpi[b] = grow(this.kpi[b], length);
+            this.overtime[b] = grow(this.overtime[b], length);
+            this.ratings[b] = this.ratings[b] != null ? Arrays.copyOf(this.ratings[b], length) : new byte[length];
+        }
+
+        this.min = min.clone();
+        this.max = max.clone();
+        for (int i = 0; i < count; i++) {
+            int rating = newRatings[i];
+            if (rating < MIN_RATING || rating > MAX_RATING) {
+                throw new IllegalArgumentException("评分超出范围: " + rating);
+            }
+            int b = (size + i) / BLOCK;
+            int j = (size + i) % BLOCK;
+            this.attendance[b][j] = (float) attendanceRates[i];
+            this.kpi[b][j] = (float) kpiCompletions[i];
+            this.overtime[b][j] = (float) overtimeHours[i];
+            this.ratings[b][j] = (byte) rating;
+            include(0, attendanceRates[i]);
+            include(1, kpiCompletions[i]);
+            include(2, overtimeHours[i]);
+        }
+
+        attendanceCoefficient = coefficient(0, attendanceWeight);
+        kpiCoefficient = coefficient(1, kpiWeight);
+        overtimeCoefficient = coefficient(2, overtimeWeight);
+    }
+
+    /**
+     * 追加实例，返回新引擎；K值和权重不变
+     */
+    public KnnEngine append(double[] attendanceRates, double[] kpiCompletions, double[] overtimeHours,
+                            int[] newRatings, int count) {
+        return new KnnEngine(attendance, kpi, overtime, ratings, size, min, max,
+            attendanceRates, kpiCompletions, overtimeHours, newRatings, count,
+            k, attendanceWeight, kpiWeight, overtimeWeight);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int k() {
+        return Math.min(k, size);
+    }
+
+    /**
+     * 特征的最小值，feature为0(出勤率)、1(KPI完成率)或2(加班时长)
+     */
+    public double min(int feature) {
+        return min[feature];
+    }
+
+    public double max(int feature) {
+        return max[feature];
+    }
+
+    /**
+     * 预测评分：K个最近邻中票数最多的评分，票数相同时取距离之和较小的评分
+     */
+    public int predict(double attendanceRate, double kpiCompletion, double overtimeHours) {
+        float qa = (float) attendanceRate;
+        float qk = (float) kpiCompletion;
+        float qo = (float) overtimeHours;
+        int k = k();
+
+        Scratch scratch = scratch(k);
+        float[] distances = scratch.distances;
+        float[] heapDistances = scratch.heapDistances;
+        int[] heapIndexes = scratch.heapIndexes;
+        int heapSize = 0;
+        // 堆满之前任何距离都能进入堆
+        float worst = Float.POSITIVE_INFINITY;
+
+        for (int b = 0; b < attendance.length; b++) {
+            int start = b * BLOCK;
+            int length = attendance[b].length;
+            squaredDistances(qa, qk, qo, attendance[b], kpi[b], overtime[b], distances, length);
+
+            for (int i = 0; i < length; i++) {
+                float d = distances[i];
+                if (d >= worst) {
+                    continue;
+                }
+                if (heapSize < k) {
+                    heapDistances[heapSize] = d;
+                    heapIndexes[heapSize] = start + i;
+                    siftUp(heapDistances, heapIndexes, heapSize++);
+                } else {
+                    heapDistances[0] = d;
+                    heapIndexes[0] = start + i;
+                    siftDown(heapDistances, heapIndexes, k);
+                }
+                if (heapSize == k) {
+                    worst = heapDistances[0];
+                }
+            }
+        }
+
+        return vote(heapDistances, heapIndexes, heapSize, scratch);
+    }
+
+    /**
+     * 批量预测
+     *
+     * @param features 每行一个样本：出勤率、KPI完成率、加班时长
+     * @param pool 执行拆分任务的线程池，为null时在当前线程中顺序执行
+     * @param threshold 每个任务最多处理的样本数，不足时不再拆分
+     * @return 与features同序的评分
+     */
+    public int[] predictBatch(double[][] features, ForkJoinPool pool, int threshold) {
+        int[] ratings = new int[features.length];
+        if (pool == null || features.length <= threshold) {
+            predictRange(features, ratings, 0, features.length);
+        } else {
+            pool.invoke(new BatchTask(features, ratings, 0, features.length, Math.max(1, threshold)));
+        }
+        return ratings;
+    }
+
+    private void predictRange(double[][] features, int[] ratings, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double[] row = features[i];
+            ratings[i] = predict(row[0], row[1], row[2]);
+        }
+    }
+
+    /**
+     * 对半拆分样本区间，直到不超过threshold个
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] features;
+        private final int[] ratings;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        BatchTask(double[][] features, int[] ratings, int from, int to, int threshold) {
+            this.features = features;
+            this.ratings = ratings;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                predictRange(features, ratings, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(features, ratings, from, middle, threshold),
+                      new BatchTask(features, ratings, middle, to, threshold));
+        }
+    }
+
+    // 无分支的距离循环，供JIT向量化
+    private void squaredDistances(float qa, float qk, float qo, float[] a, float[] p, float[] o,
+                                  float[] out, int length) {
+        float ca = attendanceCoefficient;
+        float ck = kpiCoefficient;
+        float co = overtimeCoefficient;
+        for (int i = 0; i < length; i++) {
+            float da = a[i] - qa;
+            float dk = p[i] - qk;
+            float dox = o[i] - qo;
+            out[i] = ca * da * da + ck * dk * dk + co * dox * dox;
+        }
+    }
+
+    private int vote(float[] heapDistances, int[] heapIndexes, int count, Scratch scratch) {
+        int[] votes = scratch.votes;
+        double[] distanceSums = scratch.distanceSums;
+        for (int r = 0; r <= MAX_RATING; r++) {
+            votes[r] = 0;
+            distanceSums[r] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int index = heapIndexes[i];
+            int rating = ratings[index / BLOCK][index % BLOCK];
+            votes[rating]++;
+            distanceSums[rating] += heapDistances[i];
+        }
+
+        int best = MIN_RATING;
+        for (int r = MIN_RATING + 1; r <= MAX_RATING; r++) {
+            if (votes[r] > votes[best] || (votes[r] == votes[best] && distanceSums[r] < distanceSums[best])) {
+                best = r;
+            }
+        }
+        return best;
+    }
+
+    // 最大堆，堆顶是当前K个中距离最大的
+    private static void siftUp(float[] distances, int[] indexes, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distances[i]) {
+                break;
+            }
+            swap(distances, indexes, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(float[] distances, int[] indexes, int size) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int largest = left + 1 < size && distances[left + 1] > distances[left] ? left + 1 : left;
+            if (distances[i] >= distances[largest]) {
+                return;
+            }
+            swap(distances, indexes, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(float[] distances, int[] indexes, int i, int j) {
+        float d = distances[i];
+        distances[i] = distances[j];
+        distances[j] = d;
+        int index = indexes[i];
+        indexes[i] = indexes[j];
+        indexes[j] = index;
+    }
+
+    private static float[] grow(float[] block, int length) {
+        return block != null ? Arrays.copyOf(block, length) : new float[length];
+    }
+
+    private void include(int feature, double value) {
+        min[feature] = Math.min(min[feature], value);
+        max[feature] = Math.max(max[feature], value);
+    }
+
+    private float coefficient(int feature, double weight) {
+        double width = max[feature] - min[feature];
+        return width > 0 && weight > 0 ? (float) (weight / (width * width)) : 0f;
+    }
+
+    private static Scratch scratch(int k) {
+        Scratch scratch = SCRATCH.get();
+        if (scratch == null || scratch.heapDistances.length < k) {
+            scratch = new Scratch(k);
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    /**
+     * 每个线程复用的临时数组
+     */
+    private static final class Scratch {
+        final float[] distances = new float[BLOCK];
+        final float[] heapDistances;
+        final int[] heapIndexes;
+        final int[] votes = new int[MAX_RATING + 1];
+        final double[] distanceSums = new double[MAX_RATING + 1];
+
+        Scratch(int k) {
+            heapDistances = new float[k];
+            heapIndexes = new int[k];
+        }
+    }
+}
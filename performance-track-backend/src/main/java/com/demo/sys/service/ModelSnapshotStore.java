@@ -0,0 +1,305 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.KNNConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KNN模型快照文件的读写
+ * 二进制格式：魔数、格式版本，然后是完整训练的快照(训练编号、训练数据水位(各月份的每日记录数和最后导入时间)、
+ * 样本计数、特征取值范围、训练实例)，之后是零个或多个增量段(同一训练编号、起始序号、追加后的水位、计数和
+ * 取值范围、追加的实例)。
+ * 完整快照先写临时文件再原子替换，读取时不会看到写了一半的快照；增量段追加到文件末尾，写入耗时只与追加的
+ * 实例数有关。读取时遇到不完整或不连续的增量段，忽略它和之后的内容，下次写入改为完整快照。
+ * 特征或格式变化时提高SCHEMA_VERSION，旧版本的快照读取时直接忽略。
+ */
+@Component
+public class ModelSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelSnapshotStore.class);
+
+    private static final int MAGIC = 0x4B4E4E53;    // "KNNS"
+
+    private static final int SEGMENT = 0x4B4E4E41;  // "KNNA"
+
+    static final int SCHEMA_VERSION = 2;
+
+    private static final int FEATURES = 3;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    @Autowired
+    private KNNConfig knnConfig;
+
+    // 快照文件当前内容所属的完整训练和包含的实例数；为0时下次写入完整快照
+    private long writtenBuildId;
+    private int writtenSamples;
+
+    /**
+     * 快照文件当前内容所属的完整训练
+     */
+    public synchronized long writtenBuildId() {
+        return writtenBuildId;
+    }
+
+    /**
+     * 快照文件当前包含的实例数
+     */
+    public synchronized int writtenSamples() {
+        return writtenSamples;
+    }
+
+    /**
+     * 写入快照：完整快照替换文件，增量快照追加到文件末尾
+     * 增量快照必须紧接文件现有内容(同一训练编号，起始序号等于已写入的实例数)，否则不写入并返回false；
+     * 写入失败只记录日志，返回false，下次写入完整快照
+     */
+    public synchronized boolean save(KNNModelService.ModelSnapshot snapshot) {
+        Path file = Paths.get(knnConfig.getSnapshotPath()).toAbsolutePath();
+        if (snapshot.offset > 0) {
+            if (snapshot.buildId != writtenBuildId || snapshot.offset != writtenSamples || !Files.isRegularFile(file)) {
+                return false;
+            }
+            return append(file, snapshot);
+        }
+
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(SCHEMA_VERSION);
+                out.writeLong(snapshot.buildId);
+                writeBody(out, snapshot);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenBuildId = snapshot.buildId;
+            writtenSamples = snapshot.size();
+            logger.info("KNN模型快照已写入 {}，训练实例 {} 条", file, snapshot.size());
+            return true;
+        } catch (IOException e) {
+            logger.warn("KNN模型快照写入失败: {}", e.getMessage());
+            writtenSamples = 0;
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    temp.toFile().deleteOnExit();
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 读取快照并合并其后的增量段；文件不存在、格式版本不同或内容损坏时返回null
+     */
+    public synchronized KNNModelService.ModelSnapshot load() {
+        writtenSamples = 0;
+        Path file = Paths.get(knnConfig.getSnapshotPath()).toAbsolutePath();
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                logger.warn("{} 不是KNN模型快照，忽略", file);
+                return null;
+            }
+            int version = in.readInt();
+            if (version != SCHEMA_VERSION) {
+                logger.info("KNN模型快照格式版本为 {}，当前为 {}，忽略", version, SCHEMA_VERSION);
+                return null;
+            }
+            long buildId = in.readLong();
+            KNNModelService.ModelSnapshot base = readBody(in, buildId, 0);
+
+            List<KNNModelService.ModelSnapshot> segments = new ArrayList<>();
+            int samples = base.size();
+            boolean complete = true;
+            while (true) {
+                in.mark(1);
+                if (in.read() == -1) {
+                    break;
+                }
+                in.reset();
+                try {
+                    if (in.readInt() != SEGMENT || in.readLong() != buildId) {
+                        complete = false;
+                        break;
+                    }
+                    int offset = in.readInt();
+                    if (offset != samples) {
+                        complete = false;
+                        break;
+                    }
+                    KNNModelService.ModelSnapshot segment = readBody(in, buildId, offset);
+                    segments.add(segment);
+                    samples += segment.size();
+                } catch (IOException | RuntimeException e) {
+                    complete = false;
+                    break;
+                }
+            }
+            if (!complete) {
+                logger.warn("KNN模型快照 {} 末尾的增量段不完整，只使用前 {} 条实例", file, samples);
+            }
+
+            KNNModelService.ModelSnapshot snapshot = merge(base, segments, samples);
+            writtenBuildId = buildId;
+            writtenSamples = complete ? samples : 0;
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("KNN模型快照读取失败，忽略: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean append(Path file, KNNModelService.ModelSnapshot segment) {
+        try {
+            // 整段先在内存中编码，一次写入并刷到磁盘
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + segment.size() * 25);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SEGMENT);
+            out.writeLong(segment.buildId);
+            out.writeInt(segment.offset);
+            writeBody(out, segment);
+            out.flush();
+            try (OutputStream fileOut = Files.newOutputStream(file, StandardOpenOption.APPEND, StandardOpenOption.SYNC)) {
+                bytes.writeTo(fileOut);
+            }
+            writtenSamples += segment.size();
+            logger.info("KNN模型快照已追加 {} 条训练实例，共 {} 条", segment.size(), writtenSamples);
+            return true;
+        } catch (IOException e) {
+            logger.warn("KNN模型快照追加失败: {}", e.getMessage());
+            writtenSamples = 0;
+            return false;
+        }
+    }
+
+    private static KNNModelService.ModelSnapshot merge(KNNModelService.ModelSnapshot base,
+                                                       List<KNNModelService.ModelSnapshot> segments, int samples) {
+        if (segments.isEmpty()) {
+            return base;
+        }
+        double[] attendanceRates = new double[samples];
+        double[] kpiCompletions = new double[samples];
+        double[] overtimeHours = new double[samples];
+        int[] ratings = new int[samples];
+        List<KNNModelService.ModelSnapshot> parts = new ArrayList<>(segments.size() + 1);
+        parts.add(base);
+        parts.addAll(segments);
+        for (KNNModelService.ModelSnapshot part : parts) {
+            System.arraycopy(part.attendanceRates, 0, attendanceRates, part.offset, part.size());
+            System.arraycopy(part.kpiCompletions, 0, kpiCompletions, part.offset, part.size());
+            System.arraycopy(part.overtimeHours, 0, overtimeHours, part.offset, part.size());
+            System.arraycopy(part.ratings, 0, ratings, part.offset, part.size());
+        }
+        // 水位、计数和取值范围以最后一段为准
+        KNNModelService.ModelSnapshot last = segments.get(segments.size() - 1);
+        return new KNNModelService.ModelSnapshot(base.buildId, 0, last.trainedDailyRows, last.trainedImportTimes,
+            attendanceRates, kpiCompletions, overtimeHours, ratings, last.fullBuildSamples, last.appendedSamples,
+            last.fullBuildMin, last.fullBuildMax, last.currentMin, last.currentMax);
+    }
+
+    private static void writeBody(DataOutputStream out, KNNModelService.ModelSnapshot snapshot) throws IOException {
+        out.writeInt(snapshot.trainedDailyRows.size());
+        for (Map.Entry<YearMonth, Long> entry : snapshot.trainedDailyRows.entrySet()) {
+            out.writeInt(entry.getKey().getYear());
+            out.writeByte(entry.getKey().getMonthValue());
+            out.writeLong(entry.getValue());
+            LocalDateTime importedAt = snapshot.trainedImportTimes.get(entry.getKey());
+            out.writeLong(importedAt != null ? importedAt.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME);
+        }
+
+        out.writeInt(snapshot.fullBuildSamples);
+        out.writeInt(snapshot.appendedSamples);
+        writeRange(out, snapshot.fullBuildMin);
+        writeRange(out, snapshot.fullBuildMax);
+        writeRange(out, snapshot.currentMin);
+        writeRange(out, snapshot.currentMax);
+
+        int count = snapshot.size();
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeDouble(snapshot.attendanceRates[i]);
+            out.writeDouble(snapshot.kpiCompletions[i]);
+            out.writeDouble(snapshot.overtimeHours[i]);
+            out.writeByte(snapshot.ratings[i]);
+        }
+    }
+
+    private static KNNModelService.ModelSnapshot readBody(DataInputStream in, long buildId, int offset) throws IOException {
+        int months = in.readInt();
+        Map<YearMonth, Long> trainedDailyRows = new HashMap<>();
+        Map<YearMonth, LocalDateTime> trainedImportTimes = new HashMap<>();
+        for (int i = 0; i < months; i++) {
+            YearMonth month = YearMonth.of(in.readInt(), in.readByte());
+            trainedDailyRows.put(month, in.readLong());
+            long importedAt = in.readLong();
+            if (importedAt != NO_TIME) {
+                trainedImportTimes.put(month, LocalDateTime.ofInstant(Instant.ofEpochMilli(importedAt), ZoneOffset.UTC));
+            }
+        }
+
+        int fullBuildSamples = in.readInt();
+        int appendedSamples = in.readInt();
+        double[] fullBuildMin = readRange(in);
+        double[] fullBuildMax = readRange(in);
+        double[] currentMin = readRange(in);
+        double[] currentMax = readRange(in);
+
+        int count = in.readInt();
+        double[] attendanceRates = new double[count];
+        double[] kpiCompletions = new double[count];
+        double[] overtimeHours = new double[count];
+        int[] ratings = new int[count];
+        for (int i = 0; i < count; i++) {
+            attendanceRates[i] = in.readDouble();
+            kpiCompletions[i] = in.readDouble();
+            overtimeHours[i] = in.readDouble();
+            ratings[i] = in.readByte();
+        }
+        return new KNNModelService.ModelSnapshot(buildId, offset, trainedDailyRows, trainedImportTimes,
+            attendanceRates, kpiCompletions, overtimeHours, ratings, fullBuildSamples, appendedSamples,
+            fullBuildMin, fullBuildMax, currentMin, currentMax);
+    }
+
+    private static void writeRange(DataOutputStream out, double[] range) throws IOException {
+        for (int f = 0; f < FEATURES; f++) {
+            out.writeDouble(range[f]);
+        }
+    }
+
+    private static double[] readRange(DataInputStream in) throws IOException {
+        double[] range = new double[FEATURES];
+        for (int f = 0; f < FEATURES; f++) {
+            range[f] = in.readDouble();
+        }
+        return range;
+    }
+}
@@ -0,0 +1,20 @@
+package com.demo.sys.service;
+
+import java.time.YearMonth;
+
+/**
+ * 上传文件所属月份的绩效数据已存在
+ */
+public class MonthAlreadyImportedException extends RuntimeException {
+
+    private final YearMonth yearMonth;
+
+    public MonthAlreadyImportedException(YearMonth yearMonth) {
+        super("该月份(" + yearMonth + ")的绩效数据已存在，请勿重复上传");
+        this.yearMonth = yearMonth;
+    }
+
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+}
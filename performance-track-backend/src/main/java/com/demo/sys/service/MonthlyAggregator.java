@@ -0,0 +1,289 @@
+package com.demo.sys.service;
+
+import com.demo.sys.dto.DailyPerformanceDTO;
+import com.demo.sys.entity.DailyPerformance;
+import com.demo.sys.entity.EmployeePerformance;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 月度绩效汇总：一次遍历每日记录，按(员工, 月份)累加出勤、任务和加班数据
+ *
+ * 员工ID编码为序号后与月份序号拼成一个int键，通过开放寻址表映射到槽位，
+ * 每个槽位的累加值保存在基本类型数组中，逐行累加时不产生额外对象。
+ *
+ * 计算规则：
+ * - 出勤率 = 工作日有效工作时间 / (工作日数 × 8小时)，有效时间 = 8小时 - 迟到早退时间，出勤为Y时计入
+ * - KPI完成率 = 工作日完成任务数 / 工作日任务总数
+ * - 加班时长 = 所有日期(含周末)的加班时长之和
+ *
+ * 非线程安全，每次汇总使用一个新实例。
+ */
+public class MonthlyAggregator {
+
+    public static final double STANDARD_HOURS = 8.0;
+
+    private static final int BASE_YEAR = 1970;
+    private static final int MONTH_BITS = 11;
+    private static final int MAX_MONTH_INDEX = (1 << MONTH_BITS) - 1;
+    private static final int MAX_EMPLOYEES = 1 << (31 - MONTH_BITS);
+    private static final int EMPTY = -1;
+
+    // 员工字典：员工ID -> 序号
+    private final Map<String, Integer> employeeOrdinals = new HashMap<>();
+    private String[] employeeIds = new String[64];
+
+    // 开放寻址表：打包键 -> 槽位
+    private int[] tableKeys;
+    private int[] tableSlots;
+    private int tableMask;
+
+    // 已累加的每日记录总数
+    private long records;
+
+    // 槽位累加值
+    private int size;
+    private int[] slotKeys = new int[64];
+    private String[] employeeNames = new String[64];
+    private String[] departments = new String[64];
+    private int[] recordCounts = new int[64];
+    private int[] workdays = new int[64];
+    private double[] effectiveHours = new double[64];
+    private long[] totalTasks = new long[64];
+    private long[] completedTasks = new long[64];
+    private double[] overtimeHours = new double[64];
+
+    public MonthlyAggregator() {
+        tableKeys = new int[128];
+        tableSlots = new int[128];
+        tableMask = tableKeys.length - 1;
+        Arrays.fill(tableKeys, EMPTY);
+    }
+
+    /**
+     * 累加一条每日记录
+     */
+    public void add(DailyPerformance record) {
+        add(record.getEmployeeId(), record.getEmployeeName(), record.getDepartment(), record.getRecordDate(),
+            record.getAttendance(), record.getLateEarlyMinutes(), record.getOvertimeHours(),
+            record.getTotalTasks(), record.getCompletedTasks());
+    }
+
+    /**
+     * 累加一条每日记录
+     */
+    public void add(DailyPerformanceDTO record) {
+        add(record.getEmployeeID(), record.getEmployeeName(), record.getDepartment(), record.getDate(),
+            record.getAttendance(), record.getLateEarlyMinutes(), record.getOvertimeHours(),
+            record.getTotalTasks(), record.getCompletedTasks());
+    }
+
+    /**
+     * 累加一条每日记录，数值为空时按0处理
+     */
+    public void add(String employeeId, String employeeName, String department, LocalDate date,
+                    String attendance, Integer lateEarlyMinutes, Double overtime,
+                    Integer total, Integer completed) {
+        add(employeeId, employeeName, department, date,
+            "Y".equalsIgnoreCase(attendance),
+            lateEarlyMinutes != null ? lateEarlyMinutes : 0,
+            overtime != null ? overtime : 0,
+            total != null ? total : 0,
+            completed != null ? completed : 0);
+    }
+
+    /**
+     * 累加一条每日记录
+     */
+    public void add(String employeeId, String employeeName, String department, LocalDate date,
+                    boolean present, int lateEarlyMinutes, double overtime, int total, int completed) {
+        int slot = slotFor(employeeOrdinal(employeeId), monthIndex(date.getYear(), date.getMonthValue()));
+        if (recordCounts[slot] == 0) {
+            employeeNames[slot] = employeeName;
+            departments[slot] = department;
+        }
+        records++;
+        recordCounts[slot]++;
+        overtimeHours[slot] += overtime;
+
+        // 周末只计加班，不计应出勤时间和任务
+        if (date.getDayOfWeek().getValue() <= 5) {
+            workdays[slot]++;
+            if (present) {
+                effectiveHours[slot] += Math.max(0, STANDARD_HOURS - lateEarlyMinutes / 60.0);
+            }
+            totalTasks[slot] += total;
+            completedTasks[slot] += completed;
+        }
+    }
+
+    /**
+     * 已汇总的(员工, 月份)数量，槽位编号为 0 ~ size()-1，按首次出现的顺序排列
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 已累加的每日记录总数
+     */
+    public long records() {
+        return records;
+    }
+
+    public String employeeId(int slot) {
+        return employeeIds[slotKeys[slot] >>> MONTH_BITS];
+    }
+
+    public String employeeName(int slot) {
+        return employeeNames[slot];
+    }
+
+    public String department(int slot) {
+        return departments[slot];
+    }
+
+    public YearMonth yearMonth(int slot) {
+        int monthIndex = slotKeys[slot] & MAX_MONTH_INDEX;
+        return YearMonth.of(BASE_YEAR + monthIndex / 12, monthIndex % 12 + 1);
+    }
+
+    public int recordCount(int slot) {
+        return recordCounts[slot];
+    }
+
+    /**
+     * 出勤率(%)，没有工作日记录时为0
+     */
+    public double attendanceRate(int slot) {
+        double expectedHours = workdays[slot] * STANDARD_HOURS;
+        return expectedHours > 0 ? (effectiveHours[slot] / expectedHours) * 100 : 0;
+    }
+
+    /**
+     * KPI完成率(%)，没有任务时为0
+     */
+    public double kpiCompletion(int slot) {
+        return totalTasks[slot] > 0 ? ((double) completedTasks[slot] / totalTasks[slot]) * 100 : 0;
+    }
+
+    public double overtimeHours(int slot) {
+        return overtimeHours[slot];
+    }
+
+    /**
+     * 生成月度绩效记录(各指标保留1位小数，绩效评分留空)
+     */
+    public List<EmployeePerformance> toEmployeePerformances() {
+        List<EmployeePerformance> performances = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            EmployeePerformance performance = new EmployeePerformance();
+            performance.setEmployeeID(employeeId(slot));
+            performance.setEmployeeName(employeeName(slot));
+            performance.setDepartment(department(slot));
+            performance.setRecordDate(yearMonth(slot));
+            performance.setAttendanceRate(round1(attendanceRate(slot)));
+            performance.setKpiCompletion(round1(kpiCompletion(slot)));
+            performance.setOvertimeHours(round1(overtimeHours(slot)));
+            performances.add(performance);
+        }
+        return performances;
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private int employeeOrdinal(String employeeId) {
+        Integer ordinal = employeeOrdinals.get(employeeId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+
+        int next = employeeOrdinals.size();
+        if (next >= MAX_EMPLOYEES) {
+            throw new IllegalStateException("员工数量超出汇总上限: " + MAX_EMPLOYEES);
+        }
+        if (next == employeeIds.length) {
+            employeeIds = Arrays.copyOf(employeeIds, next * 2);
+        }
+        employeeIds[next] = employeeId;
+        employeeOrdinals.put(employeeId, next);
+        return next;
+    }
+
+    private static int monthIndex(int year, int month) {
+        int index = (year - BASE_YEAR) * 12 + (month - 1);
+        if (index < 0 || index > MAX_MONTH_INDEX) {
+            throw new IllegalArgumentException("日期超出支持范围: " + year + "-" + month);
+        }
+        return index;
+    }
+
+    private int slotFor(int employeeOrdinal, int monthIndex) {
+        int key = (employeeOrdinal << MONTH_BITS) | monthIndex;
+        int i = mix(key) & tableMask;
+        while (true) {
+            int existing = tableKeys[i];
+            if (existing == key) {
+                return tableSlots[i];
+            }
+            if (existing == EMPTY) {
+                break;
+            }
+            i = (i + 1) & tableMask;
+        }
+
+        int slot = newSlot(key);
+        tableKeys[i] = key;
+        tableSlots[i] = slot;
+        if (size * 2 > tableKeys.length) {
+            rehash();
+        }
+        return slot;
+    }
+
+    private int newSlot(int key) {
+        if (size == slotKeys.length) {
+            int capacity = size * 2;
+            slotKeys = Arrays.copyOf(slotKeys, capacity);
+            employeeNames = Arrays.copyOf(employeeNames, capacity);
+            departments = Arrays.copyOf(departments, capacity);
+            recordCounts = Arrays.copyOf(recordCounts, capacity);
+            workdays = Arrays.copyOf(workdays, capacity);
+            effectiveHours = Arrays.copyOf(effectiveHours, capacity);
+            totalTasks = Arrays.copyOf(totalTasks, capacity);
+            completedTasks = Arrays.copyOf(completedTasks, capacity);
+            overtimeHours = Arrays.copyOf(overtimeHours, capacity);
+        }
+        slotKeys[size] = key;
+        return size++;
+    }
+
+    private void rehash() {
+        int capacity = tableKeys.length * 2;
+        tableKeys = new int[capacity];
+        tableSlots = new int[capacity];
+        tableMask = capacity - 1;
+        Arrays.fill(tableKeys, EMPTY);
+        for (int slot = 0; slot < size; slot++) {
+            int i = mix(slotKeys[slot]) & tableMask;
+            while (tableKeys[i] != EMPTY) {
+                i = (i + 1) & tableMask;
+            }
+            tableKeys[i] = slotKeys[slot];
+            tableSlots[i] = slot;
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
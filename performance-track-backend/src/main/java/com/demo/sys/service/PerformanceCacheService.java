@@ -0,0 +1,100 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.CacheRegions;
+import com.demo.sys.entity.EmployeePerformance;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 绩效数据的Hibernate二级缓存和查询缓存
+ * 月度绩效每次导入写入一次、之后反复读取，实体和查询结果都缓存在Caffeine中。
+ * 导入通过JDBC批量写入，Hibernate无法感知，因此导入提交后按区域清空月度绩效的实体缓存和查询缓存；
+ * 月份目录通过JPA写入，由Hibernate自动维护。
+ */
+@Service
+public class PerformanceCacheService {
+
+    private static final String[] REGIONS = {
+        CacheRegions.EMPLOYEE_PERFORMANCE,
+        CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES,
+        CacheRegions.PERFORMANCE_MONTH,
+        CacheRegions.PERFORMANCE_MONTH_QUERIES
+    };
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * 清空月度绩效的实体缓存和查询缓存，在事务中调用时等到提交后再清空
+     */
+    public void evictPerformances() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        } else {
+            evict();
+        }
+    }
+
+    private void evict() {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(EmployeePerformance.class);
+        cache.evictQueryRegion(CacheRegions.EMPLOYEE_PERFORMANCE_QUERIES);
+    }
+
+    /**
+     * 二级缓存和查询缓存的命中统计，按区域列出
+     */
+    public Map<String, Object> statistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCache", counts(statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", counts(statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        result.put("queryExecutions", statistics.getQueryExecutionCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                Map<String, Object> counts = counts(regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(), regionStatistics.getPutCount());
+                // JCache regions cannot report their size and return a negative count
+                if (regionStatistics.getElementCountInMemory() >= 0) {
+                    counts.put("elementsInMemory", regionStatistics.getElementCountInMemory());
+                }
+                regions.put(region, counts);
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        long lookups = hits + misses;
+        counts.put("hitRatio", lookups > 0 ? (double) hits / lookups : 0.0);
+        return counts;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -6,10 +6,8 @@ import com.demo.sys.model.PerformanceTrainingData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class PerformanceCalculationService {
@@ -24,100 +22,38 @@ public class PerformanceCalculationService {
      * 3. 生成EmployeePerformance记录
      */
     public List<EmployeePerformance> processExcelData(List<DailyPerformance> newDailyRecords) {
-        // 1. 按员工和月份分组
-        Map<String, Map<YearMonth, List<DailyPerformance>>> groupedRecords = 
-            newDailyRecords.stream()
-                .collect(Collectors.groupingBy(
-                    DailyPerformance::getEmployeeId,
-                    Collectors.groupingBy(record -> 
-                        YearMonth.from(record.getRecordDate())
-                    )
-                ));
+        // 1. 按员工和月份汇总
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        for (DailyPerformance record : newDailyRecords) {
+            aggregator.add(record);
+        }
 
         // 2. 准备训练数据
-        List<PerformanceTrainingData> trainingData = groupedRecords.values().stream()
-            .flatMap(employeeMonths -> employeeMonths.values().stream()
-                .map(monthRecords -> {
-                    double attendanceRate = calculateAttendanceRate(monthRecords);
-                    double kpiCompletion = calculateKPICompletion(monthRecords);
-                    double overtimeHours = calculateOvertimeHours(monthRecords);
-                    
-                    // 基于月度指标计算初始评分用于训练
-                    int initialRating = calculateInitialRating(
-                        attendanceRate, kpiCompletion, overtimeHours);
+        List<PerformanceTrainingData> trainingData = new ArrayList<>(aggregator.size());
+        for (int slot = 0; slot < aggregator.size(); slot++) {
+            double attendanceRate = aggregator.attendanceRate(slot);
+            double kpiCompletion = aggregator.kpiCompletion(slot);
+            double overtimeHours = aggregator.overtimeHours(slot);
+            
+            // 基于月度指标计算初始评分用于训练
+            int initialRating = calculateInitialRating(
+                attendanceRate, kpiCompletion, overtimeHours);
 
-                    return new PerformanceTrainingData(
-                        attendanceRate,
-                        kpiCompletion,
-                        overtimeHours,
-                        initialRating
-                    );
-                }))
-            .collect(Collectors.toList());
+            trainingData.add(new PerformanceTrainingData(
+                attendanceRate,
+                kpiCompletion,
+                overtimeHours,
+                initialRating
+            ));
+        }
 
         // 3. 训练KNN模型
         knnModel.addAllTrainingData(trainingData);
 
-        // 4. 生成月度绩效记录
-        return groupedRecords.values().stream()
-            .flatMap(employeeMonths -> employeeMonths.values().stream()
-                .map(monthRecords -> {
-                    EmployeePerformance performance = createMonthlyPerformance(monthRecords);
-                    
-                    // 使用KNN预测评分
-                    int predictedRating = knnModel.predict(
-                        performance.getAttendanceRate(),
-                        performance.getKpiCompletion(),
-                        performance.getOvertimeHours()
-                    );
-                    performance.setPerformanceRating(predictedRating);
-                    
-                    return performance;
-                }))
-            .collect(Collectors.toList());
-    }
-
-    // 计算月度出勤率
-    private double calculateAttendanceRate(List<DailyPerformance> dailyRecords) {
-        double totalEffectiveWork = dailyRecords.stream()
-                .mapToDouble(DailyPerformance::calculateEffectiveWorkRatio)
-                .sum();
-        return (totalEffectiveWork / dailyRecords.size()) * 100;
-    }
-
-    // 计算月度KPI完成率
-    private double calculateKPICompletion(List<DailyPerformance> dailyRecords) {
-        int totalCompleted = dailyRecords.stream()
-                .mapToInt(DailyPerformance::getCompletedTasks)
-                .sum();
-        int totalTasks = dailyRecords.stream()
-                .mapToInt(DailyPerformance::getTotalTasks)
-                .sum();
-        return totalTasks > 0 ? ((double) totalCompleted / totalTasks) * 100 : 0;
-    }
-
-    // 计算月度加班时长
-    private double calculateOvertimeHours(List<DailyPerformance> dailyRecords) {
-        return dailyRecords.stream()
-                .mapToDouble(record -> record.getOvertimeHours() != null ? 
-                        record.getOvertimeHours() : 0.0)
-                .sum();
-    }
-
-    // 创建月度绩效记录
-    private EmployeePerformance createMonthlyPerformance(List<DailyPerformance> dailyRecords) {
-        DailyPerformance firstRecord = dailyRecords.get(0);
-        
-        EmployeePerformance performance = new EmployeePerformance();
-        performance.setEmployeeID(firstRecord.getEmployeeId());
-        performance.setEmployeeName(firstRecord.getEmployeeName());
-        performance.setDepartment(firstRecord.getDepartment());
-        performance.setAttendanceRate(calculateAttendanceRate(dailyRecords));
-        performance.setKpiCompletion(calculateKPICompletion(dailyRecords));
-        performance.setOvertimeHours(calculateOvertimeHours(dailyRecords));
-        performance.setRecordDate(YearMonth.from(firstRecord.getRecordDate()));
-        
-        return performance;
+        // 4. 生成月度绩效记录，使用KNN批量预测评分
+        List<EmployeePerformance> performances = aggregator.toEmployeePerformances();
+        knnModel.predictMissingRatings(performances);
+        return performances;
     }
 
     // 计算初始评分（用于模型训练）
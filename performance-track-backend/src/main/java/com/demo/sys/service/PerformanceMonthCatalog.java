@@ -0,0 +1,202 @@
+package com.demo.sys.service;
+
+import com.demo.sys.entity.DailyPerformance;
+import com.demo.sys.entity.EmployeePerformance;
+import com.demo.sys.entity.PerformanceMonth;
+import com.demo.sys.repository.DailyPerformanceRepository;
+import com.demo.sys.repository.EmployeePerformanceRepository;
+import com.demo.sys.repository.PerformanceMonthRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 月份目录：每个已导入的月份一行，记录月度/每日记录数和导入时间
+ * 最新月份、月份列表和某月是否已有数据都直接查询目录，开销与历史数据量无关。
+ * 目录在导入的同一事务中更新，导入回滚时目录一起回滚；
+ * 同一月份并发首次导入时，后提交的事务因唯一键冲突失败。
+ */
+@Service
+public class PerformanceMonthCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceMonthCatalog.class);
+
+    @Autowired
+    private PerformanceMonthRepository performanceMonthRepository;
+
+    @Autowired
+    private EmployeePerformanceRepository employeePerformanceRepository;
+
+    @Autowired
+    private DailyPerformanceRepository dailyPerformanceRepository;
+
+    /**
+     * 启动时目录为空而绩效表已有数据(升级前导入的数据)，按现有数据建立目录
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (performanceMonthRepository.count() > 0) {
+            return;
+        }
+        List<Object[]> counts = performanceMonthRepository.countMonthlyRowsByMonth();
+        LocalDateTime now = now();
+        for (Object[] row : counts) {
+            YearMonth month = (YearMonth) row[0];
+            PerformanceMonth entry = newEntry(month, now);
+            entry.setMonthlyRows((Long) row[1]);
+            entry.setDailyRows(dailyPerformanceRepository.countByRecordDateBetween(month.atDay(1), month.atEndOfMonth()));
+            performanceMonthRepository.save(entry);
+        }
+        if (!counts.isEmpty()) {
+            logger.info("已根据现有数据建立月份目录，共{}个月份", counts.size());
+        }
+    }
+
+    /**
+     * 该月份是否已有数据
+     */
+    public boolean contains(YearMonth month) {
+        return performanceMonthRepository.existsByRecordDate(month);
+    }
+
+    /**
+     * 该月份的月度记录数，未导入时为0
+     */
+    public long monthlyRows(YearMonth month) {
+        return performanceMonthRepository.findByRecordDate(month).map(PerformanceMonth::getMonthlyRows).orElse(0L);
+    }
+
+    /**
+     * 最新的月份
+     */
+    public Optional<YearMonth> latestMonth() {
+        return performanceMonthRepository.findTopByOrderByRecordDateDesc().map(PerformanceMonth::getRecordDate);
+    }
+
+    /**
+     * 所有已导入的月份，按时间升序
+     */
+    public List<YearMonth> months() {
+        return performanceMonthRepository.findAllByOrderByRecordDateAsc().stream()
+            .map(PerformanceMonth::getRecordDate)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 各月份的每日记录数
+     */
+    public Map<YearMonth, Long> dailyRowsByMonth() {
+        Map<YearMonth, Long> counts = new HashMap<>();
+        for (PerformanceMonth entry : performanceMonthRepository.findAllByOrderByRecordDateAsc()) {
+            counts.put(entry.getRecordDate(), entry.getDailyRows());
+        }
+        return counts;
+    }
+
+    /**
+     * 各月份的最后导入时间，与每日记录数一起作为KNN模型的训练数据水位
+     */
+    public Map<YearMonth, LocalDateTime> lastImportedAtByMonth() {
+        Map<YearMonth, LocalDateTime> times = new HashMap<>();
+        for (PerformanceMonth entry : performanceMonthRepository.findAllByOrderByRecordDateAsc()) {
+            times.put(entry.getRecordDate(), entry.getLastImportedAt());
+        }
+        return times;
+    }
+
+    /**
+     * 记录新插入的数据：月度记录按所属月份计数，每日记录数由调用方按月份统计
+     */
+    @Transactional
+    public void recordInserted(List<EmployeePerformance> monthlyPerformances, Map<YearMonth, Long> dailyRowsByMonth) {
+        Map<YearMonth, Long> monthlyRowsByMonth = new HashMap<>();
+        for (EmployeePerformance performance : monthlyPerformances) {
+            monthlyRowsByMonth.merge(performance.getRecordDate(), 1L, Long::sum);
+        }
+
+        LocalDateTime now = now();
+        for (Map.Entry<YearMonth, Long> monthly : monthlyRowsByMonth.entrySet()) {
+            YearMonth month = monthly.getKey();
+            PerformanceMonth entry = performanceMonthRepository.findByRecordDate(month)
+                .orElseGet(() -> newEntry(month, now));
+            entry.setMonthlyRows(entry.getMonthlyRows() + monthly.getValue());
+            entry.setDailyRows(entry.getDailyRows() + dailyRowsByMonth.getOrDefault(month, 0L));
+            entry.setLastImportedAt(now);
+            performanceMonthRepository.save(entry);
+        }
+    }
+
+    /**
+     * 按数据库中的记录重新统计指定月份，用于插入或更新的导入(写入的行数无法预先确定)
+     */
+    @Transactional
+    public void refresh(Collection<YearMonth> months) {
+        LocalDateTime now = now();
+        for (YearMonth month : months) {
+            long monthlyRows = employeePerformanceRepository.countByRecordDate(month);
+            Optional<PerformanceMonth> existing = performanceMonthRepository.findByRecordDate(month);
+            if (monthlyRows == 0) {
+                existing.ifPresent(performanceMonthRepository::delete);
+                continue;
+            }
+            PerformanceMonth entry = existing.orElseGet(() -> newEntry(month, now));
+            entry.setMonthlyRows(monthlyRows);
+            entry.setDailyRows(dailyPerformanceRepository.countByRecordDateBetween(month.atDay(1), month.atEndOfMonth()));
+            entry.setLastImportedAt(now);
+            performanceMonthRepository.save(entry);
+        }
+    }
+
+    /**
+     * 按月份累加每日记录数，连续的记录通常属于同一月份，只在月份变化时查找计数
+     */
+    public static void countDaily(List<DailyPerformance> records, Map<YearMonth, Long> counts) {
+        int year = 0;
+        int month = 0;
+        long run = 0;
+        for (DailyPerformance record : records) {
+            LocalDate date = record.getRecordDate();
+            if (date.getYear() != year || date.getMonthValue() != month) {
+                if (run > 0) {
+                    counts.merge(YearMonth.of(year, month), run, Long::sum);
+                }
+                year = date.getYear();
+                month = date.getMonthValue();
+                run = 0;
+            }
+            run++;
+        }
+        if (run > 0) {
+            counts.merge(YearMonth.of(year, month), run, Long::sum);
+        }
+    }
+
+    // 导入时间截断到毫秒，从数据库读回的值与二级缓存中的值相同，可以直接比较
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static PerformanceMonth newEntry(YearMonth month, LocalDateTime now) {
+        PerformanceMonth entry = new PerformanceMonth();
+        entry.setRecordDate(month);
+        entry.setFirstImportedAt(now);
+        entry.setLastImportedAt(now);
+        return entry;
+    }
+}
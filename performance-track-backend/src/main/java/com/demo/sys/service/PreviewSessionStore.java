@@ -0,0 +1,227 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.dto.PerformanceImportResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 预览结果暂存，/preview 返回令牌，/confirm 凭令牌保存，不再把整份数据传给浏览器再传回来
+ *
+ * - 最近使用的结果保存在内存中，超出 previewMaxInMemory 时把最久未使用的写入本地磁盘
+ * - 总数超出 previewMaxSessions 时丢弃最早创建的结果
+ * - 超过 previewTtlMinutes 的结果定期清理
+ */
+@Component
+public class PreviewSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreviewSessionStore.class);
+
+    @Autowired
+    private ImportConfig importConfig;
+
+    private Path spillDir;
+
+    // 按创建顺序排列的全部会话
+    private final Map<String, Session> sessions = new LinkedHashMap<>();
+
+    // 内存中的结果，按访问顺序排列，最久未使用的在最前
+    private final LinkedHashMap<String, PerformanceImportResultDTO> inMemory = new LinkedHashMap<>(16, 0.75f, true);
+
+    @PostConstruct
+    public void init() throws IOException {
+        spillDir = Paths.get(importConfig.getPreviewSpillDir());
+        Files.createDirectories(spillDir);
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        for (String token : new ArrayList<>(sessions.keySet())) {
+            discard(token);
+        }
+    }
+
+    /**
+     * 暂存预览结果
+     */
+    public synchronized Session put(PerformanceImportResultDTO result) {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        Session session = new Session(token, now.plusMinutes(importConfig.getPreviewTtlMinutes()));
+        sessions.put(token, session);
+        inMemory.put(token, result);
+
+        while (sessions.size() > importConfig.getPreviewMaxSessions()) {
+            discard(sessions.keySet().iterator().next());
+        }
+        spillOverflow();
+        return session;
+    }
+
+    /**
+     * 读取预览结果，不存在或已过期时返回null
+     */
+    public synchronized PerformanceImportResultDTO get(String token) {
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(LocalDateTime.now())) {
+            discard(token);
+            return null;
+        }
+
+        PerformanceImportResultDTO result = inMemory.get(token);
+        if (result == null) {
+            result = readSpilled(session);
+            inMemory.put(token, result);
+            deleteSpilled(session);
+            spillOverflow();
+        }
+        return result;
+    }
+
+    /**
+     * 读取会话信息，不存在或已过期时返回null
+     */
+    public synchronized Session getSession(String token) {
+        Session session = sessions.get(token);
+        return session != null && !session.isExpired(LocalDateTime.now()) ? session : null;
+    }
+
+    /**
+     * 取出并移除预览结果，保证同一份预览只能确认一次
+     */
+    public synchronized PerformanceImportResultDTO take(String token) {
+        PerformanceImportResultDTO result = get(token);
+        if (result != null) {
+            discard(token);
+        }
+        return result;
+    }
+
+    /**
+     * 保存失败时放回预览结果，令牌保持不变
+     */
+    public synchronized void restore(String token, PerformanceImportResultDTO result) {
+        sessions.put(token, new Session(token,
+            LocalDateTime.now().plusMinutes(importConfig.getPreviewTtlMinutes())));
+        inMemory.put(token, result);
+        spillOverflow();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public synchronized void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> expired = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            if (session.isExpired(now)) {
+                expired.add(session.token);
+            }
+        }
+        for (String token : expired) {
+            discard(token);
+        }
+    }
+
+    private void spillOverflow() {
+        Iterator<Map.Entry<String, PerformanceImportResultDTO>> it = inMemory.entrySet().iterator();
+        while (inMemory.size() > importConfig.getPreviewMaxInMemory() && it.hasNext()) {
+            Map.Entry<String, PerformanceImportResultDTO> eldest = it.next();
+            Session session = sessions.get(eldest.getKey());
+            try {
+                writeSpilled(session, eldest.getValue());
+            } catch (IOException e) {
+                // 写盘失败时直接丢弃，用户需要重新预览
+                logger.warn("预览结果写入磁盘失败，已丢弃: {}", e.getMessage());
+                sessions.remove(eldest.getKey());
+            }
+            it.remove();
+        }
+    }
+
+    private void writeSpilled(Session session, PerformanceImportResultDTO result) throws IOException {
+        Path file = spillDir.resolve(session.token + ".bin");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeObject(result);
+        }
+        session.spillFile = file;
+    }
+
+    private PerformanceImportResultDTO readSpilled(Session session) {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(session.spillFile)))) {
+            return (PerformanceImportResultDTO) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取预览结果失败", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("读取预览结果失败", e);
+        }
+    }
+
+    private void deleteSpilled(Session session) {
+        if (session.spillFile != null) {
+            try {
+                Files.deleteIfExists(session.spillFile);
+            } catch (IOException e) {
+                session.spillFile.toFile().deleteOnExit();
+            }
+            session.spillFile = null;
+        }
+    }
+
+    private void discard(String token) {
+        inMemory.remove(token);
+        Session session = sessions.remove(token);
+        if (session != null) {
+            deleteSpilled(session);
+        }
+    }
+
+    /**
+     * 会话信息
+     */
+    public static class Session {
+        private final String token;
+        private final LocalDateTime expiresAt;
+        private Path spillFile;
+
+        Session(String token, LocalDateTime expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return now.isAfter(expiresAt);
+        }
+    }
+}
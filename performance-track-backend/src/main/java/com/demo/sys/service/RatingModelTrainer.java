@@ -0,0 +1,291 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.KNNConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 让KNN模型跟上每日历史数据，评分前调用
+ * 模型已由每日历史训练时只增量追加新月份，耗时与新数据量有关而与历史总量无关：
+ * - 按月份目录找出模型中还没有的月份(本次导入的月份除外)，只汇总这些月份并追加
+ * - 已训练月份的每日记录数或最后导入时间变化(覆盖导入)或月份被删除、追加的实例过多、特征取值范围明显变宽时，
+ *   在事务结束后由后台线程完整重新训练，当前评分继续使用现有模型
+ * 模型还没有由每日历史训练时(启动后首次导入)先尝试从快照恢复，快照不可用时同步完整训练。
+ * 每次训练后由快照线程写入快照：完整训练后重写，增量追加后只在文件末尾追加新实例；
+ * 启动后在后台线程恢复快照，新节点不需要读取全部每日历史就能评分。
+ */
+@Component
+public class RatingModelTrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingModelTrainer.class);
+
+    // 每日记录少于该数量时不用历史数据训练
+    public static final int MIN_TRAINING_RECORDS = 10;
+
+    @Autowired
+    private KNNModelService knnModelService;
+
+    @Autowired
+    private DailyHistoryAggregator dailyHistoryAggregator;
+
+    @Autowired
+    private PerformanceMonthCatalog performanceMonthCatalog;
+
+    @Autowired
+    private KNNConfig knnConfig;
+
+    @Autowired
+    private ModelSnapshotStore modelSnapshotStore;
+
+    @Autowired
+    @Qualifier("modelRebuildExecutor")
+    private ThreadPoolTaskExecutor modelRebuildExecutor;
+
+    @Autowired
+    @Qualifier("modelSnapshotExecutor")
+    private ThreadPoolTaskExecutor modelSnapshotExecutor;
+
+    // 已安排但还没开始的完整训练，避免同一批导入重复安排
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    // 已安排但还没开始的快照写入，一次写入会包含之前所有的变化
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+
+    /**
+     * 准备评分用的模型，返回模型包含的每日记录数
+     * pendingMonths是本次导入的月份，不作为训练数据：无论导入时每日记录是先写入(流水线、覆盖导入)
+     * 还是评分后才写入，同一个文件都由不包含它自身的模型评分
+     */
+    public synchronized long prepare(Collection<YearMonth> pendingMonths) {
+        if (!knnModelService.isTrainedFromHistory() && !restoreSnapshot()) {
+            return rebuild(pendingMonths);
+        }
+
+        Map<YearMonth, Long> trained = knnModelService.getTrainedDailyRows();
+        Map<YearMonth, LocalDateTime> trainedTimes = knnModelService.getTrainedImportTimes();
+        // 先读导入时间再汇总，期间提交的导入只会让水位显得过期而触发完整训练
+        Map<YearMonth, LocalDateTime> importTimes = performanceMonthCatalog.lastImportedAtByMonth();
+        Map<YearMonth, Long> catalog = performanceMonthCatalog.dailyRowsByMonth();
+
+        Set<YearMonth> newMonths = new TreeSet<>();
+        boolean changed = false;
+        for (Map.Entry<YearMonth, Long> entry : catalog.entrySet()) {
+            Long trainedRows = trained.get(entry.getKey());
+            if (trainedRows == null) {
+                if (!pendingMonths.contains(entry.getKey())) {
+                    newMonths.add(entry.getKey());
+                }
+            } else if (!pendingMonths.contains(entry.getKey())
+                    && (trainedRows.longValue() != entry.getValue()
+                        || !Objects.equals(trainedTimes.get(entry.getKey()), importTimes.get(entry.getKey())))) {
+                // 每日记录数相同的覆盖导入只改变最后导入时间
+                changed = true;
+            }
+        }
+        for (YearMonth month : pendingMonths) {
+            if (trained.containsKey(month)) {
+                // 覆盖导入已训练的月份
+                changed = true;
+            }
+        }
+        Set<YearMonth> removed = new HashSet<>(trained.keySet());
+        removed.removeAll(catalog.keySet());
+        removed.removeAll(pendingMonths);
+        changed |= !removed.isEmpty();
+
+        if (!newMonths.isEmpty()) {
+            try {
+                int before = knnModelService.getTrainedDailyRows().size();
+                knnModelService.appendMonthlyAggregates(dailyHistoryAggregator.aggregate(newMonths), importTimes);
+                if (knnModelService.getTrainedDailyRows().size() > before) {
+                    saveSnapshot();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("KNN模型增量训练失败，改为完整训练: {}", e.getMessage());
+                return rebuild(pendingMonths);
+            }
+        }
+
+        if (changed
+                || knnModelService.appendedRatio() > knnConfig.getRebuildAppendRatio()
+                || knnModelService.rangeDrift() > knnConfig.getRebuildRangeDrift()) {
+            scheduleRebuild();
+        }
+
+        long records = 0;
+        for (long rows : knnModelService.getTrainedDailyRows().values()) {
+            records += rows;
+        }
+        return records;
+    }
+
+    /**
+     * 汇总月份目录中全部月份的每日历史并完整训练模型，返回每日记录数；记录不足时不训练
+     */
+    public long rebuild() {
+        return rebuild(Collections.emptySet());
+    }
+
+    /**
+     * 完整训练，excludedMonths(本次导入的月份)的每日记录不参与训练
+     */
+    private long rebuild(Collection<YearMonth> excludedMonths) {
+        Map<YearMonth, LocalDateTime> importTimes = performanceMonthCatalog.lastImportedAtByMonth();
+        Set<YearMonth> months = new TreeSet<>(importTimes.keySet());
+        months.removeAll(excludedMonths);
+        MonthlyAggregator aggregator = dailyHistoryAggregator.aggregate(months);
+        if (aggregator.records() >= MIN_TRAINING_RECORDS) {
+            knnModelService.trainModelWithMonthlyAggregates(aggregator, importTimes);
+            saveSnapshot();
+        }
+        return aggregator.records();
+    }
+
+    /**
+     * 启动后在后台恢复模型快照，不推迟启动；首次评分时还没恢复则在评分线程中恢复
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStart() {
+        if (knnConfig.isSnapshotEnabled()) {
+            modelRebuildExecutor.execute(this::restoreSnapshot);
+        }
+    }
+
+    /**
+     * 从快照恢复模型，成功或模型已由每日历史训练时返回true
+     * 快照的训练数据水位必须与月份目录一致：快照中任何月份的每日记录数或最后导入时间与目录不同、
+     * 或月份已不存在时拒绝，目录中比快照新的月份在下次评分时增量追加
+     */
+    synchronized boolean restoreSnapshot() {
+        if (knnModelService.isTrainedFromHistory()) {
+            return true;
+        }
+        if (!knnConfig.isSnapshotEnabled()) {
+            return false;
+        }
+        KNNModelService.ModelSnapshot snapshot = modelSnapshotStore.load();
+        if (snapshot == null) {
+            return false;
+        }
+
+        Map<YearMonth, Long> catalog = performanceMonthCatalog.dailyRowsByMonth();
+        Map<YearMonth, LocalDateTime> importTimes = performanceMonthCatalog.lastImportedAtByMonth();
+        for (Map.Entry<YearMonth, Long> entry : snapshot.getTrainedDailyRows().entrySet()) {
+            if (!entry.getValue().equals(catalog.get(entry.getKey()))) {
+                logger.info("KNN模型快照已过期: {} 月的每日记录数为 {}，目录中为 {}，忽略快照",
+                    entry.getKey(), entry.getValue(), catalog.get(entry.getKey()));
+                return false;
+            }
+            LocalDateTime importedAt = snapshot.getTrainedImportTimes().get(entry.getKey());
+            if (!Objects.equals(importedAt, importTimes.get(entry.getKey()))) {
+                logger.info("KNN模型快照已过期: {} 月训练时的导入时间为 {}，目录中为 {}，忽略快照",
+                    entry.getKey(), importedAt, importTimes.get(entry.getKey()));
+                return false;
+            }
+        }
+
+        try {
+            knnModelService.restore(snapshot);
+        } catch (RuntimeException e) {
+            logger.warn("KNN模型快照恢复失败: {}", e.getMessage());
+            return false;
+        }
+        logger.info("已从快照恢复KNN模型，训练实例 {} 条，覆盖 {} 个月份", snapshot.size(), snapshot.getTrainedDailyRows().size());
+        return true;
+    }
+
+    /**
+     * 安排一次后台完整训练；在事务中调用时等到事务结束后再开始，训练读到的是已提交的数据
+     * 事务回滚时同样需要，因为模型可能已追加了回滚掉的月份
+     */
+    public void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    submitRebuild();
+                }
+            });
+        } else {
+            submitRebuild();
+        }
+    }
+
+    /**
+     * 安排快照线程写入当前模型；在事务中调用时等到提交后再安排，回滚的数据不会进入快照
+     */
+    private void saveSnapshot() {
+        if (!knnConfig.isSnapshotEnabled()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitSnapshot();
+                }
+            });
+        } else {
+            submitSnapshot();
+        }
+    }
+
+    private void submitSnapshot() {
+        if (!snapshotScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        modelSnapshotExecutor.execute(() -> {
+            snapshotScheduled.set(false);
+            writeSnapshot();
+        });
+    }
+
+    /**
+     * 把模型写入快照文件：文件中是同一次完整训练的前N条实例时只追加之后的实例，否则写入完整快照
+     */
+    void writeSnapshot() {
+        KNNModelService.ModelSnapshot snapshot = knnModelService.snapshotSince(
+            modelSnapshotStore.writtenBuildId(), modelSnapshotStore.writtenSamples());
+        if (snapshot == null || modelSnapshotStore.save(snapshot) || snapshot.offset == 0) {
+            return;
+        }
+        snapshot = knnModelService.snapshot();
+        if (snapshot != null) {
+            modelSnapshotStore.save(snapshot);
+        }
+    }
+
+    private void submitRebuild() {
+        modelRebuildExecutor.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                long records = rebuild();
+                logger.info("KNN模型后台完整训练完成，每日记录 {} 条", records);
+            } catch (RuntimeException e) {
+                logger.warn("KNN模型后台完整训练失败: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.sys.service;
+
+import com.demo.sys.dto.RowRejectionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 导入时被拒绝的行
+ * 行号、列号和原因(DailyRowDecoder中的常量)保存在基本类型数组中，最多保留MAX_DETAILS条明细，
+ * 超出后只计数；生成DTO时才创建对象
+ */
+public class RejectionReport {
+
+    public static final int MAX_DETAILS = 1000;
+
+    // 整行格式错误时的列号
+    public static final int WHOLE_ROW = -1;
+
+    private int count;
+    private int[] rows = new int[16];
+    private int[] columns = new int[16];
+    private String[] reasons = new String[16];
+
+    /**
+     * 记录一条被拒绝的行
+     *
+     * @param rowNum 从0开始的行号
+     * @param column 从0开始的列号，整行错误时为WHOLE_ROW
+     * @param reason 拒绝原因
+     */
+    public void reject(int rowNum, int column, String reason) {
+        if (count < MAX_DETAILS) {
+            if (count == rows.length) {
+                int capacity = Math.min(count * 2, MAX_DETAILS);
+                rows = Arrays.copyOf(rows, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+                reasons = Arrays.copyOf(reasons, capacity);
+            }
+            rows[count] = rowNum;
+            columns[count] = column;
+            reasons[count] = reason;
+        }
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 生成明细列表，行号从1开始，与Excel中显示的行号一致
+     */
+    public List<RowRejectionDTO> toDTOs() {
+        int details = Math.min(count, MAX_DETAILS);
+        List<RowRejectionDTO> result = new ArrayList<>(details);
+        for (int i = 0; i < details; i++) {
+            String column = columns[i] >= 0 && columns[i] < DailyRowDecoder.HEADERS.length
+                ? DailyRowDecoder.HEADERS[columns[i]] : null;
+            result.add(new RowRejectionDTO(rows[i] + 1, column, reasons[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.demo.sys.service;
+
+import com.demo.sys.repository.EmployeePerformanceSearchRepository.SortKey;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * 键集分页的游标：排序方式、查询条件的指纹和上一页最后一行的排序列值
+ * 编码为URL安全的Base64字符串，对客户端不透明；解码时校验排序方式和查询条件与本次请求一致，
+ * 防止把一个查询的游标用在另一个查询上
+ */
+final class SearchCursor {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INTEGER = 1;
+    private static final byte TYPE_STRING = 2;
+    private static final byte TYPE_DATE = 3;
+
+    private SearchCursor() {
+    }
+
+    static String encode(SortKey key, boolean descending, String fingerprint, Object[] values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(key.ordinal());
+            out.writeBoolean(descending);
+            out.writeInt(fingerprint.hashCode());
+            for (Object value : values) {
+                if (value == null) {
+                    out.writeByte(TYPE_NULL);
+                } else if (value instanceof Integer) {
+                    out.writeByte(TYPE_INTEGER);
+                    out.writeInt((Integer) value);
+                } else if (value instanceof LocalDate) {
+                    out.writeByte(TYPE_DATE);
+                    out.writeLong(((LocalDate) value).toEpochDay());
+                } else {
+                    out.writeByte(TYPE_STRING);
+                    out.writeUTF(value.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 解码游标，返回排序列值
+     * @throws IllegalArgumentException 游标格式错误或与本次请求的排序方式、查询条件不一致
+     */
+    static Object[] decode(String cursor, SortKey key, boolean descending, String fingerprint) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) {
+                throw invalid();
+            }
+            if (in.readByte() != key.ordinal() || in.readBoolean() != descending
+                    || in.readInt() != fingerprint.hashCode()) {
+                throw new IllegalArgumentException("分页游标与当前查询条件不一致，请从第一页重新查询");
+            }
+            Object[] values = new Object[key.getColumnCount()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readValue(in);
+            }
+            if (in.available() > 0) {
+                throw invalid();
+            }
+            return values;
+        } catch (IOException | DateTimeException e) {
+            throw invalid();
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        switch (in.readByte()) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_DATE:
+                return LocalDate.ofEpochDay(in.readLong());
+            case TYPE_STRING:
+                return in.readUTF();
+            default:
+                throw invalid();
+        }
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("无效的分页游标");
+    }
+}
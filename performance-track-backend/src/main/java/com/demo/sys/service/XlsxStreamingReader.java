@@ -0,0 +1,241 @@
+package com.demo.sys.service;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 基于POI事件模型(SAX)的xlsx流式读取器
+ * 逐行解析第一个工作表，不构建完整的工作簿对象，内存占用与文件大小无关
+ */
+@Component
+public class XlsxStreamingReader {
+
+    /**
+     * 行回调
+     * 字符串单元格为去除首尾空格后的文本，日期格式的数值单元格为ISO日期(yyyy-MM-dd)，
+     * 其他数值单元格为原始数值文本，空单元格为null
+     */
+    public interface RowHandler {
+        void row(int rowNum, String[] cells);
+    }
+
+    /**
+     * 读取输入流中的xlsx内容
+     * OPCPackage从流打开时会把整个压缩包解压到内存，因此先写入临时文件再按文件读取
+     */
+    public void read(InputStream in, RowHandler handler) throws IOException {
+        Path tempFile = Files.createTempFile("xlsx-import-", ".xlsx");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            read(tempFile.toFile(), handler);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 读取xlsx文件的第一个工作表
+     */
+    public void read(File file, RowHandler handler) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("无法读取Excel文件: " + e.getMessage(), e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Excel文件中没有工作表");
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(sharedStrings, styles, handler));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("无法读取Excel文件: " + e.getMessage(), e);
+        } finally {
+            // 只读打开的包不能close()，否则会尝试保存
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 工作表XML处理器，只保留单元格的原始值
+     */
+    private static class SheetHandler extends DefaultHandler {
+
+        private final SharedStrings sharedStrings;
+        private final StylesTable styles;
+        private final RowHandler handler;
+
+        // 样式索引 -> 是否为日期格式
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+        private String[] cells = new String[16];
+        private int rowNum = -1;
+        private int lastColumn = -1;
+        private int nextRowNum = 0;
+
+        private int column;
+        private String cellType;
+        private int styleIndex;
+        private boolean readingValue;
+        private final StringBuilder value = new StringBuilder();
+
+        SheetHandler(SharedStrings sharedStrings, StylesTable styles, RowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : nextRowNum;
+                    column = -1;
+                    lastColumn = -1;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : column + 1;
+                    cellType = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s != null ? Integer.parseInt(s) : -1;
+                    value.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    readingValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (readingValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    readingValue = false;
+                    break;
+                case "c":
+                    setCell(column, cellValue());
+                    break;
+                case "row":
+                    if (lastColumn >= 0) {
+                        handler.row(rowNum, Arrays.copyOf(cells, lastColumn + 1));
+                        Arrays.fill(cells, 0, lastColumn + 1, null);
+                    }
+                    nextRowNum = rowNum + 1;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String cellValue() {
+            if (value.length() == 0) {
+                return null;
+            }
+            String raw = value.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                if (isDateStyle(styleIndex)) {
+                    return DateUtil.getLocalDateTime(Double.parseDouble(raw))
+                        .toLocalDate()
+                        .format(DateTimeFormatter.ISO_LOCAL_DATE);
+                }
+                return raw;
+            }
+            switch (cellType) {
+                case "s":
+                    return sharedStrings.getItemAt(Integer.parseInt(raw)).getString().trim();
+                case "inlineStr":
+                case "str":
+                    return raw.trim();
+                default:
+                    // 布尔值、错误值等不作为有效数据
+                    return null;
+            }
+        }
+
+        private boolean isDateStyle(int index) {
+            if (index < 0 || styles == null) {
+                return false;
+            }
+            return dateStyles.computeIfAbsent(index, i -> {
+                XSSFCellStyle style = styles.getStyleAt(i);
+                return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            });
+        }
+
+        private void setCell(int index, String cellValue) {
+            if (cellValue == null) {
+                return;
+            }
+            if (index >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, index + 1));
+            }
+            cells[index] = cellValue;
+            lastColumn = Math.max(lastColumn, index);
+        }
+
+        // 将单元格引用(如 "AB12")的列字母转换为从0开始的列号
+        private static int columnIndex(String ref) {
+            int col = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                col = col * 26 + (c - 'A' + 1);
+            }
+            return col - 1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- Adds the (employee_id, record_date) unique keys that upsert imports (mode=upsert) rely on.
+-- spring.jpa.hibernate.ddl-auto=update cannot create them while duplicate rows exist and only logs the failure;
+-- the application then refuses upserts until this script has been run (see UpsertKeyCheck).
+-- MySQL. Keeps the newest row (highest id) of every duplicate group. Back up both tables first.
+
+DELETE older FROM daily_performance older
+JOIN daily_performance newer
+  ON newer.employee_id = older.employee_id
+ AND newer.record_date = older.record_date
+ AND newer.id > older.id;
+
+ALTER TABLE daily_performance
+  ADD CONSTRAINT uk_daily_employee_date UNIQUE (employee_id, record_date);
+
+DELETE older FROM employee_performance older
+JOIN employee_performance newer
+  ON newer.employee_id = older.employee_id
+ AND newer.record_date = older.record_date
+ AND newer.id > older.id;
+
+ALTER TABLE employee_performance
+  ADD CONSTRAINT uk_performance_employee_month UNIQUE (employee_id, record_date);
+
+-- Row counts changed; the month catalog is rebuilt from the tables on the next startup when it is empty
+DELETE FROM performance_month;
@@ -0,0 +1,42 @@
+package com.demo.sys.dto;
+
+import com.demo.sys.entity.EmployeePerformance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreviewSessionDTOTest {
+
+    @Test
+    void pageBeyondTheEndIsEmpty() {
+        PreviewSessionDTO dto = new PreviewSessionDTO("t", result(250), 3, 100, null);
+        assertTrue(dto.getMonthlyPerformances().isEmpty());
+        assertEquals(3, dto.getTotalPages());
+    }
+
+    @Test
+    void offsetsDoNotOverflow() {
+        // 2^16 * 2^16 wraps to 0 in int arithmetic and would return the first page
+        PreviewSessionDTO dto = new PreviewSessionDTO("t", result(250), 65536, 65536, null);
+        assertTrue(dto.getMonthlyPerformances().isEmpty());
+
+        dto = new PreviewSessionDTO("t", result(250), Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+        assertTrue(dto.getMonthlyPerformances().isEmpty());
+        assertEquals(1, dto.getTotalPages());
+
+        dto = new PreviewSessionDTO("t", result(250), 0, Integer.MAX_VALUE, null);
+        assertEquals(250, dto.getMonthlyPerformances().size());
+    }
+
+    private static PerformanceImportResultDTO result(int rows) {
+        List<EmployeePerformance> monthly = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            monthly.add(new EmployeePerformance());
+        }
+        return new PerformanceImportResultDTO(new ArrayList<>(), monthly, "EmployeePerformance_202406.csv");
+    }
+}
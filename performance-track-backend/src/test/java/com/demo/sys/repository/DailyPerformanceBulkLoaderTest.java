@@ -0,0 +1,152 @@
+package com.demo.sys.repository;
+
+import com.demo.sys.entity.DailyPerformance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * DailyPerformanceBulkLoader against a mocked JDBC connection standing in for MySQL
+ */
+class DailyPerformanceBulkLoaderTest {
+
+    private Connection connection;
+    private DatabaseMetaData metaData;
+    private Statement statement;
+    private DailyPerformanceBulkLoader loader;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        metaData = mock(DatabaseMetaData.class);
+        statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.createStatement()).thenReturn(statement);
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+
+        loader = new DailyPerformanceBulkLoader();
+        ReflectionTestUtils.setField(loader, "jdbcTemplate", new JdbcTemplate(dataSource));
+    }
+
+    @Test
+    void loadsEscapedTsv() throws SQLException {
+        List<DailyPerformance> records = Arrays.asList(
+            record("E001", "Tab\tName", LocalDate.of(2024, 6, 3)),
+            record("E002", null, LocalDate.of(2024, 6, 3)));
+        AtomicReference<String> tsv = new AtomicReference<>();
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            String path = sql.substring(sql.indexOf("INFILE '") + 8, sql.indexOf("' INTO"));
+            tsv.set(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8));
+            return false;
+        });
+        when(statement.getUpdateCount()).thenReturn(2);
+
+        assertTrue(loader.load(records));
+        assertEquals(
+            "E001\tTab\\tName\tR&D\t2024-06-03\tY\t0\t1.5\t5\t4\n" +
+            "E002\t\\N\tR&D\t2024-06-03\tY\t0\t1.5\t5\t4\n",
+            tsv.get());
+    }
+
+    @Test
+    void notMySqlFallsBackWithoutWritingAndIsRemembered() throws SQLException {
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        assertFalse(loader.load(records(1)));
+        assertFalse(loader.load(records(1)));
+        verify(connection, never()).createStatement();
+        verify(connection, times(1)).getMetaData();
+    }
+
+    @Test
+    void refusedLocalInfileFallsBackAndIsRemembered() throws SQLException {
+        when(statement.execute(anyString())).thenThrow(new SQLException(
+            "Loading local data is disabled; this must be enabled on both the client and server sides",
+            "42000", 3948));
+
+        assertFalse(loader.load(records(1)));
+        assertFalse(loader.load(records(1)));
+        verify(statement, times(1)).execute(anyString());
+    }
+
+    @Test
+    void otherErrorsAreThrownAndDoNotDisableTheLoader() throws SQLException {
+        when(statement.execute(anyString()))
+            .thenThrow(new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062))
+            .thenReturn(false);
+        when(statement.getUpdateCount()).thenReturn(1);
+
+        assertThrows(DuplicateKeyException.class, () -> loader.load(records(1)));
+        assertTrue(loader.load(records(1)));
+    }
+
+    @Test
+    void skippedDuplicateRowsAreRejected() throws SQLException {
+        when(statement.getUpdateCount()).thenReturn(2);
+
+        assertThrows(DataIntegrityViolationException.class, () -> loader.load(records(3)));
+    }
+
+    @Test
+    void warningsAreRejected() throws SQLException {
+        when(statement.getUpdateCount()).thenReturn(1);
+        when(statement.getWarnings()).thenReturn(
+            new SQLWarning("Data truncated for column 'attendance' at row 1", "01000", 1265));
+
+        assertThrows(DataIntegrityViolationException.class, () -> loader.load(records(1)));
+    }
+
+    private static List<DailyPerformance> records(int count) {
+        DailyPerformance[] records = new DailyPerformance[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = record("E" + i, "Name " + i, LocalDate.of(2024, 6, 3));
+        }
+        return Arrays.asList(records);
+    }
+
+    private static DailyPerformance record(String employeeId, String name, LocalDate date) {
+        DailyPerformance record = new DailyPerformance();
+        record.setEmployeeId(employeeId);
+        record.setEmployeeName(name);
+        record.setDepartment("R&D");
+        record.setRecordDate(date);
+        record.setAttendance("Y");
+        record.setLateEarlyMinutes(0);
+        record.setOvertimeHours(1.5);
+        record.setTotalTasks(5);
+        record.setCompletedTasks(4);
+        return record;
+    }
+}
@@ -0,0 +1,127 @@
+package com.demo.sys.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN plans of the month and month-range searches on MySQL 8
+ * Month ranges must be range scans of an index leading with record_date rather than full scans, and a single month
+ * sorted by rating must read idx_performance_date_rating in order. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=update",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.demo.sys.repository.RecordingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmployeePerformanceSearchRepository.class)
+// ANALYZE TABLE commits implicitly, so the data is committed and reset per test instead of rolled back
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeePerformanceDateRangePlanMySqlTest {
+
+    private static final int EMPLOYEES = 500;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", MYSQL::getDriverClassName);
+    }
+
+    @Autowired
+    private EmployeePerformanceRepository employeePerformanceRepository;
+
+    @Autowired
+    private EmployeePerformanceSearchRepository employeePerformanceSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // two years of months, enough rows that a full scan is clearly more expensive than the index
+        jdbcTemplate.execute("TRUNCATE TABLE employee_performance");
+        List<Object[]> rows = new ArrayList<>();
+        for (int m = 0; m < 24; m++) {
+            Date month = Date.valueOf(LocalDate.of(2023, 1, 1).plusMonths(m));
+            for (int e = 0; e < EMPLOYEES; e++) {
+                rows.add(new Object[]{String.format("E%04d", e), "Name " + e, "R&D", 90.0, 80.0, 10.0, e % 3 + 1, month});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employee_performance (employee_id, employee_name, department, " +
+            "attendance_rate, kpi_completion, overtime_hours, performance_rating, record_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE TABLE employee_performance");
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void monthRangeIsARangeScanOfTheDateIndex() {
+        assertEquals(2L * EMPLOYEES, employeePerformanceRepository.searchByMonthRange(null, null,
+            YearMonth.of(2024, 5), YearMonth.of(2024, 7), PageRequest.of(0, 20)).getTotalElements());
+
+        // the page query, not the count query that follows it
+        String sql = RecordingStatementInspector.last("record_date>=", " limit ");
+        Map<String, Object> plan = explain(sql, null, null, null, null, null, null,
+            Date.valueOf("2024-05-01"), Date.valueOf("2024-07-01"), 20);
+        // without an ORDER BY either index leading with record_date serves the range
+        assertTrue(String.valueOf(plan.get("key")).startsWith("idx_performance_date_"), plan.toString());
+        assertEquals("range", plan.get("type"), plan.toString());
+    }
+
+    @Test
+    void keysetMonthRangeIsARangeScanOfTheDateIndex() {
+        employeePerformanceSearchRepository.findPage(null, null, null, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 7, 1),
+            EmployeePerformanceSearchRepository.SortKey.RECORD_DATE, false, null, 20);
+
+        String sql = RecordingStatementInspector.last("record_date >=");
+        Map<String, Object> plan = explain(sql, Date.valueOf("2024-05-01"), Date.valueOf("2024-07-01"), 20);
+        assertEquals("idx_performance_date_employee", plan.get("key"), plan.toString());
+        assertEquals("range", plan.get("type"), plan.toString());
+        assertTrue(plan.get("Extra") == null || !plan.get("Extra").toString().contains("filesort"), plan.toString());
+    }
+
+    @Test
+    void keysetSingleMonthByRatingReadsTheIndexInOrder() {
+        employeePerformanceSearchRepository.findPage(null, null, null, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1),
+            EmployeePerformanceSearchRepository.SortKey.PERFORMANCE_RATING, false, null, 20);
+
+        String sql = RecordingStatementInspector.last("record_date =");
+        Map<String, Object> plan = explain(sql, Date.valueOf("2024-06-01"), 20);
+        assertEquals("idx_performance_date_rating", plan.get("key"), plan.toString());
+        assertTrue(plan.get("Extra") == null || !plan.get("Extra").toString().contains("filesort"), plan.toString());
+    }
+
+    private Map<String, Object> explain(String sql, Object... params) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, params).get(0);
+    }
+}
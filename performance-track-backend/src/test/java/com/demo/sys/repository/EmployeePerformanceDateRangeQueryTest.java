@@ -0,0 +1,156 @@
+package com.demo.sys.repository;
+
+import com.demo.sys.dto.PerformanceRowDTO;
+import com.demo.sys.entity.EmployeePerformance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Month and month-range searches against H2 in MySQL mode
+ * The generated SQL must compare record_date directly with half-open bounds (no CAST, EXTRACT or LIKE on the
+ * column), and H2's plan for it must use the (record_date, employee_id) index.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:date-range;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.demo.sys.repository.RecordingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmployeePerformanceSearchRepository.class)
+class EmployeePerformanceDateRangeQueryTest {
+
+    @Autowired
+    private EmployeePerformanceRepository employeePerformanceRepository;
+
+    @Autowired
+    private EmployeePerformanceSearchRepository employeePerformanceSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<EmployeePerformance> rows = new ArrayList<>();
+        for (int month = 4; month <= 8; month++) {
+            for (int e = 0; e < 3; e++) {
+                rows.add(performance("E00" + e, YearMonth.of(2024, month)));
+            }
+        }
+        employeePerformanceRepository.saveAll(rows);
+        employeePerformanceRepository.flush();
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void monthRangeIsHalfOpenOnTheColumn() {
+        Page<PerformanceRowDTO> page = employeePerformanceRepository.searchByMonthRange(
+            null, null, YearMonth.of(2024, 5), YearMonth.of(2024, 7), PageRequest.of(0, 50));
+
+        assertEquals(6, page.getTotalElements());
+        assertEquals(
+            Arrays.asList(YearMonth.of(2024, 5), YearMonth.of(2024, 6)),
+            page.getContent().stream().map(PerformanceRowDTO::getRecordDate).distinct().sorted()
+                .collect(Collectors.toList()));
+
+        String sql = normalize(RecordingStatementInspector.last("record_date>=", " limit "));
+        assertTrue(sql.matches(".*\\.record_date>=\\? and \\w+\\.record_date<\\?.*"), sql);
+        assertNoFunctionOnRecordDate(sql);
+        assertUsesIndex(sql, "idx_performance_date_employee");
+    }
+
+    @Test
+    void singleMonthIsAnEquality() {
+        List<PerformanceRowDTO> rows = employeePerformanceRepository.findRowsByRecordDate(YearMonth.of(2024, 6));
+
+        assertEquals(3, rows.size());
+        String sql = normalize(RecordingStatementInspector.last("employee_performance"));
+        assertTrue(sql.matches(".*\\.record_date=\\?.*"), sql);
+        assertNoFunctionOnRecordDate(sql);
+    }
+
+    @Test
+    void keysetSearchUsesTheSameRange() {
+        List<PerformanceRowDTO> page = employeePerformanceSearchRepository.findPage(null, null, null,
+            LocalDate.of(2024, 5, 1), LocalDate.of(2024, 8, 1),
+            EmployeePerformanceSearchRepository.SortKey.RECORD_DATE, false, null, 50);
+
+        assertEquals(9, page.size());
+        String sql = normalize(RecordingStatementInspector.last("FROM employee_performance"));
+        assertTrue(sql.contains("where record_date >= ? and record_date < ?"), sql);
+        assertNoFunctionOnRecordDate(sql);
+    }
+
+    @Test
+    void keysetSearchOfOneMonthIsAnEquality() {
+        List<PerformanceRowDTO> page = employeePerformanceSearchRepository.findPage(null, null, null,
+            LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1),
+            EmployeePerformanceSearchRepository.SortKey.PERFORMANCE_RATING, false, null, 50);
+
+        assertEquals(3, page.size());
+        String sql = normalize(RecordingStatementInspector.last("FROM employee_performance"));
+        assertTrue(sql.contains("record_date = ?"), sql);
+        assertFalse(sql.contains("record_date >="), sql);
+    }
+
+    // Every record_date in the WHERE clause is a bare column compared with a parameter, so the index applies
+    private static void assertNoFunctionOnRecordDate(String sql) {
+        String where = sql.substring(sql.indexOf(" where ")).split(" order by | limit ")[0];
+        Matcher matcher = Pattern.compile("(\\S*)record_date\\s*(>=|<|=)\\s*[?:]").matcher(where);
+        int compared = 0;
+        while (matcher.find()) {
+            compared++;
+            assertTrue(matcher.group(1).matches("(where|and|\\(?\\w+\\.)?"), sql);
+        }
+        assertTrue(compared > 0, sql);
+        assertEquals(where.split("record_date", -1).length - 1, compared, sql);
+    }
+
+    // H2 plans without bound parameters and names the index it scans in a comment, e.g. /* idx: record_date >= ?7 */
+    private void assertUsesIndex(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase(Locale.ROOT);
+        assertTrue(plan.contains("." + index + ": record_date >="), plan);
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static EmployeePerformance performance(String employeeId, YearMonth month) {
+        EmployeePerformance performance = new EmployeePerformance();
+        performance.setEmployeeID(employeeId);
+        performance.setEmployeeName("Name " + employeeId);
+        performance.setDepartment("R&D");
+        performance.setAttendanceRate(95.0);
+        performance.setKpiCompletion(80.0);
+        performance.setOvertimeHours(10.0);
+        performance.setPerformanceRating(2);
+        performance.setRecordDate(month);
+        return performance;
+    }
+}
@@ -0,0 +1,34 @@
+package com.demo.sys.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate sends, so tests can assert the generated predicates
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    /**
+     * The most recent statement containing every fragment
+     */
+    static String last(String... fragments) {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            String sql = STATEMENTS.get(i);
+            if (Arrays.stream(fragments).allMatch(sql::contains)) {
+                return sql;
+            }
+        }
+        throw new AssertionError("no statement containing " + Arrays.toString(fragments) + " in " + STATEMENTS);
+    }
+}
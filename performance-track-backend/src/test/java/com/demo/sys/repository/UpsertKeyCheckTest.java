@@ -0,0 +1,58 @@
+package com.demo.sys.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * UpsertKeyCheck against an embedded H2 database
+ */
+class UpsertKeyCheckTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UpsertKeyCheck check;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        check = new UpsertKeyCheck();
+        ReflectionTestUtils.setField(check, "jdbcTemplate", jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE daily_performance (id BIGINT PRIMARY KEY, employee_id VARCHAR(32), record_date DATE)");
+        jdbcTemplate.execute("CREATE TABLE employee_performance (id BIGINT PRIMARY KEY, employee_id VARCHAR(32), record_date DATE)");
+    }
+
+    @Test
+    void upsertAllowedWhenBothKeysExist() {
+        jdbcTemplate.execute("ALTER TABLE daily_performance ADD CONSTRAINT uk_daily_employee_date UNIQUE (employee_id, record_date)");
+        jdbcTemplate.execute("ALTER TABLE employee_performance ADD CONSTRAINT uk_performance_employee_month UNIQUE (employee_id, record_date)");
+
+        check.check();
+        assertDoesNotThrow(check::requireUpsertKeys);
+    }
+
+    @Test
+    void upsertRefusedWhenAKeyIsMissing() {
+        jdbcTemplate.execute("ALTER TABLE daily_performance ADD CONSTRAINT uk_daily_employee_date UNIQUE (employee_id, record_date)");
+        // a plain index on the same columns does not make ON DUPLICATE KEY UPDATE work
+        jdbcTemplate.execute("CREATE INDEX idx_performance_employee_month ON employee_performance (employee_id, record_date)");
+
+        check.check();
+        assertThrows(IllegalStateException.class, check::requireUpsertKeys);
+    }
+
+    @Test
+    void uniqueKeyOnOtherColumnsDoesNotCount() {
+        jdbcTemplate.execute("ALTER TABLE daily_performance ADD CONSTRAINT uk_daily_employee_date UNIQUE (employee_id, record_date)");
+        jdbcTemplate.execute("ALTER TABLE employee_performance ADD CONSTRAINT uk_performance_employee UNIQUE (employee_id)");
+
+        assertThrows(IllegalStateException.class, check::requireUpsertKeys);
+    }
+}
@@ -0,0 +1,98 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Zip archives are extracted under the import.zip-* limits; a batch over a limit fails without leaving temp files
+ */
+class BatchImportServiceTest {
+
+    private ImportConfig config;
+    private BatchImportService service;
+
+    @BeforeEach
+    void setUp() {
+        config = new ImportConfig();
+        service = new BatchImportService();
+        ReflectionTestUtils.setField(service, "importConfig", config);
+    }
+
+    @Test
+    void highlyCompressedEntryIsRejected() throws IOException {
+        // 20MB的0压缩后只有约20KB
+        MockMultipartFile bomb = zip("bomb.zip", 1, 20 * 1024 * 1024);
+        int before = tempFiles();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> service.importFiles(new MockMultipartFile[]{bomb}));
+        assertTrue(e.getMessage().contains("bomb.zip"));
+        assertEquals(before, tempFiles());
+    }
+
+    @Test
+    void extractedBytesAreLimitedAcrossTheBatch() throws IOException {
+        config.setZipMaxCompressionRatio(Integer.MAX_VALUE);
+        config.setZipMaxUncompressedBytes(3 * 1024 * 1024);
+        MockMultipartFile first = zip("first.zip", 2, 1024 * 1024);
+        MockMultipartFile second = zip("second.zip", 2, 1024 * 1024);
+        int before = tempFiles();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> service.importFiles(new MockMultipartFile[]{first, second}));
+        assertTrue(e.getMessage().contains("second.zip"));
+        assertEquals(before, tempFiles());
+    }
+
+    @Test
+    void entryCountIsLimited() throws IOException {
+        config.setZipMaxEntries(10);
+        MockMultipartFile many = zip("many.zip", 11, 16);
+        int before = tempFiles();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> service.importFiles(new MockMultipartFile[]{many}));
+        assertTrue(e.getMessage().contains("many.zip"));
+        assertEquals(before, tempFiles());
+    }
+
+    private static MockMultipartFile zip(String name, int entries, int entrySize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            byte[] content = new byte[entrySize];
+            for (int i = 0; i < entries; i++) {
+                zip.putNextEntry(new ZipEntry("EmployeePerformance_2024" + String.format("%02d", i % 12 + 1) + "_" + i + ".csv"));
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("files", name, "application/zip", bytes.toByteArray());
+    }
+
+    private static int tempFiles() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                Paths.get(System.getProperty("java.io.tmpdir")), "batch-import-*")) {
+            for (Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
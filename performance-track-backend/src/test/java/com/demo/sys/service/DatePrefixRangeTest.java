@@ -0,0 +1,71 @@
+package com.demo.sys.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * EmployeePerformanceService.datePrefixRange: yyyy-MM-dd prefixes to half-open date ranges
+ */
+class DatePrefixRangeTest {
+
+    @Test
+    void yearAndFullMonth() {
+        assertRange("2024", "2024-01-01", "2025-01-01");
+        assertRange("2024-", "2024-01-01", "2025-01-01");
+        assertRange("2024-06", "2024-06-01", "2024-07-01");
+        assertRange("2024-12", "2024-12-01", "2025-01-01");
+    }
+
+    @Test
+    void partialMonthDigit() {
+        // 2024-1x covers October to December
+        assertRange("2024-1", "2024-10-01", "2025-01-01");
+        assertRange("2024-0", "2024-01-01", "2024-10-01");
+    }
+
+    @Test
+    void partialDayDigit() {
+        assertRange("2024-01-3", "2024-01-30", "2024-02-01");
+        assertRange("2024-02-2", "2024-02-20", "2024-03-01");
+        assertRange("2024-02-29", "2024-02-29", "2024-03-01");
+        // no February has a 30th or 31st
+        assertNull(EmployeePerformanceService.datePrefixRange("2024-02-3"));
+        assertNull(EmployeePerformanceService.datePrefixRange("2023-02-29"));
+    }
+
+    @Test
+    void impossibleMonths() {
+        assertNull(EmployeePerformanceService.datePrefixRange("2024-00"));
+        assertNull(EmployeePerformanceService.datePrefixRange("2024-13"));
+        assertNull(EmployeePerformanceService.datePrefixRange("2024-2"));
+    }
+
+    @Test
+    void malformedPrefixes() {
+        assertNull(EmployeePerformanceService.datePrefixRange("2024/06"));
+        assertNull(EmployeePerformanceService.datePrefixRange("24-06"));
+        assertNull(EmployeePerformanceService.datePrefixRange("2024-06-15T"));
+        assertNull(EmployeePerformanceService.datePrefixRange("abcd"));
+    }
+
+    @Test
+    void rangesMapToMonthsStoredOnTheFirstDay() {
+        assertEquals(YearMonth.of(2024, 6), EmployeePerformanceService.firstMonthOnOrAfter(LocalDate.of(2024, 6, 1)));
+        assertEquals(YearMonth.of(2024, 7), EmployeePerformanceService.firstMonthOnOrAfter(LocalDate.of(2024, 6, 15)));
+        // a range inside one month after its first day contains no monthly rows
+        LocalDate[] range = EmployeePerformanceService.datePrefixRange("2024-02-1");
+        assertEquals(EmployeePerformanceService.firstMonthOnOrAfter(range[0]),
+            EmployeePerformanceService.firstMonthOnOrAfter(range[1]));
+    }
+
+    private static void assertRange(String prefix, String start, String end) {
+        assertArrayEquals(new LocalDate[]{LocalDate.parse(start), LocalDate.parse(end)},
+            EmployeePerformanceService.datePrefixRange(prefix), prefix);
+    }
+}
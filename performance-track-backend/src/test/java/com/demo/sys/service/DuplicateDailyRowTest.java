@@ -0,0 +1,96 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.dto.PerformanceImportResultDTO;
+import com.demo.sys.dto.RowRejectionDTO;
+import com.demo.sys.entity.DailyPerformance;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A repeated (employee, date) row is rejected while parsing instead of failing the insert on the unique key
+ */
+class DuplicateDailyRowTest {
+
+    private static final String[][] ROWS = {
+        {"2024-06-03", "EMP001", "Alice", "R&D", "Y", "0", "1.5", "10", "9"},
+        {"2024-06-03", "EMP002", "Bob", "R&D", "Y", "5", "0", "10", "7"},
+        {"2024-06-04", "EMP001", "Alice", "R&D", "Y", "0", "2", "10", "10"},
+        // 与第2行相同的员工和日期
+        {"2024-06-03", "EMP001", "Alice", "R&D", "N", "0", "0", "10", "0"}
+    };
+
+    private ExcelImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExcelImportService();
+        ReflectionTestUtils.setField(service, "csvFastReader", new CsvFastReader());
+        ReflectionTestUtils.setField(service, "xlsxStreamingReader", new XlsxStreamingReader());
+        ReflectionTestUtils.setField(service, "importConfig", new ImportConfig());
+    }
+
+    @Test
+    void repeatedCsvRowIsRejected() throws IOException {
+        StringBuilder csv = new StringBuilder(String.join(",", DailyRowDecoder.HEADERS)).append('\n');
+        for (String[] row : ROWS) {
+            csv.append(String.join(",", row)).append('\n');
+        }
+        PerformanceImportResultDTO result = service.parseExcel(
+            new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+            "EmployeePerformance_202406.csv", month -> { });
+
+        assertDuplicateRejected(result);
+    }
+
+    @Test
+    void repeatedExcelRowIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            writeRow(sheet.createRow(0), DailyRowDecoder.HEADERS);
+            for (int i = 0; i < ROWS.length; i++) {
+                writeRow(sheet.createRow(i + 1), ROWS[i]);
+            }
+            workbook.write(bytes);
+        }
+        PerformanceImportResultDTO result = service.parseExcel(
+            new ByteArrayInputStream(bytes.toByteArray()), "EmployeePerformance_202406.xlsx", month -> { });
+
+        assertDuplicateRejected(result);
+    }
+
+    private static void assertDuplicateRejected(PerformanceImportResultDTO result) {
+        assertEquals(3, result.getDailyPerformances().size());
+        assertEquals(1, result.getRejectedRowCount());
+        RowRejectionDTO rejection = result.getRejectedRows().get(0);
+        assertEquals(5, rejection.getRowNumber());
+        assertNull(rejection.getColumn());
+        assertEquals(DailyRowDecoder.REASON_DUPLICATE, rejection.getReason());
+
+        // 保留第一条记录
+        DailyPerformance kept = result.getDailyPerformances().get(0);
+        assertEquals(LocalDate.of(2024, 6, 3), kept.getRecordDate());
+        assertEquals("Y", kept.getAttendance());
+        assertEquals(2, result.getMonthlyPerformances().size());
+    }
+
+    private static void writeRow(Row row, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.sys.service;
+
+import com.demo.sys.entity.EmployeePerformance;
+import com.demo.sys.repository.EmployeePerformanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmployeeNameIndexTest {
+
+    private EmployeeNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        EmployeePerformanceRepository repository = mock(EmployeePerformanceRepository.class);
+        // 改名的员工两个姓名都有记录，返回顺序不固定
+        List<Object[]> names = Arrays.asList(
+            new Object[]{"E001", "Alice Brown"},
+            new Object[]{"E002", "Bob Stone"},
+            new Object[]{"E001", "Alice Smith"});
+        when(repository.findDistinctEmployeeNames()).thenReturn(names);
+        index = new EmployeeNameIndex();
+        ReflectionTestUtils.setField(index, "employeePerformanceRepository", repository);
+        index.initialize();
+    }
+
+    @Test
+    void renamedEmployeeIsFoundByEveryName() {
+        assertEquals(Collections.singleton("E001"), index.findEmployeeIds("smith"));
+        assertEquals(Collections.singleton("E001"), index.findEmployeeIds("Brown"));
+        assertEquals(Collections.singleton("E001"), index.findEmployeeIds("alice"));
+    }
+
+    @Test
+    void importedRenameKeepsTheOldName() {
+        index.addAll(Collections.singletonList(performance("E002", "Bob Carter")));
+
+        assertEquals(Collections.singleton("E002"), index.findEmployeeIds("Stone"));
+        assertEquals(Collections.singleton("E002"), index.findEmployeeIds("Carter"));
+        assertEquals(2, index.findEmployeeIds("o").size());
+        assertTrue(index.findEmployeeIds("Alice Carter").isEmpty());
+    }
+
+    private static EmployeePerformance performance(String employeeId, String name) {
+        EmployeePerformance performance = new EmployeePerformance();
+        performance.setEmployeeID(employeeId);
+        performance.setEmployeeName(name);
+        return performance;
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.sys.service;
+
+import com.demo.sys.entity.DailyPerformance;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FieldParserTest {
+
+    @Test
+    void parsesDates() {
+        assertEquals(LocalDate.of(2024, 2, 29), date("2024-02-29"));
+        assertNull(date("2023-02-29"));
+        assertNull(date("1900-02-29"));
+        assertEquals(LocalDate.of(2000, 2, 29), date("2000-02-29"));
+        assertNull(date("2024-04-31"));
+        assertNull(date("2024-4-30"));
+        assertNull(date("2024/04/30"));
+    }
+
+    @Test
+    void parsesDecimalsWithoutExceptions() {
+        assertEquals(1.5, decimal("1.5"));
+        assertEquals(-0.25, decimal("-.25"));
+        assertEquals(Double.parseDouble("12345678901234567.89"), decimal("12345678901234567.89"));
+        assertEquals(1.5e3, decimal("1.5e3"));
+        assertEquals(2e-2, decimal("2E-2"));
+        assertNull(decimal("1e"));
+        assertNull(decimal("1e+"));
+        assertNull(decimal("e5"));
+        assertNull(decimal("1.2.3"));
+        assertNull(decimal("-"));
+        assertNull(decimal("NaN"));
+        assertNull(decimal("1.5d"));
+    }
+
+    @Test
+    void parsesIntegers() {
+        assertEquals(Integer.valueOf(3), integer("3.0"));
+        assertEquals(Integer.valueOf(-12), integer("-12"));
+        assertNull(integer("2147483648"));
+        assertNull(integer("3a"));
+        assertNull(integer("+"));
+    }
+
+    @Test
+    void csvReaderUsesTheSameRules() throws IOException {
+        String csv = String.join(",", DailyRowDecoder.HEADERS) + "\n"
+            + "2024-02-29,E1,A,D,y,1,12345678901234567.89,10,9\n"
+            + "2024-02-29,E2,B,D,Y,1,1e,10,9\n"
+            + "2023-02-29,E3,C,D,Y,1,1,10,9\n";
+        List<DailyPerformance> records = new ArrayList<>();
+        List<String> rejections = new ArrayList<>();
+        new CsvFastReader().read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+            new CsvFastReader.RecordHandler() {
+                @Override
+                public void header(String[] cells) {
+                }
+
+                @Override
+                public void record(int rowNum, DailyPerformance record) {
+                    records.add(record);
+                }
+
+                @Override
+                public void reject(int rowNum, int column, String reason) {
+                    rejections.add(rowNum + ":" + column + ":" + reason);
+                }
+            });
+
+        assertEquals(1, records.size());
+        assertEquals("Y", records.get(0).getAttendance());
+        assertEquals(Double.parseDouble("12345678901234567.89"), records.get(0).getOvertimeHours());
+        assertEquals(List.of("2:6:" + DailyRowDecoder.REASON_INVALID_NUMBER, "3:0:" + DailyRowDecoder.REASON_INVALID_DATE),
+            rejections);
+    }
+
+    private static LocalDate date(String text) {
+        return FieldParser.parseDate(text, 0, text.length());
+    }
+
+    private static Double decimal(String text) {
+        return FieldParser.parseDecimal(text, 0, text.length());
+    }
+
+    private static Integer integer(String text) {
+        return FieldParser.parseInteger(text, 0, text.length());
+    }
+}
@@ -0,0 +1,80 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.ImportConfig;
+import com.demo.sys.dto.PerformanceImportResultDTO;
+import com.demo.sys.entity.DailyPerformance;
+import com.demo.sys.entity.EmployeePerformance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImportResultCacheTest {
+
+    private ImportResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ImportResultCache();
+        ReflectionTestUtils.setField(cache, "importConfig", new ImportConfig());
+    }
+
+    @Test
+    void everyCallerGetsItsOwnCopy() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "EmployeePerformance_202406.csv", "text/csv",
+            "content".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger loads = new AtomicInteger();
+
+        PerformanceImportResultDTO first = cache.get(file, month -> { }, () -> {
+            loads.incrementAndGet();
+            return result();
+        });
+        // 保存时写入生成的id
+        first.getMonthlyPerformances().get(0).setId(42L);
+        first.getDailyPerformances().get(0).setId(7L);
+        first.getMonthlyPerformances().add(new EmployeePerformance());
+
+        PerformanceImportResultDTO second = cache.get(file, month -> { }, () -> {
+            loads.incrementAndGet();
+            return result();
+        });
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertNotSame(first.getMonthlyPerformances().get(0), second.getMonthlyPerformances().get(0));
+        assertEquals(1, second.getMonthlyPerformances().size());
+        assertNull(second.getMonthlyPerformances().get(0).getId());
+        assertNull(second.getDailyPerformances().get(0).getId());
+        assertEquals(Integer.valueOf(2), second.getMonthlyPerformances().get(0).getPerformanceRating());
+        assertEquals(YearMonth.of(2024, 6), second.getYearMonth());
+    }
+
+    private static PerformanceImportResultDTO result() {
+        DailyPerformance record = new DailyPerformance();
+        record.setEmployeeId("E001");
+        record.setRecordDate(LocalDate.of(2024, 6, 3));
+        EmployeePerformance performance = new EmployeePerformance();
+        performance.setEmployeeID("E001");
+        performance.setPerformanceRating(2);
+        performance.setRecordDate(YearMonth.of(2024, 6));
+
+        PerformanceImportResultDTO result = new PerformanceImportResultDTO(
+            new ArrayList<>(Collections.singletonList(record)),
+            new ArrayList<>(Collections.singletonList(performance)),
+            "EmployeePerformance_202406.csv");
+        result.setYearMonth(YearMonth.of(2024, 6));
+        return result;
+    }
+}
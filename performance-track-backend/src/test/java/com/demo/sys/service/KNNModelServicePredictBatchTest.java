@@ -0,0 +1,105 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.KNNConfig;
+import com.demo.sys.config.KNNSearchConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * predictBatch splits the batch across the common pool; it must agree with the single-sample predictor
+ */
+class KNNModelServicePredictBatchTest {
+
+    @Test
+    void wekaBatchMatchesSinglePredictions() {
+        assertBatchMatchesSingle(service(KNNSearchConfig.Engine.WEKA));
+    }
+
+    @Test
+    void nativeBatchMatchesSinglePredictions() {
+        assertBatchMatchesSingle(service(KNNSearchConfig.Engine.NATIVE));
+    }
+
+    @Test
+    void wekaBatchSeesIncrementalUpdates() {
+        KNNModelService service = service(KNNSearchConfig.Engine.WEKA);
+        double[][] queries = queries(new Random(11), 500);
+        service.predictBatch(queries);
+
+        // 追加一个月的数据后，各线程的分类器副本必须重新复制
+        MonthlyAggregator aggregator = new MonthlyAggregator();
+        Random random = new Random(5);
+        for (int e = 0; e < 300; e++) {
+            for (int day = 3; day <= 7; day++) {
+                aggregator.add("N" + e, "name" + e, "dept", LocalDate.of(2024, 8, day), "Y",
+                    random.nextInt(60), random.nextDouble() * 3, 10, random.nextInt(11));
+            }
+        }
+        service.appendMonthlyAggregates(aggregator, Collections.emptyMap());
+
+        assertBatchMatchesSingle(service, queries);
+    }
+
+    private static void assertBatchMatchesSingle(KNNModelService service) {
+        assertBatchMatchesSingle(service, queries(new Random(7), 2000));
+    }
+
+    private static void assertBatchMatchesSingle(KNNModelService service, double[][] queries) {
+        int[] expected = new int[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            expected[i] = service.predictPerformanceRating(queries[i][0], queries[i][1], queries[i][2]);
+        }
+        assertArrayEquals(expected, service.predictBatch(queries));
+    }
+
+    private static KNNModelService service(KNNSearchConfig.Engine engine) {
+        KNNSearchConfig searchConfig = new KNNSearchConfig();
+        searchConfig.setEngine(engine);
+        searchConfig.setBatchTaskSize(32);
+        KNNConfig knnConfig = new KNNConfig();
+        knnConfig.setK(5);
+        KNNModelService service = new KNNModelService();
+        ReflectionTestUtils.setField(service, "knnSearchConfig", searchConfig);
+        ReflectionTestUtils.setField(service, "knnConfig", knnConfig);
+        service.restore(trainingSet(5000, new Random(42)));
+        return service;
+    }
+
+    private static KNNModelService.ModelSnapshot trainingSet(int n, Random random) {
+        double[] attendance = new double[n];
+        double[] kpi = new double[n];
+        double[] overtime = new double[n];
+        int[] ratings = new int[n];
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < n; i++) {
+            attendance[i] = 60 + random.nextDouble() * 40;
+            kpi[i] = 30 + random.nextDouble() * 70;
+            overtime[i] = random.nextDouble() * 80;
+            double score = attendance[i] * 0.4 + kpi[i] * 0.6 + random.nextGaussian() * 3;
+            ratings[i] = score >= 85 ? 3 : score >= 70 ? 2 : 1;
+            double[] row = {attendance[i], kpi[i], overtime[i]};
+            for (int f = 0; f < 3; f++) {
+                min[f] = Math.min(min[f], row[f]);
+                max[f] = Math.max(max[f], row[f]);
+            }
+        }
+        return new KNNModelService.ModelSnapshot(1L, 0, Collections.singletonMap(YearMonth.of(2024, 7), (long) n),
+            Collections.emptyMap(), attendance, kpi, overtime, ratings, n, 0, min, max, min.clone(), max.clone());
+    }
+
+    private static double[][] queries(Random random, int count) {
+        double[][] queries = new double[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = new double[]{60 + random.nextDouble() * 40, 30 + random.nextDouble() * 70, random.nextDouble() * 80};
+        }
+        return queries;
+    }
+}
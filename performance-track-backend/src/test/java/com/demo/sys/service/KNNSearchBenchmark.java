@@ -0,0 +1,122 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.KNNConfig;
+import com.demo.sys.config.KNNSearchConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * KNN prediction latency by training-set size and search engine
+ * Not part of the regular test run (the class name does not match the surefire includes); run it with
+ *
+ *   mvn test -Dtest=KNNSearchBenchmark [-Dknn.benchmark.sizes=1000,10000,100000,1000000]
+ *
+ * Each configuration trains KNNModelService on synthetic monthly features, warms up, then times single
+ * predictPerformanceRating calls for up to one second. Prints build time and mean latency per prediction.
+ */
+class KNNSearchBenchmark {
+
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+    private static final int WARMUP_QUERIES = 200;
+    private static final int MAX_QUERIES = 20_000;
+
+    @Test
+    void predictionLatencyBySize() {
+        String[] sizes = System.getProperty("knn.benchmark.sizes", "1000,10000,100000,1000000").split(",");
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-10s %-22s %12s %14s", "instances", "engine", "build", "per predict"));
+        for (String size : sizes) {
+            int n = Integer.parseInt(size.trim());
+            KNNModelService.ModelSnapshot training = trainingSet(n, new Random(42));
+            double[][] queries = queries(new Random(7));
+            lines.add(run(n, training, queries, KNNSearchConfig.Engine.WEKA, KNNSearchConfig.Algorithm.LINEAR));
+            lines.add(run(n, training, queries, KNNSearchConfig.Engine.WEKA, KNNSearchConfig.Algorithm.KD_TREE));
+            lines.add(run(n, training, queries, KNNSearchConfig.Engine.WEKA, KNNSearchConfig.Algorithm.BALL_TREE));
+            lines.add(run(n, training, queries, KNNSearchConfig.Engine.NATIVE, KNNSearchConfig.Algorithm.AUTO));
+        }
+        System.out.println(String.join(System.lineSeparator(), lines));
+    }
+
+    private static String run(int n, KNNModelService.ModelSnapshot training, double[][] queries,
+                              KNNSearchConfig.Engine engine, KNNSearchConfig.Algorithm algorithm) {
+        KNNSearchConfig searchConfig = new KNNSearchConfig();
+        searchConfig.setEngine(engine);
+        searchConfig.setAlgorithm(algorithm);
+        KNNConfig knnConfig = new KNNConfig();
+        knnConfig.setK(3);
+        KNNModelService service = new KNNModelService();
+        ReflectionTestUtils.setField(service, "knnSearchConfig", searchConfig);
+        ReflectionTestUtils.setField(service, "knnConfig", knnConfig);
+
+        long start = System.nanoTime();
+        service.restore(training);
+        long build = System.nanoTime() - start;
+
+        int q = 0;
+        for (int i = 0; i < WARMUP_QUERIES; i++, q++) {
+            predict(service, queries[q % queries.length]);
+        }
+        int measured = 0;
+        start = System.nanoTime();
+        long elapsed;
+        do {
+            predict(service, queries[q++ % queries.length]);
+            measured++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS && measured < MAX_QUERIES);
+
+        String name = engine == KNNSearchConfig.Engine.NATIVE ? "native" : "weka " + algorithm.name().toLowerCase();
+        return String.format("%-10d %-22s %12s %14s", n, name, format(build), format(elapsed / measured));
+    }
+
+    private static void predict(KNNModelService service, double[] query) {
+        service.predictPerformanceRating(query[0], query[1], query[2]);
+    }
+
+    // Features in the ranges monthly aggregation produces; ratings follow the rule-based fallback with some noise
+    private static KNNModelService.ModelSnapshot trainingSet(int n, Random random) {
+        double[] attendance = new double[n];
+        double[] kpi = new double[n];
+        double[] overtime = new double[n];
+        int[] ratings = new int[n];
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < n; i++) {
+            attendance[i] = 60 + random.nextDouble() * 40;
+            kpi[i] = 30 + random.nextDouble() * 70;
+            overtime[i] = random.nextDouble() * 80;
+            double score = attendance[i] * 0.4 + kpi[i] * 0.6 + random.nextGaussian() * 3;
+            ratings[i] = score >= 85 ? 3 : score >= 70 ? 2 : 1;
+            double[] row = {attendance[i], kpi[i], overtime[i]};
+            for (int f = 0; f < 3; f++) {
+                min[f] = Math.min(min[f], row[f]);
+                max[f] = Math.max(max[f], row[f]);
+            }
+        }
+        return new KNNModelService.ModelSnapshot(0L, 0, Collections.emptyMap(), Collections.emptyMap(),
+            attendance, kpi, overtime, ratings, n, 0, min, max, min.clone(), max.clone());
+    }
+
+    private static double[][] queries(Random random) {
+        double[][] queries = new double[4096][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{60 + random.nextDouble() * 40, 30 + random.nextDouble() * 70, random.nextDouble() * 80};
+        }
+        return queries;
+    }
+
+    private static String format(long nanos) {
+        if (nanos >= 1_000_000_000L) {
+            return String.format("%.1f s", nanos / 1e9);
+        }
+        if (nanos >= 1_000_000L) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.0f us", nanos / 1e3);
+    }
+}
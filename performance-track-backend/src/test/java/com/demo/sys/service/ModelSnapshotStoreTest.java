@@ -0,0 +1,125 @@
+package com.demo.sys.service;
+
+import com.demo.sys.config.KNNConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelSnapshotStoreTest {
+
+    private static final YearMonth JUNE = YearMonth.of(2024, 6);
+    private static final YearMonth JULY = YearMonth.of(2024, 7);
+    private static final LocalDateTime JUNE_IMPORT = LocalDateTime.of(2024, 7, 1, 9, 30, 15, 123_000_000);
+    private static final LocalDateTime JULY_IMPORT = LocalDateTime.of(2024, 8, 1, 10, 0);
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private ModelSnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("knn-model.bin");
+        KNNConfig config = new KNNConfig();
+        config.setSnapshotPath(file.toString());
+        store = new ModelSnapshotStore();
+        ReflectionTestUtils.setField(store, "knnConfig", config);
+    }
+
+    @Test
+    void appendedSegmentsAreMergedOnLoad() throws IOException {
+        assertTrue(store.save(snapshot(7L, 0, 3, watermark(JUNE, 90L))));
+        long fullSize = Files.size(file);
+
+        Map<YearMonth, Long> rows = watermark(JUNE, 90L);
+        rows.put(JULY, 93L);
+        KNNModelService.ModelSnapshot segment = snapshot(7L, 3, 2, rows);
+        segment.trainedImportTimes.put(JULY, JULY_IMPORT);
+        assertTrue(store.save(segment));
+        // 只追加新实例，不重写已有内容
+        assertTrue(Files.size(file) - fullSize < fullSize);
+        assertEquals(5, store.writtenSamples());
+
+        ModelSnapshotStore reader = reader();
+        KNNModelService.ModelSnapshot loaded = reader.load();
+        assertEquals(5, loaded.size());
+        assertEquals(0, loaded.offset);
+        assertArrayEquals(new double[]{0, 1, 2, 3, 4}, loaded.attendanceRates);
+        assertArrayEquals(new int[]{1, 2, 3, 1, 2}, loaded.ratings);
+        assertEquals(93L, loaded.getTrainedDailyRows().get(JULY));
+        assertEquals(JUNE_IMPORT, loaded.getTrainedImportTimes().get(JUNE));
+        assertEquals(JULY_IMPORT, loaded.getTrainedImportTimes().get(JULY));
+        assertEquals(2, loaded.appendedSamples);
+        assertEquals(7L, reader.writtenBuildId());
+        assertEquals(5, reader.writtenSamples());
+    }
+
+    @Test
+    void segmentOfAnotherBuildIsNotAppended() {
+        assertTrue(store.save(snapshot(7L, 0, 3, watermark(JUNE, 90L))));
+
+        assertFalse(store.save(snapshot(8L, 3, 2, watermark(JUNE, 90L))));
+        assertFalse(store.save(snapshot(7L, 2, 2, watermark(JUNE, 90L))));
+        assertEquals(3, reader().load().size());
+    }
+
+    @Test
+    void tornSegmentIsIgnoredAndForcesAFullWrite() throws IOException {
+        assertTrue(store.save(snapshot(7L, 0, 3, watermark(JUNE, 90L))));
+        assertTrue(store.save(snapshot(7L, 3, 2, watermark(JUNE, 90L))));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 5);
+        }
+
+        ModelSnapshotStore reader = reader();
+        KNNModelService.ModelSnapshot loaded = reader.load();
+        assertEquals(3, loaded.size());
+        // 后续的增量段不能接在损坏的内容之后
+        assertEquals(0, reader.writtenSamples());
+        assertFalse(reader.save(snapshot(7L, 3, 2, watermark(JUNE, 90L))));
+    }
+
+    private ModelSnapshotStore reader() {
+        ModelSnapshotStore reader = new ModelSnapshotStore();
+        ReflectionTestUtils.setField(reader, "knnConfig", ReflectionTestUtils.getField(store, "knnConfig"));
+        return reader;
+    }
+
+    private static Map<YearMonth, Long> watermark(YearMonth month, long rows) {
+        Map<YearMonth, Long> watermark = new HashMap<>();
+        watermark.put(month, rows);
+        return watermark;
+    }
+
+    private static KNNModelService.ModelSnapshot snapshot(long buildId, int offset, int count, Map<YearMonth, Long> rows) {
+        Map<YearMonth, LocalDateTime> times = new HashMap<>();
+        times.put(JUNE, JUNE_IMPORT);
+        double[] values = new double[count];
+        int[] ratings = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = offset + i;
+            ratings[i] = (offset + i) % 3 + 1;
+        }
+        double[] min = {0, 0, 0};
+        double[] max = {100, 100, 40};
+        return new KNNModelService.ModelSnapshot(buildId, offset, rows, times, values, values.clone(), values.clone(),
+            ratings, 3, offset + count - 3, min, max, min.clone(), max.clone());
+    }
+}
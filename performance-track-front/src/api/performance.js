@@ -9,6 +9,15 @@ export function searchPerformance(data) {
   })
 }
 
+// 键集分页搜索员工绩效数据，cursor为上一页返回的nextCursor
+export function searchPerformanceKeyset(data) {
+  return request({
+    url: '/employee-performance/search/keyset',
+    method: 'post',
+    data
+  })
+}
+
 // 获取过去六个月的优秀员工
 export function getTopPerformer() {
   return request({
@@ -31,6 +40,15 @@ export function previewPerformanceExcel(file) {
   })
 }
 
+// 分页读取已保存的预览结果，page从0开始
+export function getPreviewPage(token, page, size) {
+  return request({
+    url: `/employee-performance/preview/${token}`,
+    method: 'get',
+    params: { page, size }
+  })
+}
+
 // 上传并保存Excel文件
 export function savePerformanceExcel(file) {
   const formData = new FormData()
@@ -43,4 +61,12 @@ export function savePerformanceExcel(file) {
       'Content-Type': 'multipart/form-data'
     }
   })
-} 
\ No newline at end of file
+} 
+// 凭预览令牌保存数据
+export function confirmPerformanceImport(token) {
+  return request({
+    url: '/employee-performance/confirm',
+    method: 'post',
+    data: { token }
+  })
+}